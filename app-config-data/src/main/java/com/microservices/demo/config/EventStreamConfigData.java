@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Configuration
@@ -17,4 +18,44 @@ public class EventStreamConfigData {
     private Integer mockMinMessageLength;
     private Integer mockMaxMessageLength;
     private String topicName;
+    private GenerationMode generationMode;
+    private Long targetEventsPerSecond;
+    private Integer generatorThreads;
+    private Boolean useVirtualThreads;
+    private Long maxCatchUpMs;
+    private Long rateReportIntervalMs;
+    private UserIdDistributionType userIdDistribution;
+    private Long userCount;
+    private Double zipfExponent;
+    private Map<String, Integer> keywordWeights;
+    private TextLengthDistributionType textLengthDistribution;
+    private Double largePayloadProbability;
+    private Integer largePayloadBytes;
+    private Boolean captureEnabled;
+    private String captureFile;
+    private Long captureRegionBytes;
+    private Boolean enableReplay;
+    private String replayFile;
+    private Double replaySpeed;
+
+    public enum GenerationMode {
+        /** One event per mock-sleep-ms tick on a scheduled executor. */
+        SCHEDULED,
+        /** Paced generation at target-events-per-second spread across generator-threads. */
+        HIGH_RATE
+    }
+
+    public enum UserIdDistributionType {
+        /** Every one of user-count users is equally likely. */
+        UNIFORM,
+        /** Power-law skew: the user with rank k is chosen with probability proportional to 1/k^zipf-exponent. */
+        ZIPF
+    }
+
+    public enum TextLengthDistributionType {
+        /** Rendered templates as they are. */
+        FIXED,
+        /** Word count uniform between mock-min-message-length and mock-max-message-length. */
+        UNIFORM
+    }
 }
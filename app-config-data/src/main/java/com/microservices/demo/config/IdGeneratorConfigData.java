@@ -0,0 +1,13 @@
+package com.microservices.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "id-generator")
+public class IdGeneratorConfigData {
+    private Integer nodeId;
+    private Long epochMs;
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Configuration
@@ -17,4 +18,38 @@ public class KafkaConfigData {
     private List<String> topicNamesToCreate;
     private Integer numOfPartitions;
     private Short replicationFactor;
+    private Long startupTimeoutMs;
+    private Map<String, String> valueSchemas;
+    private Boolean schemaWarmupEnabled;
+    private Boolean embeddedSchemaRegistryEnabled;
+    private Integer embeddedSchemaRegistryPort;
+    private Map<String, TopicSpec> topicSpecs;
+    private Long partitionProducerThroughput;
+    private Long partitionConsumerThroughput;
+    private Double partitionHeadroom;
+    private Integer maxPartitions;
+    private Long lagDrainSeconds;
+    private Long loadSampleWindowMs;
+    private Boolean reconcileTopicConfigs;
+    private Integer skewSampleRecords;
+    private Integer skewTopKeys;
+    private Long skewAnalysisIntervalMs;
+    private String skewKeyDeserializer;
+
+    /**
+     * Declared load, key usage and broker-side settings of one topic, used to size and grow its partitions
+     * and applied as topic configs; unset settings keep the broker defaults.
+     */
+    @Data
+    public static class TopicSpec {
+        private Long targetThroughput;
+        private Boolean keyed;
+        private Boolean allowKeyedExpansion;
+        private Long segmentBytes;
+        private Long retentionMs;
+        private String compressionType;
+        private Integer minInsyncReplicas;
+        private String messageTimestampType;
+        private String cleanupPolicy;
+    }
 }
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "kafka-consumer-config")
@@ -24,4 +26,14 @@ public class KafkaConsumerConfigData {
     private Integer maxPartitionFetchBytesDefault;
     private Integer maxPartitionFetchBytesBoostFactor;
     private Long pollTimeoutMs;
+    private Integer processingConcurrency;
+    private Boolean processingVirtualThreads;
+    private Boolean asyncCommitEnabled;
+    private Long commitIntervalMs;
+    private Integer maxUncommittedRecords;
+    private Boolean retryEnabled;
+    private List<Long> retryDelaysMs;
+    private String retryKeySerializer;
+    private String retryValueSerializer;
+    private Long lagSampleIntervalMs;
 }
@@ -17,4 +17,45 @@ public class KafkaProducerConfigData {
     private Integer lingerMs;
     private Integer requestTimeoutMs;
     private Integer retryCount;
+    private Integer maxInFlightRecords;
+    private Long admissionTimeoutMs;
+    private DeliveryMode deliveryMode;
+    private String transactionIdPrefix;
+    private Integer transactionMaxRecords;
+    private Long transactionMaxIntervalMs;
+    private Boolean hotKeyPartitioningEnabled;
+    private Double hotKeyShare;
+    private Integer hotKeySaltPartitions;
+    private Long hotKeyWindowMs;
+    private Integer producerPoolSize;
+    private PoolRouting producerPoolRouting;
+    private Boolean adaptiveBatchingEnabled;
+    private Long adaptiveBatchingIntervalMs;
+    private Long adaptiveMaxAckLatencyMs;
+    private Integer adaptiveMinLingerMs;
+    private Integer adaptiveMaxLingerMs;
+    private Integer adaptiveMinBatchSize;
+    private Integer adaptiveMaxBatchSize;
+    private Boolean spillEnabled;
+    private String spillDirectory;
+    private Integer spillSegmentBytes;
+    private Integer spillMaxSegments;
+    private Long spillDrainIntervalMs;
+    private Integer spillDrainBatchRecords;
+
+    public enum DeliveryMode {
+        /** No idempotence: broker retries may duplicate or reorder records. */
+        PLAIN,
+        /** Idempotent producer: no duplicates or reordering per partition within a producer session. */
+        IDEMPOTENT,
+        /** Exactly-once: sends are grouped into transactions committed every N records or T ms. */
+        TRANSACTIONAL
+    }
+
+    public enum PoolRouting {
+        /** Each sending thread always uses the same pooled producer. */
+        THREAD,
+        /** Each partition is always written by the same pooled producer, keeping per-key ordering. */
+        PARTITION
+    }
 }
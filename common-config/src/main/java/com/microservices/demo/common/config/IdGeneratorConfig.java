@@ -0,0 +1,25 @@
+package com.microservices.demo.common.config;
+
+import com.microservices.demo.common.id.SnowflakeIdGenerator;
+import com.microservices.demo.config.IdGeneratorConfigData;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "id-generator.node-id")
+public class IdGeneratorConfig {
+
+    private final IdGeneratorConfigData idGeneratorConfigData;
+
+    public IdGeneratorConfig(IdGeneratorConfigData configData) {
+        this.idGeneratorConfigData = configData;
+    }
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator() {
+        long epochMs = idGeneratorConfigData.getEpochMs() != null
+                ? idGeneratorConfigData.getEpochMs() : SnowflakeIdGenerator.DEFAULT_EPOCH_MS;
+        return new SnowflakeIdGenerator(idGeneratorConfigData.getNodeId(), epochMs);
+    }
+}
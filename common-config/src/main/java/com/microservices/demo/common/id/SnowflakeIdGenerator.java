@@ -0,0 +1,72 @@
+package com.microservices.demo.common.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit IDs: {@code [0][41 bit ms since epoch][10 bit node id][12 bit sequence]}.
+ * <p>
+ * IDs are unique per node id and increase with time, so they sort roughly by creation and are cheap for
+ * Elasticsearch to look up and merge, unlike random IDs. Generation is lock-free: the last timestamp and
+ * sequence are packed into one {@link AtomicLong} updated by CAS.
+ * <p>
+ * Neither a clock moving backwards nor more than 4096 IDs in one millisecond blocks the caller: the
+ * generator keeps counting on its last timestamp, borrowing the next millisecond when a sequence is
+ * exhausted, and falls back in step once the clock catches up.
+ */
+public class SnowflakeIdGenerator {
+
+    /** 2024-01-01T00:00:00Z; the 41 bit timestamp lasts about 69 years from the epoch. */
+    public static final long DEFAULT_EPOCH_MS = 1_704_067_200_000L;
+    public static final int NODE_ID_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_ID_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
+
+    private final long nodeBits;
+    private final long epochMs;
+    private final LongSupplier clock;
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId, long epochMs) {
+        this(nodeId, epochMs, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, long epochMs, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.epochMs = epochMs;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = lastTimestampAndSequence.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - epochMs;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (lastTimestampAndSequence.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | nodeBits | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    public long timestampMsOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + epochMs;
+    }
+
+    public static int nodeIdOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
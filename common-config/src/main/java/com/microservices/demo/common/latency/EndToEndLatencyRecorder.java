@@ -0,0 +1,93 @@
+package com.microservices.demo.common.latency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records producer-to-consumer latency per stage (a consumer group or streams topology).
+ * <p>
+ * Each stage keeps a wait-free HdrHistogram {@link Recorder} for the full-resolution distribution
+ * served by the latency actuator endpoint, and a Micrometer timer publishing p50/p99/p99.9
+ * as {@code kafka.e2e.latency}.
+ */
+@Component
+public class EndToEndLatencyRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StageLatency> stages = new ConcurrentHashMap<>();
+
+    public EndToEndLatencyRecorder(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Records the latency of one record whose origin timestamp header carried {@code originMicros}.
+     * Negative latencies caused by clock skew between hosts are recorded as zero.
+     */
+    public void record(String stage, long originMicros) {
+        long latencyMicros = Math.max(0, OriginTimestamp.currentMicros() - originMicros);
+        stages.computeIfAbsent(stage, this::newStage).record(latencyMicros);
+    }
+
+    public Map<String, LatencySnapshot> snapshot() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        stages.forEach((stage, latency) -> snapshots.put(stage, latency.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        stages.values().forEach(StageLatency::reset);
+    }
+
+    private StageLatency newStage(String stage) {
+        Timer timer = Timer.builder("kafka.e2e.latency")
+                .description("Time from origin timestamp stamped by the producer until the record was processed")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        return new StageLatency(timer);
+    }
+
+    private static final class StageLatency {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private final Timer timer;
+        private Histogram interval;
+
+        private StageLatency(Timer timer) {
+            this.timer = timer;
+        }
+
+        void record(long latencyMicros) {
+            recorder.recordValue(latencyMicros);
+            timer.record(latencyMicros, TimeUnit.MICROSECONDS);
+        }
+
+        synchronized LatencySnapshot snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return new LatencySnapshot(total.getTotalCount(),
+                    total.getMean(),
+                    total.getValueAtPercentile(50),
+                    total.getValueAtPercentile(99),
+                    total.getValueAtPercentile(99.9),
+                    total.getMaxValue());
+        }
+
+        synchronized void reset() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.microservices.demo.common.latency;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /actuator/latency}) exposing end-to-end latency percentiles per stage.
+ * A DELETE clears the histograms, e.g. before a benchmark run.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final EndToEndLatencyRecorder latencyRecorder;
+
+    public LatencyEndpoint(EndToEndLatencyRecorder recorder) {
+        this.latencyRecorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, LatencySnapshot> latency() {
+        return latencyRecorder.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        latencyRecorder.reset();
+    }
+}
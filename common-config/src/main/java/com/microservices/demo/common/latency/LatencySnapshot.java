@@ -0,0 +1,12 @@
+package com.microservices.demo.common.latency;
+
+/**
+ * End-to-end latency distribution of one stage, in microseconds, since start or the last reset.
+ */
+public record LatencySnapshot(long count,
+                              double meanMicros,
+                              long p50Micros,
+                              long p99Micros,
+                              long p999Micros,
+                              long maxMicros) {
+}
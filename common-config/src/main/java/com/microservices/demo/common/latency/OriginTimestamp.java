@@ -0,0 +1,49 @@
+package com.microservices.demo.common.latency;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Encoding of the origin timestamp header stamped by the producer and read by every consumer
+ * to compute end-to-end latency.
+ * <p>
+ * The value is wall-clock time in microseconds since the epoch, written as an 8 byte big-endian long.
+ * Latencies across hosts are only as accurate as their clock synchronisation.
+ */
+public final class OriginTimestamp {
+
+    public static final String HEADER = "origin-timestamp-us";
+
+    private static final Clock CLOCK = Clock.systemUTC();
+
+    private OriginTimestamp() {
+    }
+
+    public static long currentMicros() {
+        Instant now = CLOCK.instant();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    public static byte[] encode(long epochMicros) {
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) epochMicros;
+            epochMicros >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the decoded timestamp, or -1 if the header value is missing or malformed
+     */
+    public static long decode(byte[] bytes) {
+        if (bytes == null || bytes.length != Long.BYTES) {
+            return -1;
+        }
+        long value = 0;
+        for (byte b : bytes) {
+            value = (value << 8) | (b & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,151 @@
+package com.microservices.demo.common.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per call-site limiter for log statements on hot paths.
+ * <p>
+ * A site is either rate limited (at most N statements per second) or sampled (on average one in N
+ * calls), or both. Rejected calls cost a level check and a few atomic operations; nothing is
+ * formatted or allocated. Arguments are only rendered by the underlying logger, so pass objects
+ * rather than pre-built strings, or guard expensive argument computation with {@link #isInfoEnabled()}:
+ * <pre>
+ * if (PROCESS_LOG.isInfoEnabled()) {
+ *     LOG.info("Processing event {} ...", event.getId(), preview(event));
+ * }
+ * </pre>
+ */
+public final class SampledLogger {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger;
+    private final int maxPerSecond;
+    private final int sampleOneIn;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    private SampledLogger(Logger logger, int maxPerSecond, int sampleOneIn) {
+        this.logger = logger;
+        this.maxPerSecond = maxPerSecond;
+        this.sampleOneIn = sampleOneIn;
+    }
+
+    /**
+     * @param maxPerSecond statements allowed per second at this site
+     */
+    public static SampledLogger rateLimited(Logger logger, int maxPerSecond) {
+        return new SampledLogger(logger, maxPerSecond, 1);
+    }
+
+    /**
+     * @param sampleOneIn log on average one in this many calls
+     */
+    public static SampledLogger sampled(Logger logger, int sampleOneIn) {
+        return new SampledLogger(logger, 0, sampleOneIn);
+    }
+
+    /**
+     * Samples one in {@code sampleOneIn} calls and additionally caps the site at {@code maxPerSecond}.
+     */
+    public static SampledLogger sampledAndRateLimited(Logger logger, int sampleOneIn, int maxPerSecond) {
+        return new SampledLogger(logger, maxPerSecond, sampleOneIn);
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled() && admit();
+    }
+
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled() && admit();
+    }
+
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled() && admit();
+    }
+
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled() && admit();
+    }
+
+    public void info(String format, Object arg) {
+        if (isInfoEnabled()) {
+            logger.info(format, arg);
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (isInfoEnabled()) {
+            logger.info(format, arg1, arg2);
+        }
+    }
+
+    public void info(String format, Object arg1, Object arg2, Object arg3) {
+        if (isInfoEnabled()) {
+            logger.info(format, arg1, arg2, arg3);
+        }
+    }
+
+    public void debug(String format, Object arg1, Object arg2) {
+        if (isDebugEnabled()) {
+            logger.debug(format, arg1, arg2);
+        }
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (isWarnEnabled()) {
+            logger.warn(format, arg1, arg2);
+        }
+    }
+
+    public void error(String format, Object arg1, Object arg2) {
+        if (isErrorEnabled()) {
+            logger.error(format, arg1, arg2);
+        }
+    }
+
+    public void error(String format, Object arg, Throwable t) {
+        if (isErrorEnabled()) {
+            logger.error(format, arg, t);
+        }
+    }
+
+    public void error(String format, Object arg1, Object arg2, Throwable t) {
+        if (isErrorEnabled()) {
+            logger.error(format, arg1, arg2, t);
+        }
+    }
+
+    /**
+     * @return calls dropped by this site since creation
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    private boolean admit() {
+        if (sampleOneIn > 1 && ThreadLocalRandom.current().nextInt(sampleOneIn) != 0) {
+            suppressed.increment();
+            return false;
+        }
+        if (maxPerSecond > 0) {
+            long now = System.nanoTime();
+            long start = windowStart.get();
+            if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                windowCount.set(0);
+            }
+            if (windowCount.incrementAndGet() > maxPerSecond) {
+                suppressed.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package com.microservices.demo.common.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Snowflake id generation
+ */
+@DisplayName("Snowflake Id Generator Tests")
+class SnowflakeIdGeneratorTest {
+
+    private static final long EPOCH_MS = SnowflakeIdGenerator.DEFAULT_EPOCH_MS;
+
+    @Test
+    @DisplayName("Should generate unique ids increasing per thread across concurrent threads")
+    void shouldGenerateUniqueIncreasingIds() throws InterruptedException {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, EPOCH_MS);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                long previous = Long.MIN_VALUE;
+                for (int i = 0; i < 50_000; i++) {
+                    long id = generator.nextId();
+                    if (id <= previous || !ids.add(id)) {
+                        synchronized (failures) {
+                            failures.add(new AssertionError("Id " + id + " after " + previous));
+                        }
+                        return;
+                    }
+                    previous = id;
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertTrue(failures.isEmpty(), () -> failures.get(0).getMessage());
+        assertEquals(400_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Should encode the node id and creation time in the id")
+    void shouldEncodeNodeIdAndTimestamp() {
+        // Given
+        long now = EPOCH_MS + 123_456_789L;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, EPOCH_MS,
+                () -> now);
+
+        // When
+        long id = generator.nextId();
+
+        // Then
+        assertTrue(id > 0, "Id should be positive");
+        assertEquals(SnowflakeIdGenerator.MAX_NODE_ID, SnowflakeIdGenerator.nodeIdOf(id));
+        assertEquals(now, generator.timestampMsOf(id));
+    }
+
+    @Test
+    @DisplayName("Should borrow the next millisecond when the sequence is exhausted or the clock goes back")
+    void shouldBorrowNextMillisecond() {
+        // Given
+        AtomicLong clock = new AtomicLong(EPOCH_MS + 1_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, EPOCH_MS, clock::get);
+        int idsPerMs = 1 << SnowflakeIdGenerator.SEQUENCE_BITS;
+
+        // When
+        long last = 0;
+        for (int i = 0; i < idsPerMs; i++) {
+            last = generator.nextId();
+        }
+        long borrowed = generator.nextId();
+        clock.set(EPOCH_MS + 500);
+        long afterClockStep = generator.nextId();
+
+        // Then
+        assertEquals(EPOCH_MS + 1_000, generator.timestampMsOf(last));
+        assertEquals(EPOCH_MS + 1_001, generator.timestampMsOf(borrowed));
+        assertTrue(borrowed > last);
+        assertTrue(afterClockStep > borrowed, "Ids should keep increasing when the clock goes back");
+        assertEquals(EPOCH_MS + 1_001, generator.timestampMsOf(afterClockStep));
+    }
+
+    @Test
+    @DisplayName("Should reject node ids that do not fit in the node id bits")
+    void shouldRejectInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, EPOCH_MS));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1, EPOCH_MS));
+    }
+}
@@ -0,0 +1,71 @@
+package com.microservices.demo.common.latency;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for end-to-end latency recording
+ */
+@DisplayName("End-to-End Latency Recorder Tests")
+class EndToEndLatencyRecorderTest {
+
+    @Test
+    @DisplayName("Should round-trip the origin timestamp header encoding")
+    void shouldRoundTripOriginTimestamp() {
+        // Given
+        long now = OriginTimestamp.currentMicros();
+
+        // When / Then
+        assertEquals(now, OriginTimestamp.decode(OriginTimestamp.encode(now)));
+        assertEquals(-1, OriginTimestamp.decode(new byte[3]), "Malformed header should decode to -1");
+        assertEquals(-1, OriginTimestamp.decode(null));
+    }
+
+    @Test
+    @DisplayName("Should record latency per stage into the histogram and the Micrometer timer")
+    void shouldRecordLatencyPerStage() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EndToEndLatencyRecorder recorder = new EndToEndLatencyRecorder(registry);
+        long now = OriginTimestamp.currentMicros();
+
+        // When
+        for (int i = 0; i < 99; i++) {
+            recorder.record("consumer", now - 1_000);
+        }
+        recorder.record("consumer", now - 1_000_000);
+        recorder.record("streams", now + 5_000_000);
+
+        // Then
+        LatencySnapshot consumer = recorder.snapshot().get("consumer");
+        assertEquals(100, consumer.count());
+        assertTrue(consumer.p50Micros() >= 1_000 && consumer.p50Micros() < 1_000_000, "p50 " + consumer.p50Micros());
+        assertTrue(consumer.maxMicros() >= 1_000_000, "max " + consumer.maxMicros());
+        assertEquals(0, recorder.snapshot().get("streams").maxMicros(), "Clock skew should clamp to zero");
+
+        Timer timer = registry.get("kafka.e2e.latency").tag("stage", "consumer").timer();
+        assertEquals(100, timer.count());
+        assertTrue(timer.max(TimeUnit.MICROSECONDS) >= 1_000_000);
+    }
+
+    @Test
+    @DisplayName("Should clear the distribution on reset")
+    void shouldClearOnReset() {
+        // Given
+        EndToEndLatencyRecorder recorder = new EndToEndLatencyRecorder(new SimpleMeterRegistry());
+        recorder.record("consumer", OriginTimestamp.currentMicros() - 500);
+
+        // When
+        recorder.reset();
+        recorder.record("consumer", OriginTimestamp.currentMicros() - 500);
+
+        // Then
+        assertEquals(1, recorder.snapshot().get("consumer").count());
+    }
+}
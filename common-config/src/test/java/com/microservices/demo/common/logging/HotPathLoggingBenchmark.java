@@ -0,0 +1,131 @@
+package com.microservices.demo.common.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of a per-event INFO statement (as the producer and consumers used to do) written
+ * synchronously, through the async appender, and through rate-limited and sampled {@link SampledLogger} sites.
+ * Output goes to a null stream so only formatting, encoding and hand-off are measured.
+ * Run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HotPathLoggingBenchmark {
+
+    private static final String TOPIC = "social-events";
+
+    private final Event event = new Event(1_000_042L, 42L,
+            "Just deployed a new Java microservice with Kafka and Elasticsearch", 1_700_000_000_000L);
+
+    private LoggerContext loggerContext;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private SampledLogger rateLimitedLogger;
+    private SampledLogger sampledLogger;
+
+    @Setup
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        Appender<ILoggingEvent> nullAppender = nullAppender("NULL");
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.setName("ASYNC");
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(nullAppender("ASYNC_NULL"));
+        asyncAppender.start();
+
+        syncLogger = logger("sync", nullAppender);
+        asyncLogger = logger("async", asyncAppender);
+        rateLimitedLogger = SampledLogger.rateLimited(syncLogger, 1);
+        sampledLogger = SampledLogger.sampled(syncLogger, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void syncEveryEvent() {
+        syncLogger.info("Sending event='{}' to topic='{}'", event, TOPIC);
+    }
+
+    @Benchmark
+    public void asyncEveryEvent() {
+        asyncLogger.info("Sending event='{}' to topic='{}'", event, TOPIC);
+    }
+
+    @Benchmark
+    public void rateLimitedSite() {
+        rateLimitedLogger.info("Sending event='{}' to topic='{}'", event, TOPIC);
+    }
+
+    @Benchmark
+    public void sampledSite() {
+        sampledLogger.info("Sending event='{}' to topic='{}'", event, TOPIC);
+    }
+
+    private Appender<ILoggingEvent> nullAppender(String name) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setName(name);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        return appender;
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        ch.qos.logback.classic.Logger logger = loggerContext.getLogger(name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private record Event(long userId, long id, String text, long createdAt) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotPathLoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -1,5 +1,6 @@
 package com.microservices.demo.elastic.index.client.service.impl;
 
+import com.microservices.demo.common.logging.SampledLogger;
 import com.microservices.demo.elastic.index.client.repository.SocialEventElasticsearchRepository;
 import com.microservices.demo.elastic.index.client.service.ElasticIndexClient;
 import com.microservices.demo.elastic.model.index.SocialEventIndexModel;
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
 public class SocialEventElasticIndexClient implements ElasticIndexClient<SocialEventIndexModel> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SocialEventElasticIndexClient.class);
+    private static final SampledLogger SAVE_LOG = SampledLogger.rateLimited(LOG, 1);
 
     private final SocialEventElasticsearchRepository repository;
 
@@ -29,7 +31,7 @@ public class SocialEventElasticIndexClient implements ElasticIndexClient<SocialE
         List<String> documentIds = savedDocuments.stream()
                 .map(SocialEventIndexModel::getId)
                 .collect(Collectors.toList());
-        LOG.info("Successfully indexed {} documents to Elasticsearch", documentIds.size());
+        SAVE_LOG.info("Successfully indexed {} documents to Elasticsearch", documentIds.size());
         return documentIds;
     }
 }
@@ -0,0 +1,36 @@
+package com.microservices.demo.elasticsearch.service.consumer.impl;
+
+import com.microservices.demo.elastic.index.client.service.ElasticIndexClient;
+import com.microservices.demo.elastic.model.index.SocialEventIndexModel;
+import com.microservices.demo.elasticsearch.service.transformer.AvroToElasticModelTransformer;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.consumer.retry.RetryRecordHandler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Indexes social events again from the retry topics once their delay passed, one at a time, while the
+ * main topic's batches keep being indexed; each tier is consumed by its own container of the retry
+ * listener containers.
+ */
+@Service
+@ConditionalOnProperty(name = "kafka-consumer-config.retry-enabled", havingValue = "true")
+public class SocialEventElasticRetryConsumer implements RetryRecordHandler<Long, SocialEventAvroModel> {
+
+    private final AvroToElasticModelTransformer transformer;
+    private final ElasticIndexClient<SocialEventIndexModel> elasticIndexClient;
+
+    public SocialEventElasticRetryConsumer(AvroToElasticModelTransformer avroToElasticModelTransformer,
+                                           ElasticIndexClient<SocialEventIndexModel> indexClient) {
+        this.transformer = avroToElasticModelTransformer;
+        this.elasticIndexClient = indexClient;
+    }
+
+    @Override
+    public void handle(ConsumerRecord<Long, SocialEventAvroModel> record) {
+        elasticIndexClient.save(transformer.getElasticModels(List.of(record.value())));
+    }
+}
@@ -1,12 +1,17 @@
 package com.microservices.demo.elasticsearch.service.consumer.impl;
 
+import com.microservices.demo.common.logging.SampledLogger;
 import com.microservices.demo.elastic.index.client.service.ElasticIndexClient;
 import com.microservices.demo.elastic.model.index.SocialEventIndexModel;
 import com.microservices.demo.elasticsearch.service.transformer.AvroToElasticModelTransformer;
 import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
 import com.microservices.demo.kafka.consumer.config.service.KafkaConsumer;
+import com.microservices.demo.kafka.consumer.retry.RetryTopicRouter;
+import com.microservices.demo.kafka.consumer.stats.RollingRateStats;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -14,23 +19,30 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 @Service
 public class SocialEventKafkaToElasticConsumer implements KafkaConsumer<Long, SocialEventAvroModel> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SocialEventKafkaToElasticConsumer.class);
+    private static final SampledLogger BATCH_LOG = SampledLogger.rateLimited(LOG, 1);
 
     private final AvroToElasticModelTransformer transformer;
     private final ElasticIndexClient<SocialEventIndexModel> elasticIndexClient;
+    private final RetryTopicRouter retryTopicRouter;
+    private final RollingRateStats stats;
 
-    private long eventsIndexed = 0;
-    private long lastLogTime = System.currentTimeMillis();
     private static final long LOG_INTERVAL_MS = 30000; // Log statistics every 30 seconds
 
     public SocialEventKafkaToElasticConsumer(AvroToElasticModelTransformer avroToElasticModelTransformer,
-                                              ElasticIndexClient<SocialEventIndexModel> indexClient) {
+                                              ElasticIndexClient<SocialEventIndexModel> indexClient,
+                                              ObjectProvider<RetryTopicRouter> router,
+                                              MeterRegistry meterRegistry) {
         this.transformer = avroToElasticModelTransformer;
         this.elasticIndexClient = indexClient;
+        this.retryTopicRouter = router.getIfAvailable();
+        this.stats = new RollingRateStats("indexed", meterRegistry);
     }
 
     @Override
@@ -47,20 +59,30 @@ public class SocialEventKafkaToElasticConsumer implements KafkaConsumer<Long, So
         // Transform Avro models to Elasticsearch models
         List<SocialEventIndexModel> elasticModels = transformer.getElasticModels(messages);
 
-        // Index to Elasticsearch
-        List<String> documentIds = elasticIndexClient.save(elasticModels);
+        // Index to Elasticsearch; with retry topics a failed batch is retried there instead of replayed here
+        List<String> documentIds;
+        try {
+            documentIds = elasticIndexClient.save(elasticModels);
+        } catch (RuntimeException e) {
+            if (retryTopicRouter == null) {
+                throw e;
+            }
+            LOG.error("Error indexing {} events, forwarding them for retry", messages.size(), e);
+            CompletableFuture.allOf(IntStream.range(0, messages.size())
+                    .mapToObj(i -> retryTopicRouter.route(partitions.get(i), offsets.get(i), keys.get(i),
+                            messages.get(i), e))
+                    .toArray(CompletableFuture[]::new)).join();
+            return;
+        }
 
-        eventsIndexed += documentIds.size();
+        stats.record(documentIds.size());
 
-        LOG.info("Successfully indexed {} documents. Total indexed: {}", documentIds.size(), eventsIndexed);
+        BATCH_LOG.info("Successfully indexed {} documents. Total indexed: {}", documentIds.size(), stats.getTotal());
 
-        // Log statistics periodically
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastLogTime >= LOG_INTERVAL_MS) {
-            double rate = (eventsIndexed * 60000.0) / (currentTime - lastLogTime + LOG_INTERVAL_MS);
-            LOG.info("📊 Indexed {} events to Elasticsearch | Rate: {}/min | Batch size: {}",
-                    eventsIndexed, String.format("%.2f", rate), messages.size());
-            lastLogTime = currentTime;
+        // Log statistics periodically, from whichever listener thread gets there first
+        if (stats.reportDue(LOG_INTERVAL_MS)) {
+            LOG.info("📊 Indexed {} events to Elasticsearch | Rate: {} | Batch size: {}",
+                    stats.getTotal(), stats.formatRates(), messages.size());
         }
     }
 }
@@ -0,0 +1,168 @@
+package com.microservices.demo.event.stream.service.capture;
+
+import com.microservices.demo.event.stream.service.exception.EventStreamServiceException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader for files produced by {@link CaptureFileWriter}.
+ * <p>
+ * The file is mapped read-only in windows of up to {@link #MAX_WINDOW_BYTES}, and keys, values and header
+ * values are handed to the {@link RecordHandler} as slices of the mapping, so reading never copies record
+ * bytes. Slices are only valid for the duration of the callback. Files of version 1 have no headers.
+ * <p>
+ * A file whose writer never closed it (e.g. after a crash) still ends in the zero-filled rest of its last
+ * mapped region, and may end in a torn record. Reading stops with a warning at the first record whose
+ * lengths are not consistent, so neither turns into phantom records.
+ */
+public class CaptureFileReader implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaptureFileReader.class);
+
+    static final long MAX_WINDOW_BYTES = 1L << 30;
+    private static final int VERSION_WITHOUT_HEADERS = 1;
+    private static final ByteBuffer INVALID = ByteBuffer.allocate(0);
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        /**
+         * @return false to stop reading
+         */
+        boolean onRecord(long timestamp, ByteBuffer key, ByteBuffer value, Headers headers);
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean hasHeaders;
+    /** Timestamp, the key and value lengths and, from version 2 on, the header count. */
+    private final int minRecordBytes;
+
+    public CaptureFileReader(Path file) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, CaptureFileWriter.HEADER_BYTES);
+            int version = header.getInt() == CaptureFileWriter.MAGIC ? header.getInt() : -1;
+            if (version != VERSION_WITHOUT_HEADERS && version != CaptureFileWriter.VERSION) {
+                throw new EventStreamServiceException("Not a capture file: " + file);
+            }
+            this.hasHeaders = version != VERSION_WITHOUT_HEADERS;
+            this.minRecordBytes = CaptureFileWriter.RECORD_OVERHEAD_BYTES - 4 - (hasHeaders ? 0 : 4);
+        } catch (IOException e) {
+            throw new EventStreamServiceException("Could not open capture file " + file, e);
+        }
+    }
+
+    /**
+     * Reads every record in file order.
+     *
+     * @return the number of records handed to the handler
+     */
+    public long forEach(RecordHandler handler) {
+        long count = 0;
+        long windowStart = CaptureFileWriter.HEADER_BYTES;
+        try {
+            while (windowStart < fileSize) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(MAX_WINDOW_BYTES, fileSize - windowStart));
+                while (window.remaining() >= 4) {
+                    int recordBytes = window.getInt(window.position());
+                    long recordOffset = windowStart + window.position();
+                    if (recordBytes < minRecordBytes || recordOffset + 4 + recordBytes > fileSize) {
+                        return endOfData(recordOffset, count);
+                    }
+                    if (window.remaining() < 4 + recordBytes) {
+                        // Continues in the next window
+                        break;
+                    }
+                    int recordEnd = window.position() + 4 + recordBytes;
+                    window.position(window.position() + 4);
+                    long timestamp = window.getLong();
+                    int fieldsEnd = recordEnd - (hasHeaders ? 4 : 0);
+                    ByteBuffer key = slice(window, fieldsEnd - 4);
+                    ByteBuffer value = key != INVALID ? slice(window, fieldsEnd) : INVALID;
+                    Headers headers = value == INVALID ? null : hasHeaders ? headers(window, recordEnd)
+                            : new RecordHeaders();
+                    if (headers == null || window.position() != recordEnd) {
+                        return endOfData(recordOffset, count);
+                    }
+                    count++;
+                    if (!handler.onRecord(timestamp, key, value, headers)) {
+                        return count;
+                    }
+                }
+                if (window.position() == 0) {
+                    throw new EventStreamServiceException("Truncated capture record at offset " + windowStart);
+                }
+                windowStart += window.position();
+            }
+        } catch (IOException e) {
+            throw new EventStreamServiceException("Could not read capture file", e);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long endOfData(long offset, long count) {
+        LOG.warn("Capture file {} ends in an unfinished or corrupt record at offset {}, read {} records",
+                file, offset, count);
+        return count;
+    }
+
+    /**
+     * @return the headers ending exactly at limit, or null if their lengths do not fit
+     */
+    private static Headers headers(ByteBuffer window, int limit) {
+        int count = window.getInt();
+        RecordHeaders headers = new RecordHeaders();
+        for (int i = 0; i < count; i++) {
+            if (limit - window.position() < CaptureFileWriter.HEADER_OVERHEAD_BYTES) {
+                return null;
+            }
+            ByteBuffer name = slice(window, limit - 4);
+            if (name == null || name == INVALID) {
+                return null;
+            }
+            ByteBuffer value = slice(window, limit);
+            if (value == INVALID) {
+                return null;
+            }
+            headers.add(new RecordHeader(name, value));
+        }
+        return count >= 0 && window.position() == limit ? headers : null;
+    }
+
+    /**
+     * @return the bytes of a length-prefixed field ending at or before limit, null for a null field, or
+     *         {@link #INVALID} if the length does not fit
+     */
+    private static ByteBuffer slice(ByteBuffer window, int limit) {
+        int length = window.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < -1 || length > limit - window.position()) {
+            return INVALID;
+        }
+        ByteBuffer slice = window.slice(window.position(), length);
+        window.position(window.position() + length);
+        return slice;
+    }
+}
@@ -0,0 +1,121 @@
+package com.microservices.demo.event.stream.service.capture;
+
+import com.microservices.demo.event.stream.service.exception.EventStreamServiceException;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only writer for capture files, written through a memory-mapped {@link FileChannel}.
+ * <p>
+ * File layout: an 8 byte header ({@link #MAGIC}, {@link #VERSION}) followed by records of
+ * {@code [int length][long timestamp][int keyLength][key][int valueLength][value][int headerCount]} and
+ * {@code [int nameLength][name][int valueLength][value]} per header, where a length of -1 marks a null
+ * key or value and {@code length} covers everything after itself. Version 1 files have no headers. The
+ * file is mapped in
+ * regions of {@code regionBytes}; a record never straddles two regions, and on close the file is
+ * truncated to the bytes actually written.
+ */
+public class CaptureFileWriter implements Closeable {
+
+    public static final int MAGIC = 0x45564350; // "EVCP"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 8;
+    /** Record bytes besides the key, the value and the headers' own names and values. */
+    public static final int RECORD_OVERHEAD_BYTES = 4 + 8 + 4 + 4 + 4;
+    static final int HEADER_OVERHEAD_BYTES = 4 + 4;
+
+    private static final Header[] NO_HEADERS = new Header[0];
+
+    private final FileChannel channel;
+    private final long regionBytes;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long recordCount;
+
+    public CaptureFileWriter(Path file, long regionBytes) {
+        this.regionBytes = regionBytes;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            mapRegion(0, regionBytes);
+        } catch (IOException e) {
+            throw new EventStreamServiceException("Could not open capture file " + file, e);
+        }
+        region.putInt(MAGIC).putInt(VERSION);
+    }
+
+    public synchronized void append(long timestamp, byte[] key, byte[] value, Headers headers) {
+        if (region == null) {
+            // Closed during shutdown while producers were still sending
+            return;
+        }
+        Header[] recordHeaders = headers != null ? headers.toArray() : NO_HEADERS;
+        byte[][] headerNames = new byte[recordHeaders.length][];
+        int recordBytes = RECORD_OVERHEAD_BYTES + length(key) + length(value);
+        for (int i = 0; i < recordHeaders.length; i++) {
+            headerNames[i] = recordHeaders[i].key().getBytes(StandardCharsets.UTF_8);
+            recordBytes += HEADER_OVERHEAD_BYTES + headerNames[i].length + length(recordHeaders[i].value());
+        }
+        if (region.remaining() < recordBytes) {
+            try {
+                mapRegion(regionStart + region.position(), Math.max(regionBytes, recordBytes));
+            } catch (IOException e) {
+                throw new EventStreamServiceException("Could not extend capture file", e);
+            }
+        }
+        region.putInt(recordBytes - 4).putLong(timestamp);
+        putBytes(key);
+        putBytes(value);
+        region.putInt(recordHeaders.length);
+        for (int i = 0; i < recordHeaders.length; i++) {
+            putBytes(headerNames[i]);
+            putBytes(recordHeaders[i].value());
+        }
+        recordCount++;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (region == null) {
+            return;
+        }
+        long written = regionStart + region.position();
+        region.force();
+        region = null;
+        channel.truncate(written);
+        channel.close();
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private void putBytes(byte[] bytes) {
+        if (bytes == null) {
+            region.putInt(-1);
+        } else {
+            region.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private void mapRegion(long position, long size) throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        regionStart = position;
+    }
+}
@@ -0,0 +1,70 @@
+package com.microservices.demo.event.stream.service.capture;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Captures the exact bytes the producer sends by wrapping its key and value serializers.
+ * <p>
+ * {@code KafkaProducer.send} serializes the key and then the value on the calling thread, so the key
+ * serializer parks its output in a thread local and the value serializer appends the completed
+ * key/value pair, with the record's headers, to the capture file.
+ */
+public class RecordCapture {
+
+    private final CaptureFileWriter writer;
+    private final ThreadLocal<byte[]> pendingKey = new ThreadLocal<>();
+
+    public RecordCapture(CaptureFileWriter writer) {
+        this.writer = writer;
+    }
+
+    public <K> Serializer<K> keySerializer(Serializer<K> delegate) {
+        return new CapturingSerializer<>(delegate) {
+            @Override
+            public byte[] serialize(String topic, Headers headers, K data) {
+                byte[] key = delegate.serialize(topic, headers, data);
+                pendingKey.set(key);
+                return key;
+            }
+        };
+    }
+
+    public <V> Serializer<V> valueSerializer(Serializer<V> delegate) {
+        return new CapturingSerializer<>(delegate) {
+            @Override
+            public byte[] serialize(String topic, Headers headers, V data) {
+                byte[] value = delegate.serialize(topic, headers, data);
+                writer.append(System.currentTimeMillis(), pendingKey.get(), value, headers);
+                pendingKey.remove();
+                return value;
+            }
+        };
+    }
+
+    private abstract static class CapturingSerializer<T> implements Serializer<T> {
+
+        private final Serializer<T> delegate;
+
+        CapturingSerializer(Serializer<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void configure(Map<String, ?> configs, boolean isKey) {
+            delegate.configure(configs, isKey);
+        }
+
+        @Override
+        public byte[] serialize(String topic, T data) {
+            return serialize(topic, null, data);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
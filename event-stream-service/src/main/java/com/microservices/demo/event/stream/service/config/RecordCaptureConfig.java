@@ -0,0 +1,53 @@
+package com.microservices.demo.event.stream.service.config;
+
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.event.stream.service.capture.CaptureFileWriter;
+import com.microservices.demo.event.stream.service.capture.RecordCapture;
+import com.microservices.demo.kafka.producer.config.ProducerSerializers;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Wraps the producer's serializers so every record sent is also appended to the capture file.
+ */
+@Configuration
+@ConditionalOnProperty(name = "event-stream-service.capture-enabled", havingValue = "true")
+public class RecordCaptureConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecordCaptureConfig.class);
+
+    private final EventStreamConfigData eventStreamConfigData;
+
+    public RecordCaptureConfig(EventStreamConfigData configData) {
+        this.eventStreamConfigData = configData;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CaptureFileWriter captureFileWriter() {
+        LOG.info("Capturing produced records to {}", eventStreamConfigData.getCaptureFile());
+        return new CaptureFileWriter(Path.of(eventStreamConfigData.getCaptureFile()),
+                eventStreamConfigData.getCaptureRegionBytes());
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public RecordCapture recordCapture(CaptureFileWriter captureFileWriter, ProducerFactory<?, ?> producerFactory) {
+        RecordCapture recordCapture = new RecordCapture(captureFileWriter);
+        DefaultKafkaProducerFactory<Object, Object> factory = (DefaultKafkaProducerFactory<Object, Object>) producerFactory;
+        Map<String, Object> configs = factory.getConfigurationProperties();
+        factory.setKeySerializer(recordCapture.keySerializer(
+                ProducerSerializers.newSerializer(configs, ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, true)));
+        // Wraps the value serializer the producers share, so its warmed schema cache is kept
+        factory.setValueSerializer(recordCapture.valueSerializer(factory.getValueSerializer()));
+        return recordCapture;
+    }
+}
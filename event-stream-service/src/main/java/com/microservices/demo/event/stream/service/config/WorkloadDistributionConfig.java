@@ -0,0 +1,30 @@
+package com.microservices.demo.event.stream.service.config;
+
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.config.EventStreamConfigData.UserIdDistributionType;
+import com.microservices.demo.event.stream.service.generator.distribution.UniformUserIdDistribution;
+import com.microservices.demo.event.stream.service.generator.distribution.UserIdDistribution;
+import com.microservices.demo.event.stream.service.generator.distribution.ZipfUserIdDistribution;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WorkloadDistributionConfig {
+
+    private final EventStreamConfigData eventStreamConfigData;
+
+    public WorkloadDistributionConfig(EventStreamConfigData configData) {
+        this.eventStreamConfigData = configData;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UserIdDistribution userIdDistribution() {
+        long userCount = eventStreamConfigData.getUserCount();
+        if (eventStreamConfigData.getUserIdDistribution() == UserIdDistributionType.ZIPF) {
+            return new ZipfUserIdDistribution(userCount, eventStreamConfigData.getZipfExponent());
+        }
+        return new UniformUserIdDistribution(userCount);
+    }
+}
@@ -0,0 +1,13 @@
+package com.microservices.demo.event.stream.service.generator;
+
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+
+/**
+ * Produces synthetic social events for the mock stream runners.
+ * <p>
+ * Every call returns a new record that callers own: producers keep it after the send returns, to spill,
+ * log or capture it once the send completes.
+ */
+public interface EventSynthesizer {
+    SocialEventAvroModel next();
+}
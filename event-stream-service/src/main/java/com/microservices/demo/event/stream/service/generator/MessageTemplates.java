@@ -0,0 +1,75 @@
+package com.microservices.demo.event.stream.service.generator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Realistic social media message templates shared by the event synthesizers.
+ */
+public final class MessageTemplates {
+
+    public static final String KEYWORD_PLACEHOLDER = "{keyword}";
+
+    // Realistic message templates for different categories
+    private static final List<String> TECH_MESSAGES = Arrays.asList(
+            "Just deployed a new microservice using {keyword}! The performance improvements are incredible. #DevOps #CloudNative",
+            "Learning {keyword} has been a game changer for our architecture. Highly recommend checking it out! #TechTips",
+            "Anyone else excited about the latest {keyword} features? This is going to revolutionize how we build systems!",
+            "Working on a new project with {keyword}. The ecosystem is amazing and the community support is outstanding!",
+            "Pro tip: When using {keyword}, make sure to follow best practices for scalability and resilience.",
+            "Just finished a deep dive into {keyword}. Here are my top 5 takeaways from the experience...",
+            "Our team migrated to {keyword} last month. The results have exceeded all expectations! #DevLife",
+            "Debugging a tricky issue with {keyword}. Sometimes the simplest solutions are the best ones.",
+            "Conference talk on {keyword} was mind-blowing! Can't wait to implement these patterns in production.",
+            "Comparison: {keyword} vs traditional approaches. The benefits are clear for modern distributed systems."
+    );
+
+    private static final List<String> TUTORIAL_MESSAGES = Arrays.asList(
+            "New tutorial: Getting started with {keyword} in 10 minutes. Perfect for beginners! Link in bio.",
+            "Step-by-step guide to mastering {keyword}. Covering everything from basics to advanced patterns.",
+            "Common mistakes to avoid when working with {keyword}. Learn from my experience!",
+            "Best practices for {keyword} in production environments. Thread 🧵",
+            "How we scaled our {keyword} implementation to handle millions of requests per day.",
+            "Understanding {keyword}: A comprehensive guide for developers of all skill levels.",
+            "Top 10 resources for learning {keyword} in 2024. Bookmark this for later!",
+            "Real-world {keyword} use cases that demonstrate its power and flexibility.",
+            "Architecture deep dive: How we use {keyword} to build resilient microservices.",
+            "From zero to hero with {keyword}. My learning journey and key insights."
+    );
+
+    private static final List<String> QUESTION_MESSAGES = Arrays.asList(
+            "Has anyone experienced performance issues with {keyword}? Looking for optimization tips.",
+            "What's the best way to implement error handling in {keyword}? Need some advice.",
+            "Choosing between options for {keyword} integration. What has worked well for you?",
+            "How do you handle testing with {keyword}? Share your testing strategies!",
+            "What are the most important metrics to monitor when using {keyword}?",
+            "Recommended resources for advanced {keyword} patterns? Moving beyond the basics.",
+            "How do you ensure data consistency when working with {keyword}?",
+            "What's your experience with {keyword} in high-traffic production environments?",
+            "Looking for feedback on our {keyword} architecture. Open to suggestions!",
+            "How do you handle versioning and backward compatibility with {keyword}?"
+    );
+
+    private static final List<String> ANNOUNCEMENT_MESSAGES = Arrays.asList(
+            "🚀 Just released version 2.0 of our {keyword} library! Check out the new features.",
+            "Excited to announce our new open-source project built with {keyword}! ⭐ Star us on GitHub!",
+            "Join us for a webinar on {keyword} best practices next week. Registration is now open!",
+            "Big news! Our {keyword} integration is now available in production. Try it out!",
+            "We're hiring! Looking for talented developers with {keyword} experience. DM for details.",
+            "Conference announcement: Speaking about {keyword} at the upcoming tech summit!",
+            "New blog post: How we use {keyword} to power our platform. Read more on our tech blog.",
+            "Open source contribution: We've added support for {keyword} in our framework!",
+            "Launching a {keyword} study group. Join developers from around the world!",
+            "Case study published: How {keyword} helped us achieve 99.99% uptime."
+    );
+
+    public static final List<List<String>> MESSAGE_CATEGORIES = Arrays.asList(
+            TECH_MESSAGES,
+            TUTORIAL_MESSAGES,
+            QUESTION_MESSAGES,
+            ANNOUNCEMENT_MESSAGES
+    );
+
+    private MessageTemplates() {
+    }
+}
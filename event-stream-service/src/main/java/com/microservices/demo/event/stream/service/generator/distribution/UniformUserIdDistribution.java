@@ -0,0 +1,17 @@
+package com.microservices.demo.event.stream.service.generator.distribution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class UniformUserIdDistribution implements UserIdDistribution {
+
+    private final long userCount;
+
+    public UniformUserIdDistribution(long userCount) {
+        this.userCount = userCount;
+    }
+
+    @Override
+    public long nextUserId(ThreadLocalRandom random) {
+        return FIRST_USER_ID + random.nextLong(userCount);
+    }
+}
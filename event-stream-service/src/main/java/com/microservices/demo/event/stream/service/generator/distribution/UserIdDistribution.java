@@ -0,0 +1,14 @@
+package com.microservices.demo.event.stream.service.generator.distribution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses the user id, and therefore the Kafka record key, of each synthetic event.
+ */
+public interface UserIdDistribution {
+
+    /** Lowest user id handed out; ids are {@code FIRST_USER_ID + rank - 1}. */
+    long FIRST_USER_ID = 1000;
+
+    long nextUserId(ThreadLocalRandom random);
+}
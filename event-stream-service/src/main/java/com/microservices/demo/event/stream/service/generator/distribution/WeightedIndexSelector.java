@@ -0,0 +1,45 @@
+package com.microservices.demo.event.stream.service.generator.distribution;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an index with probability proportional to its weight, e.g. to give some keywords a hot share of
+ * the traffic. Selection is a binary search over cumulative weights and allocates nothing.
+ */
+public class WeightedIndexSelector {
+
+    private final long[] cumulativeWeights;
+    private final long totalWeight;
+
+    public WeightedIndexSelector(int[] weights) {
+        this.cumulativeWeights = new long[weights.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weights must not be negative");
+            }
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        this.totalWeight = total;
+    }
+
+    public int nextIndex(ThreadLocalRandom random) {
+        long point = random.nextLong(totalWeight);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        // Insertion point when point + 1 falls inside a bucket rather than on its upper bound
+        return index >= 0 ? firstWithSameCumulative(index) : -index - 1;
+    }
+
+    private int firstWithSameCumulative(int index) {
+        // Zero-weight entries share the cumulative value of their predecessor and must never be picked
+        while (index > 0 && cumulativeWeights[index - 1] == cumulativeWeights[index]) {
+            index--;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.demo.event.stream.service.generator.distribution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf (power-law) user distribution: the user with rank k is drawn with probability proportional to
+ * {@code 1 / k^exponent}, so a handful of users produce most of the traffic.
+ * <p>
+ * Uses the rejection-inversion method of Hörmann and Derflinger, which needs O(1) memory and expected
+ * O(1) time per sample even for millions of users.
+ */
+public class ZipfUserIdDistribution implements UserIdDistribution {
+
+    private final long userCount;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralUserCount;
+    private final double squeeze;
+
+    public ZipfUserIdDistribution(long userCount, double exponent) {
+        if (userCount < 1 || exponent <= 0) {
+            throw new IllegalArgumentException("Zipf needs a positive user count and exponent");
+        }
+        this.userCount = userCount;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralUserCount = hIntegral(userCount + 0.5);
+        this.squeeze = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2.0));
+    }
+
+    @Override
+    public long nextUserId(ThreadLocalRandom random) {
+        return FIRST_USER_ID + nextRank(random) - 1;
+    }
+
+    long nextRank(ThreadLocalRandom random) {
+        while (true) {
+            double u = hIntegralUserCount + random.nextDouble() * (hIntegralX1 - hIntegralUserCount);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > userCount) {
+                k = userCount;
+            }
+            if (k - x <= squeeze || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1.0 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(x * (1.0 - exponent), -1.0);
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /** log(1 + x) / x, stable near zero. */
+    private static double log1pOverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+
+    /** (exp(x) - 1) / x, stable near zero. */
+    private static double expm1OverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x / 3.0 * (1.0 + 0.25 * x));
+    }
+}
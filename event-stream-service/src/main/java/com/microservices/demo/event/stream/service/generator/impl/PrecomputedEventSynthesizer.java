@@ -0,0 +1,129 @@
+package com.microservices.demo.event.stream.service.generator.impl;
+
+import com.microservices.demo.common.id.SnowflakeIdGenerator;
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.config.EventStreamConfigData.TextLengthDistributionType;
+import com.microservices.demo.event.stream.service.generator.EventSynthesizer;
+import com.microservices.demo.event.stream.service.generator.MessageTemplates;
+import com.microservices.demo.event.stream.service.generator.distribution.UserIdDistribution;
+import com.microservices.demo.event.stream.service.generator.distribution.WeightedIndexSelector;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Low-allocation synthesis path for high event rates.
+ * <p>
+ * Every template x keyword text (and every word-count variant of it) is rendered once at startup and
+ * timestamps come straight from epoch millis, so steady-state generation allocates only the small Avro
+ * record itself and the boxed fields the nullable schema requires.
+ * <p>
+ * The workload shape is configurable: user ids come from a pluggable {@link UserIdDistribution},
+ * keywords are drawn by weight, text lengths can vary between mock-min-message-length and
+ * mock-max-message-length words and a share of events can carry a large payload.
+ * Event ids come from the {@link SnowflakeIdGenerator}, so they are unique and roughly time-ordered.
+ */
+@Component
+@ConditionalOnProperty(name = "event-stream-service.event-synthesizer", havingValue = "precomputed",
+        matchIfMissing = true)
+public class PrecomputedEventSynthesizer implements EventSynthesizer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PrecomputedEventSynthesizer.class);
+
+    private final SnowflakeIdGenerator idGenerator;
+    private final UserIdDistribution userIdDistribution;
+    private final WeightedIndexSelector keywordSelector;
+    private final String[][] textsByKeyword;
+    private final String[] largeTextsByKeyword;
+    private final double largePayloadProbability;
+
+    public PrecomputedEventSynthesizer(EventStreamConfigData configData, UserIdDistribution userIdDistribution,
+                                       SnowflakeIdGenerator idGenerator) {
+        List<String> keywords = configData.getEventKeywords();
+        this.idGenerator = idGenerator;
+        this.userIdDistribution = userIdDistribution;
+        this.keywordSelector = new WeightedIndexSelector(keywordWeights(keywords, configData.getKeywordWeights()));
+        this.textsByKeyword = new String[keywords.size()][];
+        this.largeTextsByKeyword = new String[keywords.size()];
+        this.largePayloadProbability = configData.getLargePayloadProbability() != null
+                ? configData.getLargePayloadProbability() : 0.0;
+
+        boolean variableLength = configData.getTextLengthDistribution() == TextLengthDistributionType.UNIFORM;
+        for (int i = 0; i < keywords.size(); i++) {
+            List<String> rendered = renderTexts(keywords.get(i));
+            textsByKeyword[i] = variableLength
+                    ? lengthVariants(rendered, configData.getMockMinMessageLength(),
+                    configData.getMockMaxMessageLength())
+                    : rendered.toArray(new String[0]);
+            if (largePayloadProbability > 0) {
+                largeTextsByKeyword[i] = largeText(rendered, configData.getLargePayloadBytes());
+            }
+        }
+        LOG.info("Precomputed {} event texts for {} keywords", textsByKeyword[0].length * keywords.size(),
+                keywords.size());
+    }
+
+    @Override
+    public SocialEventAvroModel next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int keyword = keywordSelector.nextIndex(random);
+        String[] texts = textsByKeyword[keyword];
+
+        String text = largePayloadProbability > 0 && random.nextDouble() < largePayloadProbability
+                ? largeTextsByKeyword[keyword]
+                : texts[random.nextInt(texts.length)];
+        return new SocialEventAvroModel(userIdDistribution.nextUserId(random), idGenerator.nextId(), text,
+                System.currentTimeMillis());
+    }
+
+    private static int[] keywordWeights(List<String> keywords, Map<String, Integer> configuredWeights) {
+        int[] weights = new int[keywords.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = configuredWeights != null ? configuredWeights.getOrDefault(keywords.get(i), 1) : 1;
+        }
+        return weights;
+    }
+
+    private static List<String> renderTexts(String keyword) {
+        return MessageTemplates.MESSAGE_CATEGORIES.stream()
+                .flatMap(List::stream)
+                .map(template -> template.replace(MessageTemplates.KEYWORD_PLACEHOLDER, keyword))
+                .toList();
+    }
+
+    /**
+     * Truncates or extends (by cycling its own words) every text to each word count in [min, max].
+     */
+    private static String[] lengthVariants(List<String> texts, int minWords, int maxWords) {
+        List<String> variants = new ArrayList<>(texts.size() * (maxWords - minWords + 1));
+        for (String text : texts) {
+            String[] words = text.split(" ");
+            for (int wordCount = minWords; wordCount <= maxWords; wordCount++) {
+                StringBuilder variant = new StringBuilder();
+                for (int w = 0; w < wordCount; w++) {
+                    if (w > 0) {
+                        variant.append(' ');
+                    }
+                    variant.append(words[w % words.length]);
+                }
+                variants.add(variant.toString());
+            }
+        }
+        return variants.toArray(new String[0]);
+    }
+
+    private static String largeText(List<String> texts, int sizeChars) {
+        StringBuilder text = new StringBuilder(sizeChars + 256);
+        for (int i = 0; text.length() < sizeChars; i++) {
+            text.append(texts.get(i % texts.size())).append(' ');
+        }
+        return text.substring(0, sizeChars);
+    }
+}
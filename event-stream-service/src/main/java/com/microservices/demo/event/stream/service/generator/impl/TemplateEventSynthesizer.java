@@ -0,0 +1,71 @@
+package com.microservices.demo.event.stream.service.generator.impl;
+
+import com.microservices.demo.common.id.SnowflakeIdGenerator;
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.event.stream.service.generator.EventSynthesizer;
+import com.microservices.demo.event.stream.service.generator.MessageTemplates;
+import com.microservices.demo.event.stream.service.model.SocialMediaMessage;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Original synthesis path: builds a {@link SocialMediaMessage}, fills the template on every call and
+ * converts it to a fresh Avro record. Kept as a baseline for comparison with {@link PrecomputedEventSynthesizer}.
+ */
+@Component
+@ConditionalOnProperty(name = "event-stream-service.event-synthesizer", havingValue = "template")
+public class TemplateEventSynthesizer implements EventSynthesizer {
+
+    private final String[] keywords;
+    private final SnowflakeIdGenerator idGenerator;
+
+    public TemplateEventSynthesizer(EventStreamConfigData configData, SnowflakeIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+        this.keywords = configData.getEventKeywords().toArray(new String[0]);
+    }
+
+    @Override
+    public SocialEventAvroModel next() {
+        return convertToAvroModel(generateRealisticMessage());
+    }
+
+    private SocialMediaMessage generateRealisticMessage() {
+        // Select random category
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> category = MessageTemplates.MESSAGE_CATEGORIES.get(
+                random.nextInt(MessageTemplates.MESSAGE_CATEGORIES.size()));
+        String template = category.get(random.nextInt(category.size()));
+
+        // Select random keyword
+        String keyword = keywords[random.nextInt(keywords.length)];
+
+        // Generate message
+        String messageText = template.replace(MessageTemplates.KEYWORD_PLACEHOLDER, keyword);
+
+        return SocialMediaMessage.builder()
+                .id(idGenerator.nextId())
+                .userId(random.nextLong(1000, 999999))
+                .text(messageText)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private SocialEventAvroModel convertToAvroModel(SocialMediaMessage message) {
+        return SocialEventAvroModel
+                .newBuilder()
+                .setId(message.getId())
+                .setUserId(message.getUserId())
+                .setText(message.getText())
+                .setCreatedAt(message.getCreatedAt()
+                        .atZone(ZoneId.systemDefault())
+                        .toInstant()
+                        .toEpochMilli())
+                .build();
+    }
+}
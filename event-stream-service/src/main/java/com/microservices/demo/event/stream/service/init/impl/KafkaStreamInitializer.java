@@ -2,9 +2,11 @@ package com.microservices.demo.event.stream.service.init.impl;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import com.microservices.demo.kafka.admin.registry.SchemaRegistryWarmer;
 import com.microservices.demo.event.stream.service.init.StreamInitializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -16,15 +18,19 @@ public class KafkaStreamInitializer implements StreamInitializer {
 
     private final KafkaAdminClient kafkaAdminClient;
 
-    public KafkaStreamInitializer(KafkaConfigData configData, KafkaAdminClient adminClient) {
+    private final ObjectProvider<SchemaRegistryWarmer> schemaRegistryWarmer;
+
+    public KafkaStreamInitializer(KafkaConfigData configData, KafkaAdminClient adminClient,
+                                  ObjectProvider<SchemaRegistryWarmer> warmer) {
         this.kafkaConfigData = configData;
         this.kafkaAdminClient = adminClient;
+        this.schemaRegistryWarmer = warmer;
     }
 
     @Override
     public void init() {
-        kafkaAdminClient.createTopics();
-        kafkaAdminClient.checkSchemaRegistry();
+        kafkaAdminClient.awaitStartupReadiness();
+        schemaRegistryWarmer.ifAvailable(SchemaRegistryWarmer::preRegister);
         LOG.info("Topics with name {} is ready for operations!", kafkaConfigData.getTopicNamesToCreate().toArray());
     }
 }
@@ -0,0 +1,165 @@
+package com.microservices.demo.event.stream.service.runner.impl;
+
+import com.microservices.demo.common.latency.OriginTimestamp;
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.event.stream.service.capture.CaptureFileReader;
+import com.microservices.demo.event.stream.service.runner.StreamRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-publishes a capture file written by the record capture, at the original pace (speed 1), N times
+ * faster (speed N) or as fast as possible (speed 0).
+ * <p>
+ * Records are sent as the captured key/value bytes and headers through a raw producer built from the
+ * service's producer configuration, so nothing is deserialized or re-encoded. The origin timestamp header
+ * is stamped again at send time, so end-to-end latency measures the replayed delivery rather than the age
+ * of the capture. Reads come straight from the mapped file; serializers must return byte arrays, so
+ * each slice is copied once into an array reused across records, which the producer copies into its
+ * batch before {@code send} returns.
+ */
+@Component
+@ConditionalOnProperty(name = "event-stream-service.enable-replay", havingValue = "true")
+public class CaptureReplayStreamRunner implements StreamRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaptureReplayStreamRunner.class);
+
+    private final EventStreamConfigData configData;
+    private final Map<String, Object> producerConfigs;
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("capture-replay").factory());
+    private volatile boolean running;
+    private long firstTimestamp;
+    private long startNanos;
+
+    public CaptureReplayStreamRunner(EventStreamConfigData configData,
+                                     ProducerFactory<?, ?> producerFactory,
+                                     MeterRegistry meterRegistry) {
+        this.configData = configData;
+        this.producerConfigs = producerFactory.getConfigurationProperties();
+        this.replayedCounter = Counter.builder("event.stream.replay.records")
+                .description("Records re-published from the capture file")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("event.stream.replay.failed")
+                .description("Replayed records the broker did not acknowledge")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        replayExecutor.execute(this::replay);
+    }
+
+    private void replay() {
+        double speed = configData.getReplaySpeed();
+        String topicName = configData.getTopicName();
+        LOG.info("Replaying {} to topic {} at {}", configData.getReplayFile(), topicName,
+                speed > 0 ? speed + "x" : "max speed");
+
+        long replayed;
+        long started = System.nanoTime();
+        try (CaptureFileReader reader = new CaptureFileReader(Path.of(configData.getReplayFile()));
+             KafkaProducer<ByteBuffer, ByteBuffer> producer = new KafkaProducer<>(producerConfigs,
+                     new ReusedArraySerializer(), new ReusedArraySerializer())) {
+            firstTimestamp = -1;
+            replayed = reader.forEach((timestamp, key, value, headers) -> {
+                if (!running) {
+                    return false;
+                }
+                if (speed > 0) {
+                    awaitOriginalPace(timestamp, speed);
+                }
+                headers.remove(OriginTimestamp.HEADER);
+                headers.add(OriginTimestamp.HEADER, OriginTimestamp.encode(OriginTimestamp.currentMicros()));
+                producer.send(new ProducerRecord<>(topicName, null, key, value, headers), (metadata, e) -> {
+                    if (e != null) {
+                        failedCounter.increment();
+                    }
+                });
+                replayedCounter.increment();
+                return true;
+            });
+            producer.flush();
+        } catch (Exception e) {
+            LOG.error("Error replaying capture file {}", configData.getReplayFile(), e);
+            return;
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        LOG.info("📊 Replayed {} records in {} s ({} records/s)", replayed, String.format("%.2f", seconds),
+                String.format("%.0f", replayed / seconds));
+    }
+
+    private void awaitOriginalPace(long timestamp, double speed) {
+        if (firstTimestamp < 0) {
+            firstTimestamp = timestamp;
+            startNanos = System.nanoTime();
+            return;
+        }
+        long dueNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(timestamp - firstTimestamp) / speed);
+        long waitNanos;
+        while (running && (waitNanos = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    /**
+     * Copies a slice of the mapping into an array of its exact length, reused for later slices of that
+     * length. Only valid while {@code KafkaProducer.send} appends the returned array to a batch, which it
+     * does before returning, on the single replay thread.
+     */
+    private static class ReusedArraySerializer implements Serializer<ByteBuffer> {
+
+        private static final int MAX_CACHED_LENGTHS = 256;
+
+        private final Map<Integer, byte[]> arrays = new HashMap<>();
+
+        @Override
+        public byte[] serialize(String topic, ByteBuffer data) {
+            if (data == null) {
+                return null;
+            }
+            if (arrays.size() >= MAX_CACHED_LENGTHS && !arrays.containsKey(data.remaining())) {
+                arrays.clear();
+            }
+            byte[] bytes = arrays.computeIfAbsent(data.remaining(), byte[]::new);
+            data.duplicate().get(bytes);
+            return bytes;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        LOG.info("Stopping capture replay...");
+        running = false;
+        replayExecutor.shutdown();
+        try {
+            if (!replayExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                replayExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            replayExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,30 +1,40 @@
 package com.microservices.demo.event.stream.service.runner.impl;
 
 import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.config.EventStreamConfigData.GenerationMode;
 import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
 import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
-import com.microservices.demo.event.stream.service.model.SocialMediaMessage;
+import com.microservices.demo.kafka.producer.exception.RecordSpilledException;
+import com.microservices.demo.event.stream.service.generator.EventSynthesizer;
 import com.microservices.demo.event.stream.service.runner.StreamRunner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PreDestroy;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Enhanced event stream runner that generates realistic social media messages
  * for demonstrating high-throughput Kafka microservice integration.
+ * <p>
+ * In the default {@link GenerationMode#SCHEDULED} mode one event is produced per mock-sleep-ms tick.
+ * {@link GenerationMode#HIGH_RATE} spreads a target events/sec across generator threads, each pacing
+ * its own share with nanosecond deadlines and catching up (bounded by max-catch-up-ms) when it falls behind.
  */
 @Component
 @ConditionalOnProperty(name = "event-stream-service.enable-mock-events", havingValue = "true", matchIfMissing = true)
@@ -32,91 +42,69 @@ public class EnhancedMockStreamRunner implements StreamRunner {
 
     private static final Logger LOG = LoggerFactory.getLogger(EnhancedMockStreamRunner.class);
 
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
     private final EventStreamConfigData configData;
     private final KafkaProducer<Long, SocialEventAvroModel> kafkaProducer;
-    private final Random random = new Random();
-    private final AtomicLong messageCounter = new AtomicLong(0);
+    private final EventSynthesizer eventSynthesizer;
+    private final LongAdder messageCounter = new LongAdder();
+    private final AtomicLong lastReportedCount = new AtomicLong(0);
+    private final Counter droppedEventsCounter;
+    private final Counter rejectedEventsCounter;
+    private volatile double achievedEventsPerSecond;
+    private volatile long lastReportNanos = System.nanoTime();
+    private volatile boolean running;
     private ScheduledExecutorService executorService;
-
-    // Realistic message templates for different categories
-    private static final List<String> TECH_MESSAGES = Arrays.asList(
-            "Just deployed a new microservice using {keyword}! The performance improvements are incredible. #DevOps #CloudNative",
-            "Learning {keyword} has been a game changer for our architecture. Highly recommend checking it out! #TechTips",
-            "Anyone else excited about the latest {keyword} features? This is going to revolutionize how we build systems!",
-            "Working on a new project with {keyword}. The ecosystem is amazing and the community support is outstanding!",
-            "Pro tip: When using {keyword}, make sure to follow best practices for scalability and resilience.",
-            "Just finished a deep dive into {keyword}. Here are my top 5 takeaways from the experience...",
-            "Our team migrated to {keyword} last month. The results have exceeded all expectations! #DevLife",
-            "Debugging a tricky issue with {keyword}. Sometimes the simplest solutions are the best ones.",
-            "Conference talk on {keyword} was mind-blowing! Can't wait to implement these patterns in production.",
-            "Comparison: {keyword} vs traditional approaches. The benefits are clear for modern distributed systems."
-    );
-
-    private static final List<String> TUTORIAL_MESSAGES = Arrays.asList(
-            "New tutorial: Getting started with {keyword} in 10 minutes. Perfect for beginners! Link in bio.",
-            "Step-by-step guide to mastering {keyword}. Covering everything from basics to advanced patterns.",
-            "Common mistakes to avoid when working with {keyword}. Learn from my experience!",
-            "Best practices for {keyword} in production environments. Thread 🧵",
-            "How we scaled our {keyword} implementation to handle millions of requests per day.",
-            "Understanding {keyword}: A comprehensive guide for developers of all skill levels.",
-            "Top 10 resources for learning {keyword} in 2024. Bookmark this for later!",
-            "Real-world {keyword} use cases that demonstrate its power and flexibility.",
-            "Architecture deep dive: How we use {keyword} to build resilient microservices.",
-            "From zero to hero with {keyword}. My learning journey and key insights."
-    );
-
-    private static final List<String> QUESTION_MESSAGES = Arrays.asList(
-            "Has anyone experienced performance issues with {keyword}? Looking for optimization tips.",
-            "What's the best way to implement error handling in {keyword}? Need some advice.",
-            "Choosing between options for {keyword} integration. What has worked well for you?",
-            "How do you handle testing with {keyword}? Share your testing strategies!",
-            "What are the most important metrics to monitor when using {keyword}?",
-            "Recommended resources for advanced {keyword} patterns? Moving beyond the basics.",
-            "How do you ensure data consistency when working with {keyword}?",
-            "What's your experience with {keyword} in high-traffic production environments?",
-            "Looking for feedback on our {keyword} architecture. Open to suggestions!",
-            "How do you handle versioning and backward compatibility with {keyword}?"
-    );
-
-    private static final List<String> ANNOUNCEMENT_MESSAGES = Arrays.asList(
-            "🚀 Just released version 2.0 of our {keyword} library! Check out the new features.",
-            "Excited to announce our new open-source project built with {keyword}! ⭐ Star us on GitHub!",
-            "Join us for a webinar on {keyword} best practices next week. Registration is now open!",
-            "Big news! Our {keyword} integration is now available in production. Try it out!",
-            "We're hiring! Looking for talented developers with {keyword} experience. DM for details.",
-            "Conference announcement: Speaking about {keyword} at the upcoming tech summit!",
-            "New blog post: How we use {keyword} to power our platform. Read more on our tech blog.",
-            "Open source contribution: We've added support for {keyword} in our framework!",
-            "Launching a {keyword} study group. Join developers from around the world!",
-            "Case study published: How {keyword} helped us achieve 99.99% uptime."
-    );
-
-    private static final List<List<String>> MESSAGE_CATEGORIES = Arrays.asList(
-            TECH_MESSAGES,
-            TUTORIAL_MESSAGES,
-            QUESTION_MESSAGES,
-            ANNOUNCEMENT_MESSAGES
-    );
+    private ExecutorService generatorExecutor;
 
     public EnhancedMockStreamRunner(EventStreamConfigData configData,
-                                    KafkaProducer<Long, SocialEventAvroModel> kafkaProducer) {
+                                    KafkaProducer<Long, SocialEventAvroModel> kafkaProducer,
+                                    EventSynthesizer eventSynthesizer,
+                                    MeterRegistry meterRegistry) {
         this.configData = configData;
         this.kafkaProducer = kafkaProducer;
+        this.eventSynthesizer = eventSynthesizer;
+
+        FunctionCounter.builder("event.stream.events.generated", messageCounter, LongAdder::sum)
+                .description("Total number of events handed to the Kafka producer")
+                .register(meterRegistry);
+        this.droppedEventsCounter = Counter.builder("event.stream.events.dropped")
+                .description("Scheduled events skipped because a generator fell behind more than max-catch-up-ms")
+                .register(meterRegistry);
+        this.rejectedEventsCounter = Counter.builder("event.stream.events.rejected")
+                .description("Events the producer rejected immediately, mostly because its in-flight limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("event.stream.rate.achieved", this, runner -> runner.achievedEventsPerSecond)
+                .description("Events per second achieved over the last report interval")
+                .baseUnit("events/s")
+                .register(meterRegistry);
+        Gauge.builder("event.stream.rate.target", this, EnhancedMockStreamRunner::targetEventsPerSecond)
+                .description("Configured target events per second")
+                .baseUnit("events/s")
+                .register(meterRegistry);
     }
 
     @Override
     public void start() {
-        String[] keywords = configData.getEventKeywords().toArray(new String[0]);
+        LOG.info("Starting event stream generator for keywords: {}", configData.getEventKeywords());
+        running = true;
+        if (configData.getGenerationMode() == GenerationMode.HIGH_RATE) {
+            startHighRate();
+        } else {
+            startScheduled();
+        }
+    }
+
+    private void startScheduled() {
         long sleepTimeMs = configData.getMockSleepMs();
 
-        LOG.info("Starting event stream generator for keywords: {}", Arrays.toString(keywords));
         LOG.info("Generating events every {} ms", sleepTimeMs);
 
         executorService = Executors.newScheduledThreadPool(2);
 
         // Schedule message generation
         executorService.scheduleAtFixedRate(
-                () -> generateAndSendMessage(keywords),
+                this::generateAndSendMessage,
                 0,
                 sleepTimeMs,
                 TimeUnit.MILLISECONDS
@@ -131,56 +119,137 @@ public class EnhancedMockStreamRunner implements StreamRunner {
         );
     }
 
-    private void generateAndSendMessage(String[] keywords) {
-        try {
-            SocialMediaMessage message = generateRealisticMessage(keywords);
-            SocialEventAvroModel avroModel = convertToAvroModel(message);
-            kafkaProducer.send(configData.getTopicName(), message.getUserId(), avroModel);
-            messageCounter.incrementAndGet();
+    private void startHighRate() {
+        int threads = configData.getGeneratorThreads();
+        long targetRate = configData.getTargetEventsPerSecond();
+        long maxLagNanos = TimeUnit.MILLISECONDS.toNanos(configData.getMaxCatchUpMs());
+        long reportIntervalMs = configData.getRateReportIntervalMs();
+        boolean virtualThreads = Boolean.TRUE.equals(configData.getUseVirtualThreads());
 
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Generated event {}: {}", message.getId(),
-                         message.getText().substring(0, Math.min(50, message.getText().length())) + "...");
+        LOG.info("Starting high-rate event generator: target {} events/s on {} {} threads",
+                targetRate, threads, virtualThreads ? "virtual" : "platform");
+
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("event-generator-", 0).factory()
+                : Thread.ofPlatform().name("event-generator-", 0).daemon(true).factory();
+        generatorExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(threadFactory)
+                : Executors.newFixedThreadPool(threads, threadFactory);
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            int worker = i;
+            generatorExecutor.execute(() -> runPacedWorker(worker, threads, targetRate, startNanos, maxLagNanos,
+                    virtualThreads));
+        }
+
+        executorService = Executors.newSingleThreadScheduledExecutor();
+        executorService.scheduleAtFixedRate(
+                this::reportRate,
+                reportIntervalMs,
+                reportIntervalMs,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Sends the worker's share of the schedule: event slot {@code s} of the whole generator is due
+     * {@code s / targetRate} seconds after start, and worker {@code i} of {@code n} owns slots i, i + n, ...
+     * Deadlines are computed per slot rather than by adding up a rounded interval, so any rate is met exactly.
+     */
+    private void runPacedWorker(int worker, int threads, long targetRate, long startNanos, long maxLagNanos,
+                                boolean virtualThread) {
+        long round = 0;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long now = System.nanoTime();
+            long lag = now - startNanos - slotDeadlineNanos(round * threads + worker, targetRate);
+            if (lag < 0) {
+                pauseNanos(-lag, virtualThread);
+                continue;
             }
-        } catch (Exception e) {
-            LOG.error("Error generating or sending event", e);
+            if (lag > maxLagNanos) {
+                // Too far behind to catch up within the allowed burst: drop the excess schedule debt
+                long firstKeptSlot = slotsDueWithin(now - startNanos - maxLagNanos, targetRate);
+                long firstKeptRound = Math.max(round, Math.ceilDiv(firstKeptSlot - worker, threads));
+                droppedEventsCounter.increment(firstKeptRound - round);
+                round = firstKeptRound;
+            }
+            generateAndSendMessage();
+            round++;
         }
     }
 
-    private SocialMediaMessage generateRealisticMessage(String[] keywords) {
-        // Select random category
-        List<String> category = MESSAGE_CATEGORIES.get(random.nextInt(MESSAGE_CATEGORIES.size()));
-        String template = category.get(random.nextInt(category.size()));
+    /**
+     * @return nanoseconds after start at which the given event slot is due, without overflowing for
+     *         long runs at high rates
+     */
+    static long slotDeadlineNanos(long slot, long ratePerSecond) {
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return slot / ratePerSecond * nanosPerSecond + slot % ratePerSecond * nanosPerSecond / ratePerSecond;
+    }
 
-        // Select random keyword
-        String keyword = keywords[random.nextInt(keywords.length)];
+    /**
+     * @return number of event slots due before the given nanoseconds after start, which is also the first
+     *         slot due at or after them
+     */
+    static long slotsDueWithin(long nanos, long ratePerSecond) {
+        long nanosPerSecond = TimeUnit.SECONDS.toNanos(1);
+        return nanos / nanosPerSecond * ratePerSecond
+                + Math.ceilDiv(nanos % nanosPerSecond * ratePerSecond, nanosPerSecond);
+    }
 
-        // Generate message
-        String messageText = template.replace("{keyword}", keyword);
+    /**
+     * Parks for long waits and spins for the last few microseconds, where parkNanos is too coarse.
+     * Virtual threads always park so they never pin their carrier thread.
+     */
+    private static void pauseNanos(long nanos, boolean virtualThread) {
+        if (virtualThread || nanos > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(virtualThread ? nanos : nanos - SPIN_THRESHOLD_NANOS);
+        } else {
+            Thread.onSpinWait();
+        }
+    }
 
-        return SocialMediaMessage.builder()
-                .id(ThreadLocalRandom.current().nextLong(1000000, 9999999999L))
-                .userId(ThreadLocalRandom.current().nextLong(1000, 999999))
-                .text(messageText)
-                .createdAt(LocalDateTime.now())
-                .build();
+    private void reportRate() {
+        long now = System.nanoTime();
+        long count = messageCounter.sum();
+        long generated = count - lastReportedCount.getAndSet(count);
+        achievedEventsPerSecond = generated * 1_000_000_000.0 / (now - lastReportNanos);
+        lastReportNanos = now;
+        LOG.info("📊 Events generated so far: {} | Achieved rate: {} events/s | Target: {} events/s",
+                count, String.format("%.0f", achievedEventsPerSecond), configData.getTargetEventsPerSecond());
     }
 
-    private SocialEventAvroModel convertToAvroModel(SocialMediaMessage message) {
-        return SocialEventAvroModel
-                .newBuilder()
-                .setId(message.getId())
-                .setUserId(message.getUserId())
-                .setText(message.getText())
-                .setCreatedAt(message.getCreatedAt()
-                        .atZone(ZoneId.systemDefault())
-                        .toInstant()
-                        .toEpochMilli())
-                .build();
+    private double targetEventsPerSecond() {
+        if (configData.getGenerationMode() == GenerationMode.HIGH_RATE) {
+            return configData.getTargetEventsPerSecond();
+        }
+        return 1000.0 / configData.getMockSleepMs();
+    }
+
+    private void generateAndSendMessage() {
+        try {
+            SocialEventAvroModel event = eventSynthesizer.next();
+            CompletableFuture<RecordMetadata> result =
+                    kafkaProducer.sendAsync(configData.getTopicName(), event.getUserId(), event);
+            if (result.isCompletedExceptionally() && !(result.exceptionNow() instanceof RecordSpilledException)) {
+                // Not admitted (producer saturated) or failed before enqueueing, and not spilled: shed instead
+                // of piling up
+                rejectedEventsCounter.increment();
+                return;
+            }
+            messageCounter.increment();
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Generated event {}: {}", event.getId(),
+                         event.getText().substring(0, Math.min(50, event.getText().length())) + "...");
+            }
+        } catch (Exception e) {
+            LOG.error("Error generating or sending event", e);
+        }
     }
 
     private void logStats() {
-        long count = messageCounter.get();
+        long count = messageCounter.sum();
         LOG.info("📊 Events generated so far: {} | Average rate: {} events/min",
                 count,
                 String.format("%.2f", (count * 60000.0) / (System.currentTimeMillis() - getStartTime())));
@@ -195,17 +264,23 @@ public class EnhancedMockStreamRunner implements StreamRunner {
     @PreDestroy
     public void shutdown() {
         LOG.info("Shutting down event stream runner...");
-        if (executorService != null) {
-            executorService.shutdown();
+        running = false;
+        stopExecutor(generatorExecutor);
+        stopExecutor(executorService);
+        LOG.info("Event stream runner stopped. Total events generated: {}", messageCounter.sum());
+    }
+
+    private void stopExecutor(ExecutorService executor) {
+        if (executor != null) {
+            executor.shutdown();
             try {
-                if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow();
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
                 }
             } catch (InterruptedException e) {
-                executorService.shutdownNow();
+                executor.shutdownNow();
                 Thread.currentThread().interrupt();
             }
         }
-        LOG.info("Event stream runner stopped. Total events generated: {}", messageCounter.get());
     }
 }
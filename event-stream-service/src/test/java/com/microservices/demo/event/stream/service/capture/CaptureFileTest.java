@@ -0,0 +1,147 @@
+package com.microservices.demo.event.stream.service.capture;
+
+import com.microservices.demo.common.latency.OriginTimestamp;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip tests for the memory-mapped capture file
+ */
+@DisplayName("Capture File Tests")
+class CaptureFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should read back every captured record in order across region remaps")
+    void shouldRoundTripRecordsAcrossRegions() throws Exception {
+        // Given
+        Path file = tempDir.resolve("events.capture");
+        int recordCount = 1_000;
+        try (CaptureFileWriter writer = new CaptureFileWriter(file, 4096)) {
+            // When
+            for (int i = 0; i < recordCount; i++) {
+                byte[] key = i % 10 == 0 ? null : ByteBuffer.allocate(8).putLong(i).array();
+                writer.append(1_000L + i, key, ("value-" + i).getBytes(StandardCharsets.UTF_8), null);
+            }
+            assertEquals(recordCount, writer.getRecordCount());
+        }
+
+        // Then
+        List<String> values = new ArrayList<>();
+        try (CaptureFileReader reader = new CaptureFileReader(file)) {
+            long read = reader.forEach((timestamp, key, value, headers) -> {
+                int index = values.size();
+                assertEquals(1_000L + index, timestamp);
+                if (index % 10 == 0) {
+                    assertNull(key, "Null keys should be preserved");
+                } else {
+                    assertEquals(index, key.getLong());
+                }
+                values.add(StandardCharsets.UTF_8.decode(value).toString());
+                return true;
+            });
+            assertEquals(recordCount, read);
+        }
+        assertEquals("value-0", values.get(0));
+        assertEquals("value-999", values.get(recordCount - 1));
+    }
+
+    @Test
+    @DisplayName("Should read back the captured headers, including null header values")
+    void shouldRoundTripHeaders() throws Exception {
+        // Given
+        Path file = tempDir.resolve("headers.capture");
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(OriginTimestamp.HEADER, OriginTimestamp.encode(1_234_567L));
+        headers.add("empty", null);
+        try (CaptureFileWriter writer = new CaptureFileWriter(file, 4096)) {
+            writer.append(1L, null, new byte[]{1}, headers);
+            writer.append(2L, null, new byte[]{2}, new RecordHeaders());
+        }
+
+        // When
+        List<Header[]> read = new ArrayList<>();
+        try (CaptureFileReader reader = new CaptureFileReader(file)) {
+            reader.forEach((timestamp, key, value, recordHeaders) -> {
+                Header[] copies = Arrays.stream(recordHeaders.toArray())
+                        .map(header -> new RecordHeader(header.key(), header.value()))
+                        .toArray(Header[]::new);
+                return read.add(copies);
+            });
+        }
+
+        // Then
+        assertEquals(2, read.size());
+        assertEquals(2, read.get(0).length);
+        assertEquals(OriginTimestamp.HEADER, read.get(0)[0].key());
+        assertEquals(1_234_567L, OriginTimestamp.decode(read.get(0)[0].value()));
+        assertEquals("empty", read.get(0)[1].key());
+        assertNull(read.get(0)[1].value());
+        assertEquals(0, read.get(1).length);
+    }
+
+    @Test
+    @DisplayName("Should truncate the file to the written size and stop when the handler asks")
+    void shouldTruncateAndStopEarly() throws Exception {
+        // Given
+        Path file = tempDir.resolve("small.capture");
+        byte[] value = new byte[100];
+        try (CaptureFileWriter writer = new CaptureFileWriter(file, 1 << 20)) {
+            for (int i = 0; i < 5; i++) {
+                writer.append(i, null, value, null);
+            }
+        }
+
+        // When
+        long read;
+        try (CaptureFileReader reader = new CaptureFileReader(file)) {
+            read = reader.forEach((timestamp, key, v, headers) -> timestamp < 2);
+        }
+
+        // Then
+        assertEquals(CaptureFileWriter.HEADER_BYTES + 5L * (CaptureFileWriter.RECORD_OVERHEAD_BYTES + 100),
+                Files.size(file));
+        assertEquals(3, read, "Reading should stop after the handler returns false");
+    }
+
+    @Test
+    @DisplayName("Should stop at the zero-filled tail of a file whose writer was not closed")
+    void shouldIgnorePreallocatedTailOfUnclosedFile() throws Exception {
+        // Given
+        Path file = tempDir.resolve("crashed.capture");
+        CaptureFileWriter writer = new CaptureFileWriter(file, 1 << 20);
+        for (int i = 0; i < 3; i++) {
+            writer.append(i, null, ("value-" + i).getBytes(StandardCharsets.UTF_8), null);
+        }
+        assertEquals(1 << 20, Files.size(file), "An unclosed file keeps its zero-filled region");
+
+        // When
+        List<Long> timestamps = new ArrayList<>();
+        long read;
+        try (CaptureFileReader reader = new CaptureFileReader(file)) {
+            read = reader.forEach((timestamp, key, value, headers) -> timestamps.add(timestamp));
+        } finally {
+            writer.close();
+        }
+
+        // Then
+        assertEquals(3, read, "The preallocated tail should not be read as records");
+        assertEquals(List.of(0L, 1L, 2L), timestamps);
+    }
+}
@@ -0,0 +1,73 @@
+package com.microservices.demo.event.stream.service.generator;
+
+import com.microservices.demo.common.id.SnowflakeIdGenerator;
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.event.stream.service.generator.distribution.UniformUserIdDistribution;
+import com.microservices.demo.event.stream.service.generator.impl.PrecomputedEventSynthesizer;
+import com.microservices.demo.event.stream.service.generator.impl.TemplateEventSynthesizer;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the original builder-based synthesis path and the precomputed one.
+ * Run {@link #main(String[])} from the test classpath; the GC profiler reports bytes allocated per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EventSynthesizerBenchmark {
+
+    private static final SnowflakeIdGenerator ID_GENERATOR =
+            new SnowflakeIdGenerator(0, SnowflakeIdGenerator.DEFAULT_EPOCH_MS);
+
+    private TemplateEventSynthesizer templateSynthesizer;
+    private PrecomputedEventSynthesizer precomputedSynthesizer;
+
+    @Setup
+    public void setUp() {
+        EventStreamConfigData configData = new EventStreamConfigData();
+        configData.setEventKeywords(List.of("Java", "Microservices", "Kafka", "Elasticsearch",
+                "SpringBoot", "Docker", "Kubernetes"));
+        templateSynthesizer = new TemplateEventSynthesizer(configData, ID_GENERATOR);
+        precomputedSynthesizer = new PrecomputedEventSynthesizer(configData, new UniformUserIdDistribution(998999),
+                ID_GENERATOR);
+    }
+
+    @Benchmark
+    public SocialEventAvroModel templateBuilder() {
+        return templateSynthesizer.next();
+    }
+
+    @Benchmark
+    public SocialEventAvroModel precomputedReuse() {
+        return precomputedSynthesizer.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventSynthesizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.microservices.demo.event.stream.service.generator.distribution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the workload distributions used by the mock event generator
+ */
+@DisplayName("Workload Distribution Tests")
+class ZipfUserIdDistributionTest {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    @DisplayName("Should draw Zipf ranks with power-law frequencies")
+    void shouldDrawZipfRanksWithPowerLawFrequencies() {
+        // Given
+        int userCount = 100;
+        ZipfUserIdDistribution distribution = new ZipfUserIdDistribution(userCount, 1.0);
+        double harmonic = 0;
+        for (int k = 1; k <= userCount; k++) {
+            harmonic += 1.0 / k;
+        }
+
+        // When
+        long[] counts = new long[userCount + 1];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[(int) distribution.nextRank(random)]++;
+        }
+
+        // Then
+        assertEquals(0, counts[0], "Ranks should start at 1");
+        assertEquals(1.0 / harmonic, counts[1] / (double) SAMPLES, 0.01, "Top user share should be 1/H(n)");
+        assertEquals(0.5, counts[2] / (double) counts[1], 0.05, "Second user should be half as active as the first");
+    }
+
+    @Test
+    @DisplayName("Should keep Zipf user ids within the configured user range")
+    void shouldKeepZipfUserIdsInRange() {
+        // Given
+        ZipfUserIdDistribution distribution = new ZipfUserIdDistribution(1_000_000, 1.2);
+
+        // When / Then
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            long userId = distribution.nextUserId(random);
+            assertTrue(userId >= UserIdDistribution.FIRST_USER_ID
+                    && userId < UserIdDistribution.FIRST_USER_ID + 1_000_000, "User id out of range: " + userId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should pick indexes proportionally to their weights and never pick zero weights")
+    void shouldPickIndexesProportionallyToWeights() {
+        // Given
+        WeightedIndexSelector selector = new WeightedIndexSelector(new int[]{0, 8, 0, 2});
+
+        // When
+        long[] counts = new long[4];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[selector.nextIndex(random)]++;
+        }
+
+        // Then
+        assertEquals(0, counts[0], "Zero weight index should never be picked");
+        assertEquals(0, counts[2], "Zero weight index should never be picked");
+        assertEquals(0.8, counts[1] / (double) SAMPLES, 0.01, "Hot index should get its weighted share");
+    }
+
+    @Test
+    @DisplayName("Should reject invalid distribution parameters")
+    void shouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfUserIdDistribution(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedIndexSelector(new int[]{0, 0}));
+    }
+}
@@ -0,0 +1,157 @@
+package com.microservices.demo.event.stream.service.runner;
+
+import com.microservices.demo.common.id.SnowflakeIdGenerator;
+import com.microservices.demo.config.EventStreamConfigData;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData.DeliveryMode;
+import com.microservices.demo.event.stream.service.generator.EventSynthesizer;
+import com.microservices.demo.event.stream.service.generator.distribution.UniformUserIdDistribution;
+import com.microservices.demo.event.stream.service.generator.impl.PrecomputedEventSynthesizer;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.producer.config.KafkaProducerConfig;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.impl.AvroKafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.impl.TransactionalBatchingKafkaProducer;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.DefaultPartitionRouter;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import com.microservices.demo.kafka.producer.spill.NoOpRecordSpill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the plain, idempotent and batched-transactional delivery modes on the social-events
+ * workload. Needs a running cluster and schema registry (the docker-compose environment); override them with
+ * {@code -Dbootstrap.servers=...} and {@code -Dschema.registry.url=...}.
+ * <p>
+ * {@code send} measures sustained throughput with fire-and-forget sends; {@code sendAndAwait} samples the
+ * latency until a record is acknowledged, which for the transactional mode includes waiting for its commit.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class ProducerDeliveryModeBenchmark {
+
+    private static final String TOPIC = "social-events";
+    private static final SnowflakeIdGenerator ID_GENERATOR =
+            new SnowflakeIdGenerator(0, SnowflakeIdGenerator.DEFAULT_EPOCH_MS);
+
+    @Param({"PLAIN", "IDEMPOTENT", "TRANSACTIONAL"})
+    private DeliveryMode deliveryMode;
+
+    private KafkaProducer<Long, SocialEventAvroModel> producer;
+    private ProducerFactory<Long, SocialEventAvroModel> producerFactory;
+    private TopicPartitionCounts partitionCounts;
+
+    @State(Scope.Thread)
+    public static class Generator {
+        private EventSynthesizer synthesizer;
+
+        @Setup
+        public void setUp() {
+            EventStreamConfigData configData = new EventStreamConfigData();
+            configData.setEventKeywords(List.of("Java", "Microservices", "Kafka", "Elasticsearch",
+                    "SpringBoot", "Docker", "Kubernetes"));
+            synthesizer = new PrecomputedEventSynthesizer(configData, new UniformUserIdDistribution(998999),
+                    ID_GENERATOR);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setBootstrapServers(System.getProperty("bootstrap.servers",
+                "localhost:19092, localhost:29092, localhost:39092"));
+        kafkaConfigData.setSchemaRegistryUrlKey("schema.registry.url");
+        kafkaConfigData.setSchemaRegistryUrl(System.getProperty("schema.registry.url", "http://localhost:8081"));
+
+        KafkaProducerConfigData producerConfigData = new KafkaProducerConfigData();
+        producerConfigData.setKeySerializerClass("org.apache.kafka.common.serialization.LongSerializer");
+        producerConfigData.setValueSerializerClass("io.confluent.kafka.serializers.KafkaAvroSerializer");
+        producerConfigData.setCompressionType("snappy");
+        producerConfigData.setAcks("all");
+        producerConfigData.setBatchSize(16384);
+        producerConfigData.setBatchSizeBoostFactor(100);
+        producerConfigData.setLingerMs(5);
+        producerConfigData.setRequestTimeoutMs(60000);
+        producerConfigData.setRetryCount(5);
+        producerConfigData.setMaxInFlightRecords(0);
+        producerConfigData.setAdmissionTimeoutMs(0L);
+        producerConfigData.setDeliveryMode(deliveryMode);
+        producerConfigData.setTransactionIdPrefix("delivery-mode-benchmark-");
+        producerConfigData.setTransactionMaxRecords(5000);
+        producerConfigData.setTransactionMaxIntervalMs(100L);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerConfig<Long, SocialEventAvroModel> config =
+                new KafkaProducerConfig<>(kafkaConfigData, producerConfigData, meterRegistry);
+        producerFactory = config.producerFactory();
+        partitionCounts = new TopicPartitionCounts(producerFactory);
+        ProducerMetrics producerMetrics = new ProducerMetrics(meterRegistry, partitionCounts, producerConfigData);
+        DefaultPartitionRouter partitionRouter = new DefaultPartitionRouter();
+        producer = deliveryMode == DeliveryMode.TRANSACTIONAL
+                ? new TransactionalBatchingKafkaProducer<>(producerFactory, producerConfigData, producerMetrics,
+                        partitionRouter)
+                : new AvroKafkaProducer<>(new KafkaTemplate<>(producerFactory), producerConfigData, producerMetrics,
+                        partitionRouter, new NoOpRecordSpill());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (producer instanceof TransactionalBatchingKafkaProducer<?, ?> transactional) {
+            transactional.close();
+        } else if (producer instanceof AvroKafkaProducer<?, ?> plain) {
+            plain.close();
+        }
+        partitionCounts.close();
+        producerFactory.reset();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CompletableFuture<RecordMetadata> send(Generator generator) {
+        SocialEventAvroModel event = generator.synthesizer.next();
+        return producer.sendAsync(TOPIC, event.getUserId(), event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public RecordMetadata sendAndAwait(Generator generator) {
+        SocialEventAvroModel event = generator.synthesizer.next();
+        return producer.sendAsync(TOPIC, event.getUserId(), event).join();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProducerDeliveryModeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
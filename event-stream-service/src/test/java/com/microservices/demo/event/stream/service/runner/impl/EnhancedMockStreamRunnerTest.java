@@ -0,0 +1,74 @@
+package com.microservices.demo.event.stream.service.runner.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pacing schedule of the high-rate generation mode
+ */
+@DisplayName("Enhanced Mock Stream Runner Pacing Tests")
+class EnhancedMockStreamRunnerTest {
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should spread rates that do not divide a second without drifting ahead")
+    void shouldPaceNonDivisibleRates() {
+        // Given
+        long rate = 3;
+
+        // When / Then
+        assertEquals(0, EnhancedMockStreamRunner.slotDeadlineNanos(0, rate));
+        assertEquals(333_333_333, EnhancedMockStreamRunner.slotDeadlineNanos(1, rate));
+        assertEquals(666_666_666, EnhancedMockStreamRunner.slotDeadlineNanos(2, rate));
+        assertEquals(SECOND_NANOS, EnhancedMockStreamRunner.slotDeadlineNanos(3, rate));
+        assertEquals(3, EnhancedMockStreamRunner.slotsDueWithin(SECOND_NANOS, rate));
+        assertEquals(4, EnhancedMockStreamRunner.slotsDueWithin(SECOND_NANOS + 1, rate));
+
+        // Given
+        long oddRate = 200_003;
+
+        // When / Then
+        assertEquals(60 * SECOND_NANOS, EnhancedMockStreamRunner.slotDeadlineNanos(60 * oddRate, oddRate),
+                "A minute of slots should take exactly a minute, not the floor of a per-slot interval");
+    }
+
+    @Test
+    @DisplayName("Should not overflow for slot counts of long runs at high rates")
+    void shouldNotOverflowForLargeSlotCounts() {
+        // Given
+        long rate = 10_000_019;
+        long seconds = TimeUnit.DAYS.toSeconds(365 * 100);
+        long slot = rate * seconds;
+
+        // When
+        long deadline = EnhancedMockStreamRunner.slotDeadlineNanos(slot, rate);
+        long nextDeadline = EnhancedMockStreamRunner.slotDeadlineNanos(slot + 1, rate);
+
+        // Then
+        assertEquals(seconds * SECOND_NANOS, deadline);
+        assertEquals(deadline + SECOND_NANOS / rate, nextDeadline);
+        assertEquals(slot, EnhancedMockStreamRunner.slotsDueWithin(deadline, rate));
+    }
+
+    @Test
+    @DisplayName("Should round-trip between slots and their deadlines")
+    void shouldRoundTripSlotsAndDeadlines() {
+        for (long rate : new long[]{1, 3, 7, 999, 200_000, 200_003, 999_999_999}) {
+            for (long slot : new long[]{0, 1, 2, rate - 1, rate, rate + 1, 5_000_000_011L}) {
+                // When
+                long deadline = EnhancedMockStreamRunner.slotDeadlineNanos(slot, rate);
+
+                // Then
+                assertEquals(slot, EnhancedMockStreamRunner.slotsDueWithin(deadline, rate),
+                        "slots due before slot " + slot + " at " + rate + "/s");
+                assertEquals(slot + 1, EnhancedMockStreamRunner.slotsDueWithin(deadline + 1, rate),
+                        "slot " + slot + " itself is due right after its deadline at " + rate + "/s");
+            }
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.microservices.demo.kafka.consumer.service.consumer.impl;
 
+import com.microservices.demo.common.logging.SampledLogger;
+import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.consumer.commit.OffsetCommitCoordinator;
 import com.microservices.demo.kafka.consumer.config.service.KafkaConsumer;
+import com.microservices.demo.kafka.consumer.parallel.ParallelBatchExecutor;
+import com.microservices.demo.kafka.consumer.retry.RetryTopicRouter;
 import com.microservices.demo.kafka.consumer.service.metrics.ConsumerMetrics;
+import com.microservices.demo.kafka.consumer.stats.RollingRateStats;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -13,20 +22,36 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 @Service
 public class SocialEventKafkaConsumer implements KafkaConsumer<Long, SocialEventAvroModel> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SocialEventKafkaConsumer.class);
+    private static final SampledLogger PROCESS_LOG = SampledLogger.rateLimited(LOG, 1);
 
     private final ConsumerMetrics consumerMetrics;
+    private final ParallelBatchExecutor batchExecutor;
+    private final OffsetCommitCoordinator commitCoordinator;
+    private final RetryTopicRouter retryTopicRouter;
+    private final String topicName;
+    private final RollingRateStats stats;
 
-    private long messageCount = 0;
-    private long lastLogTime = System.currentTimeMillis();
     private static final long LOG_INTERVAL_MS = 30000; // Log statistics every 30 seconds
 
-    public SocialEventKafkaConsumer(ConsumerMetrics metrics) {
+    public SocialEventKafkaConsumer(ConsumerMetrics metrics,
+                                    ParallelBatchExecutor executor,
+                                    ObjectProvider<OffsetCommitCoordinator> coordinator,
+                                    ObjectProvider<RetryTopicRouter> router,
+                                    KafkaConfigData kafkaConfigData,
+                                    MeterRegistry meterRegistry) {
         this.consumerMetrics = metrics;
+        this.batchExecutor = executor;
+        this.commitCoordinator = coordinator.getIfAvailable();
+        this.retryTopicRouter = router.getIfAvailable();
+        this.topicName = kafkaConfigData.getTopicName();
+        this.stats = new RollingRateStats("processed", meterRegistry);
     }
 
     @Override
@@ -37,49 +62,81 @@ public class SocialEventKafkaConsumer implements KafkaConsumer<Long, SocialEvent
                         @Header(KafkaHeaders.RECEIVED_PARTITION) List<Integer> partitions,
                         @Header(KafkaHeaders.OFFSET) List<Long> offsets) {
 
-        LOG.debug("Received {} social events with keys {}, partitions {} and offsets {}",
-                messages.size(), keys.toString(), partitions.toString(), offsets.toString());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Received {} social events with keys {}, partitions {} and offsets {}",
+                    messages.size(), keys, partitions, offsets);
+        }
 
         // Update metrics
         consumerMetrics.incrementConsumed(messages.size());
 
-        // Process each message
-        for (int i = 0; i < messages.size(); i++) {
-            SocialEventAvroModel event = messages.get(i);
-            Long key = keys.get(i);
-            Integer partition = partitions.get(i);
-            Long offset = offsets.get(i);
-
-            try {
-                Timer.Sample sample = Timer.start();
-                processEvent(event, key, partition, offset);
-                sample.stop(consumerMetrics.getProcessingTimer());
-                consumerMetrics.incrementProcessed();
-                messageCount++;
-            } catch (Exception e) {
-                LOG.error("Error processing event with ID: {}", event.getId(), e);
-                consumerMetrics.incrementFailed();
+        // Process messages in parallel, in order per user. Without a commit coordinator the batch is committed
+        // once this returns; with one, each offset is committed once it and all before it completed.
+        List<Integer> indexes = IntStream.range(0, messages.size()).boxed().toList();
+        if (commitCoordinator == null) {
+            batchExecutor.execute(indexes, i -> messages.get(i).getUserId(),
+                    i -> process(messages.get(i), keys.get(i), partitions.get(i), offsets.get(i)));
+        } else {
+            // A record whose failure could not be forwarded for retry skips the rest of its lane; those records
+            // are reported as failed, so their partition is rewound and they are redelivered
+            AtomicIntegerArray completed = new AtomicIntegerArray(messages.size());
+            batchExecutor.submit(indexes, i -> messages.get(i).getUserId(), i -> {
+                process(messages.get(i), keys.get(i), partitions.get(i), offsets.get(i));
+                commitCoordinator.complete(new TopicPartition(topicName, partitions.get(i)), offsets.get(i));
+                completed.set(i, 1);
+            }).whenComplete((ignored, e) -> {
+                if (e != null) {
+                    failIncomplete(completed, partitions, offsets, e);
+                }
+            });
+        }
+
+        // Log statistics periodically, from whichever listener thread gets there first
+        if (stats.reportDue(LOG_INTERVAL_MS)) {
+            LOG.info("📊 Consumed {} events so far | Rate: {} | Batch size: {}",
+                    stats.getTotal(), stats.formatRates(), messages.size());
+        }
+    }
+
+    private void failIncomplete(AtomicIntegerArray completed, List<Integer> partitions, List<Long> offsets,
+                                Throwable e) {
+        int failed = 0;
+        for (int i = 0; i < completed.length(); i++) {
+            if (completed.get(i) == 0) {
+                commitCoordinator.fail(new TopicPartition(topicName, partitions.get(i)), offsets.get(i));
+                failed++;
             }
         }
+        LOG.error("Batch processing failed, redelivering {} unprocessed records", failed, e);
+    }
 
-        // Log statistics periodically
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastLogTime >= LOG_INTERVAL_MS) {
-            double rate = (messageCount * 60000.0) / (currentTime - lastLogTime + LOG_INTERVAL_MS);
-            LOG.info("📊 Consumed {} events so far | Rate: {}/min | Batch size: {}",
-                    messageCount, String.format("%.2f", rate), messages.size());
-            lastLogTime = currentTime;
+    private void process(SocialEventAvroModel event, Long key, Integer partition, Long offset) {
+        try {
+            Timer.Sample sample = Timer.start();
+            processEvent(event, key, partition, offset);
+            sample.stop(consumerMetrics.getProcessingTimer());
+            consumerMetrics.incrementProcessed();
+            stats.record(1);
+        } catch (Exception e) {
+            LOG.error("Error processing event with ID: {}", event.getId(), e);
+            consumerMetrics.incrementFailed();
+            if (retryTopicRouter != null) {
+                // Waits for the forward, so the offset is only committed once the record is in a retry topic
+                retryTopicRouter.route(partition, offset, key, event, e).join();
+            }
         }
     }
 
-    private void processEvent(SocialEventAvroModel event, Long key, Integer partition, Long offset) {
-        LOG.info("Processing event - ID: {}, User: {}, Text: {}, Created: {} [partition={}, offset={}]",
-                event.getId(),
-                event.getUserId(),
-                event.getText() != null ? event.getText().toString().substring(0, Math.min(50, event.getText().length())) + "..." : "null",
-                event.getCreatedAt(),
-                partition,
-                offset);
+    void processEvent(SocialEventAvroModel event, Long key, Integer partition, Long offset) {
+        if (PROCESS_LOG.isInfoEnabled()) {
+            LOG.info("Processing event - ID: {}, User: {}, Text: {}, Created: {} [partition={}, offset={}]",
+                    event.getId(),
+                    event.getUserId(),
+                    event.getText() != null ? event.getText().toString().substring(0, Math.min(50, event.getText().length())) + "..." : "null",
+                    event.getCreatedAt(),
+                    partition,
+                    offset);
+        }
 
         // TODO: Add business logic here (e.g., save to database, send to another service, etc.)
         // For now, just logging the event
@@ -0,0 +1,27 @@
+package com.microservices.demo.kafka.consumer.service.consumer.impl;
+
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.consumer.retry.RetryRecordHandler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Processes social events again from the retry topics once their delay passed, without holding up the
+ * main topic's partitions; each tier is consumed by its own container of the retry listener containers.
+ */
+@Service
+@ConditionalOnProperty(name = "kafka-consumer-config.retry-enabled", havingValue = "true")
+public class SocialEventRetryConsumer implements RetryRecordHandler<Long, SocialEventAvroModel> {
+
+    private final SocialEventKafkaConsumer socialEventKafkaConsumer;
+
+    public SocialEventRetryConsumer(SocialEventKafkaConsumer consumer) {
+        this.socialEventKafkaConsumer = consumer;
+    }
+
+    @Override
+    public void handle(ConsumerRecord<Long, SocialEventAvroModel> record) {
+        socialEventKafkaConsumer.processEvent(record.value(), record.key(), record.partition(), record.offset());
+    }
+}
@@ -2,7 +2,10 @@ package com.microservices.demo.kafka.streams.service.config;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.KafkaStreamsConfigData;
+import com.microservices.demo.kafka.admin.registry.AvroSerdeWarmer;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsConfig;
@@ -57,4 +60,20 @@ public class KafkaStreamsConfig {
 
         return new KafkaStreamsConfiguration(props);
     }
+
+    /**
+     * One serde shared by every topology, so its schema caches are filled once; with
+     * kafka-config.schema-warmup-enabled they are filled before the first record.
+     */
+    @Bean
+    public SpecificAvroSerde<SocialEventAvroModel> socialEventSerde() {
+        SpecificAvroSerde<SocialEventAvroModel> serde = new SpecificAvroSerde<>();
+        serde.configure(Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, kafkaConfigData.getSchemaRegistryUrl(),
+                "specific.avro.reader", true), false);
+        if (Boolean.TRUE.equals(kafkaConfigData.getSchemaWarmupEnabled())) {
+            AvroSerdeWarmer.warm(serde, kafkaStreamsConfigData.getInputTopicName(), SocialEventAvroModel.class);
+        }
+        return serde;
+    }
 }
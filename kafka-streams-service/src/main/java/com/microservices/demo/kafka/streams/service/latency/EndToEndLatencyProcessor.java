@@ -0,0 +1,41 @@
+package com.microservices.demo.kafka.streams.service.latency;
+
+import com.microservices.demo.common.latency.EndToEndLatencyRecorder;
+import com.microservices.demo.common.latency.OriginTimestamp;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Pass-through processor recording end-to-end latency from the origin timestamp header.
+ * Headers are forwarded unchanged, so records written downstream keep their origin timestamp.
+ */
+public class EndToEndLatencyProcessor<K, V> implements FixedKeyProcessor<K, V, V> {
+
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final String stage;
+    private FixedKeyProcessorContext<K, V> context;
+
+    public EndToEndLatencyProcessor(EndToEndLatencyRecorder recorder, String stage) {
+        this.latencyRecorder = recorder;
+        this.stage = stage;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<K, V> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<K, V> record) {
+        Header header = record.headers().lastHeader(OriginTimestamp.HEADER);
+        if (header != null) {
+            long originMicros = OriginTimestamp.decode(header.value());
+            if (originMicros > 0) {
+                latencyRecorder.record(stage, originMicros);
+            }
+        }
+        context.forward(record);
+    }
+}
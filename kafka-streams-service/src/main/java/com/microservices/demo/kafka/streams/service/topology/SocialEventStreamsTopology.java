@@ -1,7 +1,9 @@
 package com.microservices.demo.kafka.streams.service.topology;
 
+import com.microservices.demo.common.latency.EndToEndLatencyRecorder;
 import com.microservices.demo.config.KafkaStreamsConfigData;
 import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.streams.service.latency.EndToEndLatencyProcessor;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
@@ -9,47 +11,43 @@ import org.apache.kafka.streams.kstream.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
 
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.Map;
 
 @Configuration
 @EnableKafkaStreams
 public class SocialEventStreamsTopology {
 
     private static final Logger LOG = LoggerFactory.getLogger(SocialEventStreamsTopology.class);
+    private static final String LATENCY_STAGE = "streams-social-events";
 
     private final KafkaStreamsConfigData kafkaStreamsConfigData;
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final SpecificAvroSerde<SocialEventAvroModel> eventSerde;
 
-    @Value("${kafka-config.schema-registry-url}")
-    private String schemaRegistryUrl;
-
-    public SocialEventStreamsTopology(KafkaStreamsConfigData streamsConfigData) {
+    public SocialEventStreamsTopology(KafkaStreamsConfigData streamsConfigData, EndToEndLatencyRecorder recorder,
+                                      SpecificAvroSerde<SocialEventAvroModel> socialEventSerde) {
         this.kafkaStreamsConfigData = streamsConfigData;
+        this.latencyRecorder = recorder;
+        this.eventSerde = socialEventSerde;
     }
 
     @Autowired
     public void buildPipeline(StreamsBuilder streamsBuilder) {
         LOG.info("Building Kafka Streams topology...");
 
-        // Configure Avro Serde for SocialEventAvroModel
-        final SpecificAvroSerde<SocialEventAvroModel> eventSerde = new SpecificAvroSerde<>();
-        eventSerde.configure(
-                Map.of("schema.registry.url", schemaRegistryUrl, "specific.avro.reader", true),
-                false
-        );
-
         // Create KStream from input topic
         KStream<Long, SocialEventAvroModel> socialEventsStream = streamsBuilder
                 .stream(
                         kafkaStreamsConfigData.getInputTopicName(),
                         Consumed.with(Serdes.Long(), eventSerde)
-                );
+                )
+                .processValues(() -> new EndToEndLatencyProcessor<>(latencyRecorder, LATENCY_STAGE),
+                        Named.as("streams-social-events-latency"));
 
         // Log all incoming events
         socialEventsStream
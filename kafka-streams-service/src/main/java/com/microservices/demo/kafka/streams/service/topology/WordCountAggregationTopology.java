@@ -1,7 +1,9 @@
 package com.microservices.demo.kafka.streams.service.topology;
 
+import com.microservices.demo.common.latency.EndToEndLatencyRecorder;
 import com.microservices.demo.config.KafkaStreamsConfigData;
 import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.streams.service.latency.EndToEndLatencyProcessor;
 import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
@@ -13,44 +15,40 @@ import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.util.Arrays;
-import java.util.Map;
 
 @Component
 public class WordCountAggregationTopology {
 
     private static final Logger LOG = LoggerFactory.getLogger(WordCountAggregationTopology.class);
+    private static final String LATENCY_STAGE = "streams-word-count";
 
     private final KafkaStreamsConfigData kafkaStreamsConfigData;
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final SpecificAvroSerde<SocialEventAvroModel> eventSerde;
 
-    @Value("${kafka-config.schema-registry-url}")
-    private String schemaRegistryUrl;
-
-    public WordCountAggregationTopology(KafkaStreamsConfigData streamsConfigData) {
+    public WordCountAggregationTopology(KafkaStreamsConfigData streamsConfigData, EndToEndLatencyRecorder recorder,
+                                        SpecificAvroSerde<SocialEventAvroModel> socialEventSerde) {
         this.kafkaStreamsConfigData = streamsConfigData;
+        this.latencyRecorder = recorder;
+        this.eventSerde = socialEventSerde;
     }
 
     @Autowired
     public void buildWordCountTopology(StreamsBuilder streamsBuilder) {
         LOG.info("Building word count aggregation topology...");
 
-        // Configure Avro Serde
-        final SpecificAvroSerde<SocialEventAvroModel> eventSerde = new SpecificAvroSerde<>();
-        eventSerde.configure(
-                Map.of("schema.registry.url", schemaRegistryUrl, "specific.avro.reader", true),
-                false
-        );
-
         // Create KStream from input topic
         KStream<Long, SocialEventAvroModel> socialEventsStream = streamsBuilder
                 .stream(
                         kafkaStreamsConfigData.getInputTopicName(),
                         Consumed.with(Serdes.Long(), eventSerde)
-                );
+                )
+                .processValues(() -> new EndToEndLatencyProcessor<>(latencyRecorder, LATENCY_STAGE),
+                        Named.as("streams-word-count-latency"));
 
         // Word count with tumbling time windows (5 minute windows)
         KTable<Windowed<String>, Long> wordCounts = socialEventsStream
@@ -3,157 +3,270 @@ package com.microservices.demo.kafka.admin.client;
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.RetryConfigData;
 import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import com.microservices.demo.kafka.admin.partition.PartitionSizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.CreateTopicsOptions;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.retry.RetryContext;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Startup readiness checks against the Kafka cluster and the schema registry.
+ * <p>
+ * Topics are checked with {@code describeTopics} for just the configured topics, and are ready once every
+ * partition has a leader; missing topics are (re)created on each check, sized by the {@link PartitionSizer}
+ * and configured by the {@link TopicConfigReconciler}, which then reconciles the configs of existing topics.
+ * Checks are composed from {@link KafkaFuture}s and non-blocking registry calls and re-run with exponential
+ * backoff from retry-config.initial-interval-ms up to retry-config.max-interval-ms, until
+ * kafka-config.startup-timeout-ms runs out. The duration of every phase is recorded as
+ * {@code kafka.admin.startup}, tagged by phase and outcome.
+ */
 @Component
 public class KafkaAdminClient {
 
     private static final Logger LOG = LoggerFactory.getLogger(KafkaAdminClient.class);
 
+    private static final long DEFAULT_STARTUP_TIMEOUT_MS = 120_000;
+    private static final String TOPICS_PHASE = "topics";
+    private static final String SCHEMA_REGISTRY_PHASE = "schema-registry";
+
     private final KafkaConfigData kafkaConfigData;
 
     private final RetryConfigData retryConfigData;
 
     private final AdminClient adminClient;
 
-    private final RetryTemplate retryTemplate;
-
     private final WebClient webClient;
 
+    private final MeterRegistry meterRegistry;
+
+    private final PartitionSizer partitionSizer;
+
+    private final TopicConfigReconciler topicConfigReconciler;
+
 
     public KafkaAdminClient(KafkaConfigData config,
                             RetryConfigData retryConfigData,
                             AdminClient client,
-                            RetryTemplate template,
-                            WebClient webClient) {
+                            WebClient webClient,
+                            MeterRegistry registry,
+                            PartitionSizer sizer,
+                            TopicConfigReconciler reconciler) {
         this.kafkaConfigData = config;
         this.retryConfigData = retryConfigData;
         this.adminClient = client;
-        this.retryTemplate = template;
         this.webClient = webClient;
+        this.meterRegistry = registry;
+        this.partitionSizer = sizer;
+        this.topicConfigReconciler = reconciler;
+    }
+
+    /**
+     * Creates the configured topics and checks the schema registry in parallel, under one startup deadline.
+     */
+    public void awaitStartupReadiness() {
+        long deadlineNanos = deadlineNanos();
+        long start = System.nanoTime();
+        CompletableFuture<Void> topics = timed(TOPICS_PHASE, start, topicsReady(true, deadlineNanos));
+        CompletableFuture<Void> schemaRegistry = timed(SCHEMA_REGISTRY_PHASE, start,
+                schemaRegistryReady(deadlineNanos));
+        await(timed("total", start, CompletableFuture.allOf(topics, schemaRegistry)), deadlineNanos);
     }
 
     public void createTopics() {
-        CreateTopicsResult createTopicsResult;
-        try {
-            createTopicsResult = retryTemplate.execute(this::doCreateTopics);
-            LOG.info("Create topic result {}", createTopicsResult.values().values());
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for creating kafka topic(s)!", t);
-        }
-        checkTopicsCreated();
+        long deadlineNanos = deadlineNanos();
+        await(timed(TOPICS_PHASE, System.nanoTime(), topicsReady(true, deadlineNanos)), deadlineNanos);
+    }
+
+    /**
+     * Creates only the given topics, e.g. topics derived from the configured ones, and waits until they are ready.
+     */
+    public void createTopics(Collection<String> topicNames) {
+        long deadlineNanos = deadlineNanos();
+        await(timed(TOPICS_PHASE, System.nanoTime(), topicsReady(List.copyOf(topicNames), true, deadlineNanos)),
+                deadlineNanos);
     }
 
     public void checkTopicsCreated() {
-        Collection<TopicListing> topics = getTopics();
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        int multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        for (String topic : kafkaConfigData.getTopicNamesToCreate()) {
-            while (!isTopicCreated(topics, topic)) {
-                checkMaxRetry(retryCount++, maxRetry);
-                sleep(sleepTimeMs);
-                sleepTimeMs *= multiplier;
-                topics = getTopics();
-            }
-        }
+        long deadlineNanos = deadlineNanos();
+        await(timed(TOPICS_PHASE, System.nanoTime(), topicsReady(false, deadlineNanos)), deadlineNanos);
     }
 
     public void checkSchemaRegistry() {
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        int multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        while (!getSchemaRegistryStatus().is2xxSuccessful()) {
-            checkMaxRetry(retryCount++, maxRetry);
-            sleep(sleepTimeMs);
-            sleepTimeMs *= multiplier;
-        }
+        long deadlineNanos = deadlineNanos();
+        await(timed(SCHEMA_REGISTRY_PHASE, System.nanoTime(), schemaRegistryReady(deadlineNanos)), deadlineNanos);
     }
 
-    private HttpStatus getSchemaRegistryStatus() {
-        try {
-            return webClient
-                    .method(HttpMethod.GET)
-                    .uri(kafkaConfigData.getSchemaRegistryUrl())
-                    .retrieve()
-                    .toBodilessEntity()
-                    .map(response -> HttpStatus.valueOf(response.getStatusCode().value()))
-                    .block();
-        } catch (Exception e) {
-            return HttpStatus.SERVICE_UNAVAILABLE;
-        }
+    private CompletableFuture<Void> topicsReady(boolean create, long deadlineNanos) {
+        return topicsReady(kafkaConfigData.getTopicNamesToCreate(), create, deadlineNanos);
     }
 
+    private CompletableFuture<Void> topicsReady(List<String> names, boolean create, long deadlineNanos) {
+        List<String> topicNames = names.stream()
+                .map(String::trim)
+                .toList();
+        CompletableFuture<Void> ready = pollUntil(TOPICS_PHASE, () -> checkTopics(topicNames, create, deadlineNanos),
+                deadlineNanos, retryConfigData.getInitialIntervalMs());
+        return create ? ready.thenCompose(ignored -> topicConfigReconciler.reconcile(topicNames)) : ready;
+    }
 
-    private void sleep(Long sleepTimeMs) {
-        try {
-            Thread.sleep(sleepTimeMs);
-        } catch (InterruptedException e) {
-            throw new KafkaClientException("Error while sleeping for waiting new created topics!!");
-        }
+    private CompletableFuture<Boolean> checkTopics(List<String> topicNames, boolean create, long deadlineNanos) {
+        DescribeTopicsOptions options = new DescribeTopicsOptions().timeoutMs(remainingMs(deadlineNanos));
+        List<CompletableFuture<String>> notReady = new ArrayList<>(topicNames.size());
+        adminClient.describeTopics(topicNames, options).topicNameValues().forEach((topic, description) ->
+                notReady.add(KafkaFutures.toCompletableFuture(description)
+                        .handle((result, e) -> e == null && hasLeaders(result) ? null : topic)));
+        return CompletableFuture.allOf(notReady.toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> {
+                    List<String> missing = notReady.stream()
+                            .map(CompletableFuture::join)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    if (missing.isEmpty()) {
+                        return CompletableFuture.completedFuture(true);
+                    }
+                    LOG.info("Waiting for topic(s) {}", missing);
+                    return create ? doCreateTopics(missing, deadlineNanos) : CompletableFuture.completedFuture(false);
+                });
     }
 
-    private void checkMaxRetry(int retry, Integer maxRetry) {
-        if (retry > maxRetry) {
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!");
-        }
+    private CompletableFuture<Boolean> doCreateTopics(List<String> topicNames, long deadlineNanos) {
+        List<NewTopic> kafkaTopics = topicNames.stream().map(topic -> new NewTopic(
+                topic,
+                partitionSizer.partitionsFor(topic),
+                kafkaConfigData.getReplicationFactor()
+        ).configs(topicConfigReconciler.desiredConfigs(topic))).collect(Collectors.toList());
+        kafkaTopics.forEach(topic -> LOG.info("Creating topic {} with {} partitions", topic.name(),
+                topic.numPartitions()));
+        Map<String, KafkaFuture<Void>> results = adminClient.createTopics(kafkaTopics,
+                new CreateTopicsOptions().timeoutMs(remainingMs(deadlineNanos))).values();
+        results.forEach((topic, result) -> KafkaFutures.toCompletableFuture(result).whenComplete((ignored, e) -> {
+            if (e != null && !(KafkaFutures.unwrap(e) instanceof TopicExistsException)) {
+                LOG.warn("Could not create topic {}: {}", topic, KafkaFutures.unwrap(e).getMessage());
+            }
+        }));
+        // Ready is decided by the next describe, once leaders are elected
+        return KafkaFutures.toCompletableFuture(KafkaFuture.allOf(results.values().toArray(KafkaFuture[]::new)))
+                .handle((ignored, e) -> false);
     }
 
-    private boolean isTopicCreated(Collection<TopicListing> topics, String topicName) {
-        if (topics == null) {
-            return false;
-        }
-        return topics.stream().anyMatch(topic -> topic.name().equals(topicName));
+    private boolean hasLeaders(TopicDescription description) {
+        return !description.partitions().isEmpty()
+                && description.partitions().stream().allMatch(partition -> partition.leader() != null);
     }
 
-    private CreateTopicsResult doCreateTopics(RetryContext retryContext) {
-        List<String> topicNames = kafkaConfigData.getTopicNamesToCreate();
-        LOG.info("Creating {} topics(s), attempt {}", topicNames.size(), retryContext.getRetryCount());
-        List<NewTopic> kafkaTopics = topicNames.stream().map(topic -> new NewTopic(
-                topic.trim(),
-                kafkaConfigData.getNumOfPartitions(),
-                kafkaConfigData.getReplicationFactor()
-        )).collect(Collectors.toList());
-        return adminClient.createTopics(kafkaTopics);
+    private CompletableFuture<Void> schemaRegistryReady(long deadlineNanos) {
+        return pollUntil(SCHEMA_REGISTRY_PHASE, () -> checkSchemaRegistryStatus(deadlineNanos), deadlineNanos,
+                retryConfigData.getInitialIntervalMs());
+    }
+
+    private CompletableFuture<Boolean> checkSchemaRegistryStatus(long deadlineNanos) {
+        return webClient
+                .method(HttpMethod.GET)
+                .uri(kafkaConfigData.getSchemaRegistryUrl())
+                .retrieve()
+                .toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful())
+                .timeout(Duration.ofMillis(remainingMs(deadlineNanos)))
+                .onErrorReturn(false)
+                .toFuture();
     }
 
-    private Collection<TopicListing> getTopics() {
-        Collection<TopicListing> topics;
+    /**
+     * Runs the check until it reports ready, waiting between attempts without blocking a thread.
+     */
+    private CompletableFuture<Void> pollUntil(String phase, Supplier<CompletableFuture<Boolean>> check,
+                                              long deadlineNanos, long delayMs) {
+        CompletableFuture<Boolean> attempt;
         try {
-            topics = retryTemplate.execute(this::doGetTopics);
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!", t);
+            attempt = check.get();
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
         }
-        return topics;
+        return attempt
+                .exceptionally(e -> {
+                    LOG.debug("Startup phase {} check failed: {}", phase, KafkaFutures.unwrap(e).getMessage());
+                    return false;
+                })
+                .thenCompose(ready -> {
+                    if (ready) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                    if (remainingMs <= 0) {
+                        return CompletableFuture.failedFuture(
+                                new KafkaClientException("Startup phase " + phase + " not ready before deadline!"));
+                    }
+                    long nextDelayMs = Math.min((long) (delayMs * retryConfigData.getMultiplier()),
+                            retryConfigData.getMaxIntervalMs());
+                    return CompletableFuture.runAsync(() -> { },
+                                    CompletableFuture.delayedExecutor(Math.min(delayMs, remainingMs),
+                                            TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> pollUntil(phase, check, deadlineNanos, nextDelayMs));
+                });
+    }
+
+    private <T> CompletableFuture<T> timed(String phase, long startNanos, CompletableFuture<T> future) {
+        return future.whenComplete((result, e) -> {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            Timer.builder("kafka.admin.startup")
+                    .description("Time spent waiting for startup readiness, by phase")
+                    .tag("phase", phase)
+                    .tag("outcome", e == null ? "ready" : "failed")
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            LOG.info("Startup phase {} {} in {} ms", phase, e == null ? "ready" : "failed",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        });
     }
 
-    private Collection<TopicListing> doGetTopics(RetryContext retryContext)
-            throws ExecutionException, InterruptedException {
-        LOG.info("Reading kafka topic {}, attempt {}",
-                kafkaConfigData.getTopicNamesToCreate().toArray(), retryContext.getRetryCount());
-        Collection<TopicListing> topics = adminClient.listTopics().listings().get();
-        if (topics != null) {
-            topics.forEach(topic -> LOG.debug("Topic with name {}", topic.name()));
+    private void await(CompletableFuture<?> future, long deadlineNanos) {
+        try {
+            // The phases fail themselves at the deadline; the grace only covers a hung client call
+            future.get(remainingMs(deadlineNanos) + retryConfigData.getMaxIntervalMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Interrupted while waiting for startup readiness!", e);
+        } catch (TimeoutException e) {
+            throw new KafkaClientException("Startup readiness deadline exceeded!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KafkaClientException kafkaClientException) {
+                throw kafkaClientException;
+            }
+            throw new KafkaClientException("Error while waiting for startup readiness!", e.getCause());
         }
-        return topics;
     }
 
+    private long deadlineNanos() {
+        long timeoutMs = kafkaConfigData.getStartupTimeoutMs() != null
+                ? kafkaConfigData.getStartupTimeoutMs() : DEFAULT_STARTUP_TIMEOUT_MS;
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    private static int remainingMs(long deadlineNanos) {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingMs));
+    }
 }
@@ -0,0 +1,72 @@
+package com.microservices.demo.kafka.admin.client;
+
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Waits on admin client {@link KafkaFuture}s, or bridges them into {@link CompletableFuture} composition.
+ */
+public final class KafkaFutures {
+
+    private static final long ADMIN_TIMEOUT_MS = 30_000;
+
+    private KafkaFutures() {
+    }
+
+    /**
+     * Blocks until the admin call completes, for at most 30 seconds.
+     *
+     * @throws KafkaClientException if the call failed, timed out or the thread was interrupted
+     */
+    public static <T> T get(KafkaFuture<T> future) {
+        try {
+            return future.get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Interrupted while calling the Kafka admin API!", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaClientException("Error calling the Kafka admin API!", e);
+        }
+    }
+
+    /**
+     * @return the offset the spec resolves to for every partition, waiting as {@link #get} does
+     */
+    public static Map<TopicPartition, Long> listOffsets(AdminClient adminClient,
+                                                        Collection<TopicPartition> partitions, OffsetSpec spec) {
+        Map<TopicPartition, OffsetSpec> specs = partitions.stream()
+                .collect(Collectors.toMap(Function.identity(), partition -> spec));
+        return get(adminClient.listOffsets(specs).all()).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().offset()));
+    }
+
+    static <T> CompletableFuture<T> toCompletableFuture(KafkaFuture<T> future) {
+        CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                completableFuture.completeExceptionally(e);
+            } else {
+                completableFuture.complete(result);
+            }
+        });
+        return completableFuture;
+    }
+
+    static Throwable unwrap(Throwable e) {
+        return (e instanceof ExecutionException || e instanceof CompletionException) && e.getCause() != null
+                ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,137 @@
+package com.microservices.demo.kafka.admin.client;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConfigData.TopicSpec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the broker-side settings of kafka-config.topic-specs: as configs of newly created topics, and on
+ * startup by comparing existing topics with their spec and setting drifted keys back through
+ * {@code incrementalAlterConfigs}.
+ * <p>
+ * The number of drifted keys found per topic is exported as {@code kafka.admin.topic.config.drift} and drops
+ * to zero once they are set back. With reconcile-topic-configs false, drift is only logged and reported.
+ * Reconciling never fails startup; errors are logged and leave the drift reported.
+ */
+@Component
+public class TopicConfigReconciler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicConfigReconciler.class);
+
+    private final KafkaConfigData kafkaConfigData;
+    private final AdminClient adminClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> driftByTopic = new ConcurrentHashMap<>();
+
+    public TopicConfigReconciler(KafkaConfigData configData, AdminClient client, MeterRegistry registry) {
+        this.kafkaConfigData = configData;
+        this.adminClient = client;
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * @return the topic configs declared by the topic's spec, empty if it has none
+     */
+    public Map<String, String> desiredConfigs(String topic) {
+        Map<String, String> configs = new LinkedHashMap<>();
+        TopicSpec spec = kafkaConfigData.getTopicSpecs() == null ? null : kafkaConfigData.getTopicSpecs().get(topic);
+        if (spec == null) {
+            return configs;
+        }
+        putIfSet(configs, TopicConfig.SEGMENT_BYTES_CONFIG, spec.getSegmentBytes());
+        putIfSet(configs, TopicConfig.RETENTION_MS_CONFIG, spec.getRetentionMs());
+        putIfSet(configs, TopicConfig.COMPRESSION_TYPE_CONFIG, spec.getCompressionType());
+        putIfSet(configs, TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, spec.getMinInsyncReplicas());
+        putIfSet(configs, TopicConfig.MESSAGE_TIMESTAMP_TYPE_CONFIG, spec.getMessageTimestampType());
+        putIfSet(configs, TopicConfig.CLEANUP_POLICY_CONFIG, spec.getCleanupPolicy());
+        return configs;
+    }
+
+    public CompletableFuture<Void> reconcile(Collection<String> topicNames) {
+        Map<ConfigResource, Map<String, String>> desired = new HashMap<>();
+        for (String topic : topicNames) {
+            Map<String, String> configs = desiredConfigs(topic);
+            if (!configs.isEmpty()) {
+                desired.put(new ConfigResource(ConfigResource.Type.TOPIC, topic), configs);
+            }
+        }
+        if (desired.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return KafkaFutures.toCompletableFuture(adminClient.describeConfigs(desired.keySet()).all())
+                .thenCompose(actual -> alterDrifted(desired, actual))
+                .exceptionally(e -> {
+                    LOG.warn("Could not reconcile topic configs: {}", KafkaFutures.unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Void> alterDrifted(Map<ConfigResource, Map<String, String>> desired,
+                                                 Map<ConfigResource, Config> actual) {
+        Map<ConfigResource, Collection<AlterConfigOp>> operations = new HashMap<>();
+        desired.forEach((resource, configs) -> {
+            Config config = actual.get(resource);
+            List<AlterConfigOp> drifted = configs.entrySet().stream()
+                    .filter(entry -> !Objects.equals(entry.getValue(), valueOf(config, entry.getKey())))
+                    .peek(entry -> LOG.warn("Topic {} config {} is {}, spec wants {}", resource.name(),
+                            entry.getKey(), valueOf(config, entry.getKey()), entry.getValue()))
+                    .map(entry -> new AlterConfigOp(new ConfigEntry(entry.getKey(), entry.getValue()),
+                            AlterConfigOp.OpType.SET))
+                    .toList();
+            drift(resource.name()).set(drifted.size());
+            if (!drifted.isEmpty()) {
+                operations.put(resource, drifted);
+            }
+        });
+        if (operations.isEmpty() || Boolean.FALSE.equals(kafkaConfigData.getReconcileTopicConfigs())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return KafkaFutures.toCompletableFuture(adminClient.incrementalAlterConfigs(operations).all())
+                .thenRun(() -> operations.keySet().forEach(resource -> {
+                    drift(resource.name()).set(0);
+                    LOG.info("Topic {} configs reconciled with its spec", resource.name());
+                }));
+    }
+
+    private AtomicInteger drift(String topic) {
+        return driftByTopic.computeIfAbsent(topic, name -> {
+            AtomicInteger drift = new AtomicInteger();
+            Gauge.builder("kafka.admin.topic.config.drift", drift, AtomicInteger::get)
+                    .description("Topic configs that differ from the topic spec")
+                    .tag("topic", name)
+                    .register(meterRegistry);
+            return drift;
+        });
+    }
+
+    private static String valueOf(Config config, String name) {
+        ConfigEntry entry = config == null ? null : config.get(name);
+        return entry == null ? null : entry.value();
+    }
+
+    private static void putIfSet(Map<String, String> configs, String name, Object value) {
+        if (value != null) {
+            configs.put(name, value.toString());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservices.demo.kafka.admin.config;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.admin.registry.AvroSchemaCatalog;
+import com.microservices.demo.kafka.admin.registry.EmbeddedSchemaRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Starts an {@link EmbeddedSchemaRegistry} for local and test runs; kafka-config.schema-registry-url must
+ * point at http://localhost:{embedded-schema-registry-port} for the clients to use it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka-config.embedded-schema-registry-enabled", havingValue = "true")
+public class EmbeddedSchemaRegistryConfig {
+
+    private static final int DEFAULT_PORT = 8081;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    public EmbeddedSchemaRegistryConfig(KafkaConfigData configData) {
+        this.kafkaConfigData = configData;
+    }
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedSchemaRegistry embeddedSchemaRegistry() {
+        int port = kafkaConfigData.getEmbeddedSchemaRegistryPort() != null
+                ? kafkaConfigData.getEmbeddedSchemaRegistryPort() : DEFAULT_PORT;
+        EmbeddedSchemaRegistry registry = new EmbeddedSchemaRegistry(AvroSchemaCatalog.fromClasspath(),
+                kafkaConfigData.getValueSchemas(), port);
+        registry.start();
+        return registry;
+    }
+}
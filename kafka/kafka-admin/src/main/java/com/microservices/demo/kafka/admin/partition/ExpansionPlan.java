@@ -0,0 +1,19 @@
+package com.microservices.demo.kafka.admin.partition;
+
+/**
+ * Outcome of planning a partition expansion for one topic.
+ *
+ * @param produceRate        observed messages/s written to the topic
+ * @param lag                messages the consumer group has not committed yet
+ * @param requiredThroughput produce rate plus what it takes to drain the lag within lag-drain-seconds
+ * @param targetPartitions   partition count to expand to; equal to currentPartitions when nothing is done
+ */
+public record ExpansionPlan(String topic,
+                            double produceRate,
+                            long lag,
+                            double requiredThroughput,
+                            int currentPartitions,
+                            int targetPartitions,
+                            boolean expand,
+                            String reason) {
+}
@@ -0,0 +1,33 @@
+package com.microservices.demo.kafka.admin.partition;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/partitions/{topic}?group=...}) planning partition expansion from
+ * observed load; a GET only plans, a POST also expands. Both block for load-sample-window-ms.
+ */
+@Component
+@Endpoint(id = "partitions")
+public class PartitionExpansionEndpoint {
+
+    private final PartitionExpansionService expansionService;
+
+    public PartitionExpansionEndpoint(PartitionExpansionService service) {
+        this.expansionService = service;
+    }
+
+    @ReadOperation
+    public ExpansionPlan plan(@Selector String topic, @Nullable String group) {
+        return expansionService.plan(topic, group);
+    }
+
+    @WriteOperation
+    public ExpansionPlan expand(@Selector String topic, @Nullable String group) {
+        return expansionService.expand(topic, group);
+    }
+}
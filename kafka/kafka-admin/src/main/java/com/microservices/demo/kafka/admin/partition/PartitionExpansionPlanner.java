@@ -0,0 +1,67 @@
+package com.microservices.demo.kafka.admin.partition;
+
+import com.microservices.demo.config.KafkaConfigData.TopicSpec;
+
+import java.util.Locale;
+
+/**
+ * Decides how far to grow a topic's partitions from its observed load.
+ * <p>
+ * The topic must carry its produce rate and also drain the current lag within lag-drain-seconds; the
+ * partition count that throughput needs comes from the {@link PartitionSizer}. Partitions are never
+ * removed and at most doubled per expansion. Adding partitions moves keys to other partitions, breaking
+ * per-key ordering across the change and co-partitioning with other topics, so keyed topics are only
+ * expanded when their spec sets allow-keyed-expansion, and then only by doubling: every key either keeps
+ * its partition p or moves to p + n. Topics count as keyed unless their spec sets keyed to false.
+ */
+public class PartitionExpansionPlanner {
+
+    private static final long DEFAULT_LAG_DRAIN_SECONDS = 300;
+
+    private final PartitionSizer partitionSizer;
+    private final long lagDrainSeconds;
+
+    public PartitionExpansionPlanner(PartitionSizer sizer, Long lagDrainSeconds) {
+        this.partitionSizer = sizer;
+        this.lagDrainSeconds = lagDrainSeconds != null && lagDrainSeconds > 0
+                ? lagDrainSeconds : DEFAULT_LAG_DRAIN_SECONDS;
+    }
+
+    public ExpansionPlan plan(String topic, int currentPartitions, double produceRate, long lag) {
+        double requiredThroughput = produceRate + (double) Math.max(0, lag) / lagDrainSeconds;
+        int wanted = partitionSizer.partitionsForThroughput(requiredThroughput);
+        if (wanted <= currentPartitions) {
+            return hold(topic, produceRate, lag, requiredThroughput, currentPartitions,
+                    "Current partitions carry the load");
+        }
+        if (currentPartitions >= partitionSizer.maxPartitions()) {
+            return hold(topic, produceRate, lag, requiredThroughput, currentPartitions,
+                    "Already at max-partitions");
+        }
+        TopicSpec spec = partitionSizer.topicSpec(topic);
+        boolean keyed = spec == null || !Boolean.FALSE.equals(spec.getKeyed());
+        int doubled = (int) Math.min((long) currentPartitions * 2, Integer.MAX_VALUE);
+        int target;
+        if (keyed) {
+            if (spec == null || !Boolean.TRUE.equals(spec.getAllowKeyedExpansion())) {
+                return hold(topic, produceRate, lag, requiredThroughput, currentPartitions, String.format(Locale.ROOT,
+                        "Keyed topic needs %d partitions; set allow-keyed-expansion to remap keys", wanted));
+            }
+            if (doubled > partitionSizer.maxPartitions()) {
+                return hold(topic, produceRate, lag, requiredThroughput, currentPartitions,
+                        "Doubling a keyed topic would exceed max-partitions");
+            }
+            target = doubled;
+        } else {
+            target = Math.min(Math.min(wanted, doubled), partitionSizer.maxPartitions());
+        }
+        return new ExpansionPlan(topic, produceRate, lag, requiredThroughput, currentPartitions, target, true,
+                String.format(Locale.ROOT, "%.0f msg/s needs %d partitions", requiredThroughput, wanted));
+    }
+
+    private static ExpansionPlan hold(String topic, double produceRate, long lag, double requiredThroughput,
+                                      int currentPartitions, String reason) {
+        return new ExpansionPlan(topic, produceRate, lag, requiredThroughput, currentPartitions, currentPartitions,
+                false, reason);
+    }
+}
@@ -0,0 +1,110 @@
+package com.microservices.demo.kafka.admin.partition;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaFutures;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grows a topic's partitions online from its observed load, as planned by {@link PartitionExpansionPlanner}.
+ * <p>
+ * The produce rate is sampled from the growth of the partitions' end offsets over load-sample-window-ms,
+ * and the lag is the distance between end offsets and the offsets committed by the given consumer group.
+ * Consumers pick up new partitions on their next rebalance; their concurrency-level must also be raised
+ * to actually read them in parallel.
+ */
+@Component
+public class PartitionExpansionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionExpansionService.class);
+
+    private static final long DEFAULT_SAMPLE_WINDOW_MS = 10_000;
+
+    private final AdminClient adminClient;
+    private final PartitionExpansionPlanner planner;
+    private final long sampleWindowMs;
+
+    public PartitionExpansionService(AdminClient client, KafkaConfigData configData, PartitionSizer sizer) {
+        this.adminClient = client;
+        this.planner = new PartitionExpansionPlanner(sizer, configData.getLagDrainSeconds());
+        this.sampleWindowMs = configData.getLoadSampleWindowMs() != null
+                ? configData.getLoadSampleWindowMs() : DEFAULT_SAMPLE_WINDOW_MS;
+    }
+
+    /**
+     * Samples the topic's load and returns what an expansion would do, without changing anything.
+     *
+     * @param consumerGroupId group whose lag counts towards the load, or null to only use the produce rate
+     */
+    public ExpansionPlan plan(String topic, String consumerGroupId) {
+        List<TopicPartition> partitions = KafkaFutures.get(adminClient.describeTopics(List.of(topic))
+                        .topicNameValues().get(topic))
+                .partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+        long startNanos = System.nanoTime();
+        Map<TopicPartition, Long> startOffsets = endOffsets(partitions);
+        sleep(sampleWindowMs);
+        Map<TopicPartition, Long> endOffsets = endOffsets(partitions);
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long produced = endOffsets.values().stream().mapToLong(Long::longValue).sum()
+                - startOffsets.values().stream().mapToLong(Long::longValue).sum();
+        return planner.plan(topic, partitions.size(), produced / seconds, lag(consumerGroupId, endOffsets));
+    }
+
+    /**
+     * Plans as {@link #plan(String, String)} and applies the plan through {@code createPartitions}.
+     */
+    public ExpansionPlan expand(String topic, String consumerGroupId) {
+        ExpansionPlan plan = plan(topic, consumerGroupId);
+        if (!plan.expand()) {
+            LOG.info("Not expanding topic {}: {}", topic, plan.reason());
+            return plan;
+        }
+        LOG.info("Expanding topic {} from {} to {} partitions: {}", topic, plan.currentPartitions(),
+                plan.targetPartitions(), plan.reason());
+        KafkaFutures.get(adminClient.createPartitions(
+                Map.of(topic, NewPartitions.increaseTo(plan.targetPartitions()))).all());
+        return plan;
+    }
+
+    private Map<TopicPartition, Long> endOffsets(List<TopicPartition> partitions) {
+        return KafkaFutures.listOffsets(adminClient, partitions, OffsetSpec.latest());
+    }
+
+    private long lag(String consumerGroupId, Map<TopicPartition, Long> endOffsets) {
+        if (consumerGroupId == null || consumerGroupId.isBlank()) {
+            return 0;
+        }
+        Map<TopicPartition, OffsetAndMetadata> committed = KafkaFutures.get(adminClient
+                .listConsumerGroupOffsets(consumerGroupId).partitionsToOffsetAndMetadata());
+        long lag = 0;
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            OffsetAndMetadata offset = committed.get(end.getKey());
+            if (offset != null) {
+                lag += Math.max(0, end.getValue() - offset.offset());
+            }
+        }
+        return lag;
+    }
+
+    private static void sleep(long sleepTimeMs) {
+        try {
+            Thread.sleep(sleepTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Interrupted while sampling topic load!", e);
+        }
+    }
+}
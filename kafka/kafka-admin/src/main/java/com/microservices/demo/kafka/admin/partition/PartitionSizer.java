@@ -0,0 +1,54 @@
+package com.microservices.demo.kafka.admin.partition;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConfigData.TopicSpec;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partition counts from throughput: a topic needs enough partitions for producers to write its target rate
+ * (partition-producer-throughput messages/s per partition) and for one consumer thread per partition to
+ * read it (partition-consumer-throughput), times partition-headroom, capped at max-partitions.
+ * Topics without a declared target-throughput get num-of-partitions.
+ */
+@Component
+public class PartitionSizer {
+
+    private static final double DEFAULT_HEADROOM = 1.5;
+    private static final int DEFAULT_MAX_PARTITIONS = 1024;
+
+    private final KafkaConfigData kafkaConfigData;
+
+    public PartitionSizer(KafkaConfigData configData) {
+        this.kafkaConfigData = configData;
+    }
+
+    public int partitionsFor(String topic) {
+        TopicSpec spec = topicSpec(topic);
+        if (spec == null || spec.getTargetThroughput() == null) {
+            return kafkaConfigData.getNumOfPartitions();
+        }
+        return partitionsForThroughput(spec.getTargetThroughput());
+    }
+
+    public int partitionsForThroughput(double messagesPerSecond) {
+        double perPartition = Math.min(
+                positive(kafkaConfigData.getPartitionProducerThroughput()),
+                positive(kafkaConfigData.getPartitionConsumerThroughput()));
+        double headroom = kafkaConfigData.getPartitionHeadroom() != null
+                ? kafkaConfigData.getPartitionHeadroom() : DEFAULT_HEADROOM;
+        long partitions = (long) Math.ceil(Math.max(0, messagesPerSecond) * headroom / perPartition);
+        return (int) Math.max(1, Math.min(partitions, maxPartitions()));
+    }
+
+    public int maxPartitions() {
+        return kafkaConfigData.getMaxPartitions() != null ? kafkaConfigData.getMaxPartitions() : DEFAULT_MAX_PARTITIONS;
+    }
+
+    public TopicSpec topicSpec(String topic) {
+        return kafkaConfigData.getTopicSpecs() == null ? null : kafkaConfigData.getTopicSpecs().get(topic);
+    }
+
+    private static double positive(Long throughput) {
+        return throughput != null && throughput > 0 ? throughput : Double.MAX_VALUE;
+    }
+}
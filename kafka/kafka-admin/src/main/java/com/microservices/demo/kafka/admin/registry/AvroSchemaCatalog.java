@@ -0,0 +1,49 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The Avro schemas shipped on the classpath as {@code avro/*.avsc}, keyed by record full name.
+ */
+public class AvroSchemaCatalog {
+
+    private static final String SCHEMA_LOCATION = "classpath*:avro/*.avsc";
+
+    private final Map<String, Schema> schemasByName;
+
+    private AvroSchemaCatalog(Map<String, Schema> schemasByName) {
+        this.schemasByName = schemasByName;
+    }
+
+    public static AvroSchemaCatalog fromClasspath() {
+        Map<String, Schema> schemas = new LinkedHashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(SCHEMA_LOCATION)) {
+                try (InputStream in = resource.getInputStream()) {
+                    Schema schema = new Schema.Parser().parse(in);
+                    schemas.put(schema.getFullName(), schema);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new KafkaClientException("Could not load Avro schemas from " + SCHEMA_LOCATION, e);
+        }
+        return new AvroSchemaCatalog(schemas);
+    }
+
+    public Schema get(String fullName) {
+        return schemasByName.get(fullName);
+    }
+
+    public Collection<Schema> all() {
+        return schemasByName.values();
+    }
+}
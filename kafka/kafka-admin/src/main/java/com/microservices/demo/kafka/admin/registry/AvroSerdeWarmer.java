@@ -0,0 +1,40 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.serialization.Serde;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills a registry-backed serde's schema caches before its first record.
+ * <p>
+ * A default instance of the generated class is serialized, which registers or looks up the writer schema,
+ * and deserialized again, which fetches the schema by id. Only helps serde instances that are reused for
+ * every record afterwards. A failure is logged and leaves the schema to be resolved on the first record.
+ */
+public final class AvroSerdeWarmer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvroSerdeWarmer.class);
+
+    private AvroSerdeWarmer() {
+    }
+
+    /**
+     * @return true if both schema caches were filled
+     */
+    public static <T extends SpecificRecord> boolean warm(Serde<T> serde, String topic, Class<T> type) {
+        long start = System.nanoTime();
+        try {
+            T sample = type.cast(SpecificData.get().newRecord(null, SpecificData.get().getSchema(type)));
+            serde.deserializer().deserialize(topic, serde.serializer().serialize(topic, sample));
+            LOG.info("Warmed {} serde for topic {} in {} ms", type.getSimpleName(), topic,
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (RuntimeException e) {
+            LOG.warn("Could not warm {} serde for topic {}, schemas will be resolved on the first record: {}",
+                    type.getSimpleName(), topic, e.toString());
+            return false;
+        }
+    }
+}
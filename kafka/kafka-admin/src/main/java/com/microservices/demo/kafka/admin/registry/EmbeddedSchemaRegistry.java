@@ -0,0 +1,225 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.avro.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the Confluent schema registry, for local and test runs without a registry container.
+ * <p>
+ * Serves the part of the REST API the Avro serializers and deserializers use (register, lookup, fetch by id,
+ * latest version, subject listing and the root health check) from memory, on the loopback interface only.
+ * It starts with every classpath schema registered: under {@code <topic>-value} for topics mapped in
+ * kafka-config.value-schemas and under the record full name otherwise. Schemas are not checked for
+ * compatibility and nothing is persisted.
+ */
+public class EmbeddedSchemaRegistry implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSchemaRegistry.class);
+
+    private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+    private static final Pattern SUBJECT_VERSIONS = Pattern.compile("^/subjects/([^/]+)/versions/?$");
+    private static final Pattern SUBJECT_VERSION = Pattern.compile("^/subjects/([^/]+)/versions/([^/]+)$");
+    private static final Pattern SUBJECT = Pattern.compile("^/subjects/([^/]+)/?$");
+    private static final Pattern SCHEMA_BY_ID = Pattern.compile("^/schemas/ids/(\\d+)(/schema)?$");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> schemasById = new ArrayList<>();
+    private final Map<String, Integer> idsBySchema = new HashMap<>();
+    private final Map<String, List<Integer>> idsBySubjectVersion = new TreeMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("schema-registry-", 0).daemon(true).factory());
+
+    public EmbeddedSchemaRegistry(AvroSchemaCatalog catalog, Map<String, String> valueSchemas, int port) {
+        Map<String, String> subjectsBySchemaName = new HashMap<>();
+        if (valueSchemas != null) {
+            valueSchemas.forEach((topic, schemaName) -> subjectsBySchemaName.putIfAbsent(schemaName, topic + "-value"));
+            valueSchemas.forEach((topic, schemaName) -> {
+                Schema schema = catalog.get(schemaName);
+                if (schema == null) {
+                    throw new KafkaClientException("No classpath schema " + schemaName + " for topic " + topic);
+                }
+                register(topic + "-value", schema.toString());
+            });
+        }
+        for (Schema schema : catalog.all()) {
+            if (!subjectsBySchemaName.containsKey(schema.getFullName())) {
+                register(schema.getFullName(), schema.toString());
+            }
+        }
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new KafkaClientException("Could not bind embedded schema registry to port " + port, e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        LOG.info("Embedded schema registry serving {} schemas under {} subjects at {}",
+                schemasById.size(), idsBySubjectVersion.size(), getUrl());
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the global id of the schema, registering it as a new version of the subject if it is not one yet
+     */
+    synchronized int register(String subject, String schema) {
+        String canonical = new Schema.Parser().parse(schema).toString();
+        Integer id = idsBySchema.get(canonical);
+        if (id == null) {
+            schemasById.add(canonical);
+            id = schemasById.size();
+            idsBySchema.put(canonical, id);
+        }
+        List<Integer> versions = idsBySubjectVersion.computeIfAbsent(subject, s -> new ArrayList<>());
+        if (!versions.contains(id)) {
+            versions.add(id);
+        }
+        return id;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            Matcher matcher;
+            Object response;
+            if (path.equals("/") || path.isEmpty()) {
+                response = Map.of();
+            } else if (path.equals("/subjects") || path.equals("/subjects/")) {
+                response = subjects();
+            } else if (path.startsWith("/config")) {
+                response = Map.of("compatibilityLevel", "NONE");
+            } else if ((matcher = SCHEMA_BY_ID.matcher(path)).matches()) {
+                response = schemaById(Integer.parseInt(matcher.group(1)), matcher.group(2) != null);
+            } else if ((matcher = SUBJECT_VERSIONS.matcher(path)).matches()) {
+                String subject = decode(matcher.group(1));
+                response = "POST".equals(method)
+                        ? Map.of("id", register(subject, schemaOf(exchange.getRequestBody())))
+                        : versions(subject);
+            } else if ((matcher = SUBJECT_VERSION.matcher(path)).matches()) {
+                response = version(decode(matcher.group(1)), matcher.group(2));
+            } else if ((matcher = SUBJECT.matcher(path)).matches() && "POST".equals(method)) {
+                response = lookup(decode(matcher.group(1)), schemaOf(exchange.getRequestBody()));
+            } else {
+                response = null;
+            }
+            if (response == null) {
+                send(exchange, 404, Map.of("error_code", 40401, "message", "Not found: " + path));
+            } else {
+                send(exchange, 200, response);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Embedded schema registry could not handle {}: {}", exchange.getRequestURI(), e.getMessage());
+            send(exchange, 422, Map.of("error_code", 42201, "message", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized List<String> subjects() {
+        return new ArrayList<>(idsBySubjectVersion.keySet());
+    }
+
+    private synchronized Object schemaById(int id, boolean rawSchema) throws IOException {
+        if (id < 1 || id > schemasById.size()) {
+            return null;
+        }
+        String schema = schemasById.get(id - 1);
+        return rawSchema ? objectMapper.readTree(schema) : Map.of("schema", schema);
+    }
+
+    private synchronized List<Integer> versions(String subject) {
+        List<Integer> ids = idsBySubjectVersion.get(subject);
+        if (ids == null) {
+            return null;
+        }
+        List<Integer> versions = new ArrayList<>(ids.size());
+        for (int i = 1; i <= ids.size(); i++) {
+            versions.add(i);
+        }
+        return versions;
+    }
+
+    private synchronized Object version(String subject, String version) {
+        List<Integer> ids = idsBySubjectVersion.get(subject);
+        if (ids == null) {
+            return null;
+        }
+        int number = "latest".equals(version) ? ids.size() : Integer.parseInt(version);
+        if (number < 1 || number > ids.size()) {
+            return null;
+        }
+        return subjectVersion(subject, number, ids.get(number - 1));
+    }
+
+    private synchronized Object lookup(String subject, String schema) {
+        List<Integer> ids = idsBySubjectVersion.get(subject);
+        Integer id = idsBySchema.get(new Schema.Parser().parse(schema).toString());
+        if (ids == null || id == null || !ids.contains(id)) {
+            return null;
+        }
+        return subjectVersion(subject, ids.indexOf(id) + 1, id);
+    }
+
+    private Map<String, Object> subjectVersion(String subject, int version, int id) {
+        return Map.of("subject", subject, "version", version, "id", id, "schema", schemasById.get(id - 1));
+    }
+
+    private String schemaOf(InputStream body) throws IOException {
+        JsonNode request = objectMapper.readTree(body);
+        JsonNode schemaType = request.get("schemaType");
+        if (schemaType != null && !"AVRO".equals(schemaType.asText())) {
+            throw new IllegalArgumentException("Only AVRO schemas are supported, not " + schemaType.asText());
+        }
+        return request.path("schema").asText();
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String decode(String pathSegment) {
+        return URLDecoder.decode(pathSegment, StandardCharsets.UTF_8);
+    }
+}
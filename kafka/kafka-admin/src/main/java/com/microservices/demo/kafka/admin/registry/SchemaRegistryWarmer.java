@@ -0,0 +1,113 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificData;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+
+/**
+ * Startup step that registers the classpath schema of every topic in kafka-config.value-schemas under its
+ * {@code <topic>-value} subject and fetches it back by id, once the registry is reachable, then serializes
+ * a default record of each schema with the value serializer the producers share.
+ * <p>
+ * A schema the registry rejects fails startup instead of the first send. Registering only warms the
+ * registry itself; the serializer keeps its own cache of schema ids, which the sample record fills so the
+ * first send does not wait on the registry. A sample that cannot be serialized is logged and leaves the
+ * schema to be resolved on the first send. Serde instances that live for the whole application, like
+ * Kafka Streams serdes, can be warmed with {@link AvroSerdeWarmer}.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-config.schema-warmup-enabled", havingValue = "true")
+public class SchemaRegistryWarmer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaRegistryWarmer.class);
+
+    private final KafkaConfigData kafkaConfigData;
+    private final WebClient webClient;
+    private final ObjectProvider<Serializer<Object>> producerValueSerializer;
+
+    public SchemaRegistryWarmer(KafkaConfigData configData, WebClient client,
+                                @Qualifier("producerValueSerializer")
+                                ObjectProvider<Serializer<Object>> valueSerializer) {
+        this.kafkaConfigData = configData;
+        this.webClient = client;
+        this.producerValueSerializer = valueSerializer;
+    }
+
+    public void preRegister() {
+        Map<String, String> valueSchemas = kafkaConfigData.getValueSchemas();
+        if (valueSchemas == null || valueSchemas.isEmpty()) {
+            return;
+        }
+        AvroSchemaCatalog catalog = AvroSchemaCatalog.fromClasspath();
+        Serializer<Object> valueSerializer = producerValueSerializer.getIfAvailable();
+        long start = System.nanoTime();
+        valueSchemas.forEach((topic, schemaName) -> {
+            Schema schema = catalog.get(schemaName);
+            if (schema == null) {
+                throw new KafkaClientException("No classpath schema " + schemaName + " for topic " + topic);
+            }
+            String subject = topic + "-value";
+            int id = register(subject, schema);
+            fetch(id);
+            LOG.info("Schema {} registered under subject {} with id {}", schemaName, subject, id);
+            if (valueSerializer != null) {
+                warm(valueSerializer, topic, schema);
+            }
+        });
+        LOG.info("Pre-registered {} schemas in {} ms", valueSchemas.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int register(String subject, Schema schema) {
+        try {
+            JsonNode response = webClient.post()
+                    .uri(kafkaConfigData.getSchemaRegistryUrl() + "/subjects/{subject}/versions", subject)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("schema", schema.toString()))
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block();
+            if (response == null || !response.has("id")) {
+                throw new KafkaClientException("Schema registry returned no id for subject " + subject);
+            }
+            return response.get("id").asInt();
+        } catch (KafkaClientException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new KafkaClientException("Could not register schema under subject " + subject, e);
+        }
+    }
+
+    private void warm(Serializer<Object> serializer, String topic, Schema schema) {
+        try {
+            serializer.serialize(topic, SpecificData.get().newRecord(null, schema));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not warm the producer serializer for topic {}, its schema will be resolved on the "
+                    + "first send: {}", topic, e.toString());
+        }
+    }
+
+    private void fetch(int id) {
+        try {
+            webClient.get()
+                    .uri(kafkaConfigData.getSchemaRegistryUrl() + "/schemas/ids/{id}", id)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        } catch (Exception e) {
+            throw new KafkaClientException("Could not fetch schema with id " + id, e);
+        }
+    }
+}
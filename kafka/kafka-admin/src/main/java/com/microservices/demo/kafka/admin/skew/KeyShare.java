@@ -0,0 +1,9 @@
+package com.microservices.demo.kafka.admin.skew;
+
+/**
+ * A frequent key and its estimated share of the sampled records.
+ *
+ * @param share estimated fraction of the sampled records with this key, over-estimated by at most maxError
+ */
+public record KeyShare(String key, long count, double share, double maxError) {
+}
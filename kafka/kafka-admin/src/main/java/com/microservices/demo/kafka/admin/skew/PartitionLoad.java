@@ -0,0 +1,16 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import java.util.List;
+
+/**
+ * Observed load of one partition.
+ *
+ * @param produceRate    messages/s appended over the sample window
+ * @param sampledRecords most recent records read to estimate the key distribution
+ * @param topKeys        most frequent keys among the sampled records
+ */
+public record PartitionLoad(int partition,
+                            double produceRate,
+                            int sampledRecords,
+                            List<KeyShare> topKeys) {
+}
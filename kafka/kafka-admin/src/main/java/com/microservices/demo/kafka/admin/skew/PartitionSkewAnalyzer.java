@@ -0,0 +1,298 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaFutures;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Finds hot partitions and the keys behind them before consumers start to lag.
+ * <p>
+ * An analysis measures each partition's produce rate from the growth of its end offset over
+ * load-sample-window-ms, and meanwhile reads up to skew-sample-records of its most recent records into
+ * {@link SpaceSavingSketch}es to estimate the skew-top-keys most frequent keys, per partition and topic-wide.
+ * Keys are rendered with skew-key-deserializer, or as hex without one.
+ * <p>
+ * Results are exported as {@code kafka.admin.partition.produce.rate} per partition and
+ * {@code kafka.admin.partition.skew}, {@code kafka.admin.partition.skew.cv} and
+ * {@code kafka.admin.partition.top.key.share} per topic. With skew-analysis-interval-ms set,
+ * kafka-config.topic-name is analyzed in the background at that interval; otherwise only on request.
+ */
+@Component
+public class PartitionSkewAnalyzer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionSkewAnalyzer.class);
+
+    private static final long DEFAULT_SAMPLE_WINDOW_MS = 10_000;
+    private static final int DEFAULT_SAMPLE_RECORDS = 1_000;
+    private static final int DEFAULT_TOP_KEYS = 10;
+    private static final int SKETCH_CAPACITY_FACTOR = 10;
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final AdminClient adminClient;
+    private final KafkaConfigData kafkaConfigData;
+    private final MeterRegistry meterRegistry;
+    private final long sampleWindowMs;
+    private final int sampleRecords;
+    private final int topKeys;
+    private final Map<String, TopicSkew> topicSkews = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, double[]> partitionRates = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public PartitionSkewAnalyzer(AdminClient client, KafkaConfigData configData, MeterRegistry registry) {
+        this.adminClient = client;
+        this.kafkaConfigData = configData;
+        this.meterRegistry = registry;
+        this.sampleWindowMs = configData.getLoadSampleWindowMs() != null
+                ? configData.getLoadSampleWindowMs() : DEFAULT_SAMPLE_WINDOW_MS;
+        this.sampleRecords = configData.getSkewSampleRecords() != null
+                ? configData.getSkewSampleRecords() : DEFAULT_SAMPLE_RECORDS;
+        this.topKeys = configData.getSkewTopKeys() != null ? configData.getSkewTopKeys() : DEFAULT_TOP_KEYS;
+        Long intervalMs = configData.getSkewAnalysisIntervalMs();
+        if (intervalMs != null && intervalMs > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("kafka-skew-analyzer").daemon(true).factory());
+            scheduler.scheduleWithFixedDelay(this::analyzeInBackground, intervalMs, intervalMs,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Samples the topic for load-sample-window-ms and returns its partition skew; one analysis at a time.
+     */
+    public synchronized SkewReport analyze(String topic) {
+        List<TopicPartition> partitions = KafkaFutures.get(adminClient.describeTopics(List.of(topic)).topicNameValues()
+                .get(topic)).partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+        long startNanos = System.nanoTime();
+        Map<TopicPartition, Long> startOffsets = KafkaFutures.listOffsets(adminClient, partitions, OffsetSpec.latest());
+        Map<TopicPartition, Long> beginningOffsets = KafkaFutures.listOffsets(adminClient, partitions,
+                OffsetSpec.earliest());
+
+        Map<Integer, SpaceSavingSketch<String>> partitionSketches = new HashMap<>();
+        SpaceSavingSketch<String> topicSketch = new SpaceSavingSketch<>(topKeys * SKETCH_CAPACITY_FACTOR);
+        partitions.forEach(partition -> partitionSketches.put(partition.partition(),
+                new SpaceSavingSketch<>(topKeys * SKETCH_CAPACITY_FACTOR)));
+        sampleKeys(startOffsets, beginningOffsets, startNanos, partitionSketches, topicSketch);
+
+        sleep(sampleWindowMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        Map<TopicPartition, Long> endOffsets = KafkaFutures.listOffsets(adminClient, partitions, OffsetSpec.latest());
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<Integer, Double> rates = new HashMap<>();
+        partitions.forEach(partition -> rates.put(partition.partition(),
+                (endOffsets.get(partition) - startOffsets.get(partition)) / seconds));
+
+        SkewReport report = summarize(topic, sampleWindowMs, rates, partitionSketches, topicSketch, topKeys);
+        record(report);
+        return report;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the skew coefficients of the measured partition rates and the top keys of the sketches.
+     */
+    static SkewReport summarize(String topic, long sampleWindowMs, Map<Integer, Double> rates,
+                                Map<Integer, SpaceSavingSketch<String>> partitionSketches,
+                                SpaceSavingSketch<String> topicSketch, int topKeys) {
+        double sum = 0;
+        double max = 0;
+        int hottest = -1;
+        for (Map.Entry<Integer, Double> rate : rates.entrySet()) {
+            sum += rate.getValue();
+            if (hottest < 0 || rate.getValue() > max) {
+                max = rate.getValue();
+                hottest = rate.getKey();
+            }
+        }
+        double mean = rates.isEmpty() ? 0 : sum / rates.size();
+        double variance = 0;
+        for (double rate : rates.values()) {
+            variance += (rate - mean) * (rate - mean);
+        }
+        variance = rates.isEmpty() ? 0 : variance / rates.size();
+        List<PartitionLoad> partitions = new ArrayList<>(rates.size());
+        rates.keySet().stream().sorted().forEach(partition -> {
+            SpaceSavingSketch<String> sketch = partitionSketches.get(partition);
+            partitions.add(sketch == null
+                    ? new PartitionLoad(partition, rates.get(partition), 0, List.of())
+                    : new PartitionLoad(partition, rates.get(partition), (int) sketch.getOffered(),
+                            shares(sketch, topKeys)));
+        });
+        return new SkewReport(topic, sampleWindowMs, sum,
+                mean == 0 ? Double.NaN : max / mean,
+                mean == 0 ? Double.NaN : Math.sqrt(variance) / mean,
+                hottest, shares(topicSketch, topKeys), partitions);
+    }
+
+    private void sampleKeys(Map<TopicPartition, Long> endOffsets, Map<TopicPartition, Long> beginningOffsets,
+                            long startNanos, Map<Integer, SpaceSavingSketch<String>> partitionSketches,
+                            SpaceSavingSketch<String> topicSketch) {
+        Map<TopicPartition, Long> remaining = new HashMap<>();
+        endOffsets.forEach((partition, end) -> {
+            if (end > beginningOffsets.get(partition)) {
+                remaining.put(partition, end);
+            }
+        });
+        if (remaining.isEmpty()) {
+            return;
+        }
+        Function<byte[], String> keyRenderer = keyRenderer();
+        try (KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerConfigs(),
+                new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+            consumer.assign(remaining.keySet());
+            remaining.forEach((partition, end) ->
+                    consumer.seek(partition, Math.max(beginningOffsets.get(partition), end - sampleRecords)));
+            // Sampling counts towards the window; whatever was read by then is the sample
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(sampleWindowMs);
+            while (!remaining.isEmpty() && System.nanoTime() < deadlineNanos) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    Long end = remaining.get(partition);
+                    if (end == null || record.offset() >= end) {
+                        continue;
+                    }
+                    String key = keyRenderer.apply(record.key());
+                    partitionSketches.get(record.partition()).offer(key);
+                    topicSketch.offer(key);
+                    if (record.offset() >= end - 1) {
+                        remaining.remove(partition);
+                        consumer.pause(List.of(partition));
+                    }
+                }
+            }
+        }
+    }
+
+    private void record(SkewReport report) {
+        TopicSkew skew = topicSkews.computeIfAbsent(report.topic(), this::newTopicSkew);
+        skew.maxToMeanRatio = report.maxToMeanRatio();
+        skew.coefficientOfVariation = report.coefficientOfVariation();
+        skew.topKeyShare = report.topKeys().isEmpty() ? Double.NaN : report.topKeys().getFirst().share();
+        report.partitions().forEach(partition -> partitionRates.computeIfAbsent(
+                new TopicPartition(report.topic(), partition.partition()), this::newPartitionRate)[0]
+                = partition.produceRate());
+        LOG.info("Topic {} {}", report.topic(), String.format(Locale.ROOT,
+                "produces %.1f msg/s, busiest partition %d at %.2f times the mean (cv %.2f)", report.produceRate(),
+                report.hottestPartition(), report.maxToMeanRatio(), report.coefficientOfVariation()));
+    }
+
+    private TopicSkew newTopicSkew(String topic) {
+        TopicSkew skew = new TopicSkew();
+        Gauge.builder("kafka.admin.partition.skew", skew, s -> s.maxToMeanRatio)
+                .description("Produce rate of the busiest partition relative to the mean; 1 is balanced")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("kafka.admin.partition.skew.cv", skew, s -> s.coefficientOfVariation)
+                .description("Coefficient of variation of the partition produce rates")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("kafka.admin.partition.top.key.share", skew, s -> s.topKeyShare)
+                .description("Estimated share of the most frequent key among recently sampled records")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        return skew;
+    }
+
+    private double[] newPartitionRate(TopicPartition topicPartition) {
+        double[] rate = {Double.NaN};
+        Gauge.builder("kafka.admin.partition.produce.rate", rate, r -> r[0])
+                .description("Messages/s appended to the partition over the last skew analysis")
+                .tags("topic", topicPartition.topic(), "partition", String.valueOf(topicPartition.partition()))
+                .register(meterRegistry);
+        return rate;
+    }
+
+    private void analyzeInBackground() {
+        try {
+            analyze(kafkaConfigData.getTopicName());
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next interval tries again
+            LOG.warn("Could not analyze partition skew of topic {}: {}", kafkaConfigData.getTopicName(),
+                    e.getMessage());
+        }
+    }
+
+    private Map<String, Object> consumerConfigs() {
+        return Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers(),
+                ConsumerConfig.CLIENT_ID_CONFIG, "skew-analyzer",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(500, sampleRecords));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<byte[], String> keyRenderer() {
+        String deserializerClass = kafkaConfigData.getSkewKeyDeserializer();
+        if (deserializerClass == null || deserializerClass.isBlank()) {
+            return key -> key == null ? "null" : HexFormat.of().formatHex(key);
+        }
+        try {
+            Deserializer<Object> deserializer = Utils.newInstance(deserializerClass, Deserializer.class);
+            return key -> key == null ? "null" : String.valueOf(deserializer.deserialize(null, key));
+        } catch (ClassNotFoundException e) {
+            throw new KafkaClientException("Unknown key deserializer " + deserializerClass, e);
+        }
+    }
+
+    private static List<KeyShare> shares(SpaceSavingSketch<String> sketch, int topKeys) {
+        long offered = Math.max(1, sketch.getOffered());
+        return sketch.top(topKeys).stream()
+                .map(key -> new KeyShare(key.key(), key.count(), (double) key.count() / offered,
+                        (double) key.error() / offered))
+                .toList();
+    }
+
+    private static void sleep(long sleepTimeMs) {
+        if (sleepTimeMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepTimeMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaClientException("Interrupted while sampling topic load!", e);
+        }
+    }
+
+    private static final class TopicSkew {
+        private volatile double maxToMeanRatio = Double.NaN;
+        private volatile double coefficientOfVariation = Double.NaN;
+        private volatile double topKeyShare = Double.NaN;
+    }
+}
@@ -0,0 +1,26 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/skew/{topic}}) reporting per-partition produce rates, top keys and
+ * skew coefficients of a topic. Blocks for load-sample-window-ms.
+ */
+@Component
+@Endpoint(id = "skew")
+public class PartitionSkewEndpoint {
+
+    private final PartitionSkewAnalyzer skewAnalyzer;
+
+    public PartitionSkewEndpoint(PartitionSkewAnalyzer analyzer) {
+        this.skewAnalyzer = analyzer;
+    }
+
+    @ReadOperation
+    public SkewReport analyze(@Selector String topic) {
+        return skewAnalyzer.analyze(topic);
+    }
+}
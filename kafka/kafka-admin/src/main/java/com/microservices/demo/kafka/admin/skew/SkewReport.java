@@ -0,0 +1,21 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import java.util.List;
+
+/**
+ * Partition skew of one topic over a sample window.
+ *
+ * @param produceRate            messages/s appended to the whole topic
+ * @param maxToMeanRatio         produce rate of the busiest partition relative to the mean; 1 is balanced
+ * @param coefficientOfVariation standard deviation of the partition produce rates relative to their mean
+ * @param topKeys                most frequent keys across all sampled records
+ */
+public record SkewReport(String topic,
+                         long sampleWindowMs,
+                         double produceRate,
+                         double maxToMeanRatio,
+                         double coefficientOfVariation,
+                         int hottestPartition,
+                         List<KeyShare> topKeys,
+                         List<PartitionLoad> partitions) {
+}
@@ -0,0 +1,75 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving sketch (Metwally et al.) of the most frequent keys in a stream, in memory bounded by its
+ * capacity.
+ * <p>
+ * Once capacity keys are tracked, an unseen key takes over the counter of the least frequent one and
+ * inherits its count as error. Counts are therefore over-estimates by at most their error, and any key
+ * seen more than {@code offered / capacity} times is guaranteed to be tracked. Not thread-safe.
+ *
+ * @param <K> Key type
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, long[]> counters;
+    private long offered;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K key) {
+        offered++;
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{1, 0});
+            return;
+        }
+        // Linear scan for the minimum; capacities are small and evictions only happen for unseen keys
+        Map.Entry<K, long[]> min = null;
+        for (Map.Entry<K, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                min = entry;
+            }
+        }
+        long minCount = min.getValue()[0];
+        counters.remove(min.getKey());
+        counters.put(key, new long[]{minCount + 1, minCount});
+    }
+
+    /**
+     * @return up to n tracked keys, most frequent first
+     */
+    public List<KeyCount<K>> top(int n) {
+        return counters.entrySet().stream()
+                .map(entry -> new KeyCount<>(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .sorted(Comparator.comparingLong(KeyCount<K>::count).reversed())
+                .limit(n)
+                .toList();
+    }
+
+    public long getOffered() {
+        return offered;
+    }
+
+    /**
+     * @param count estimated occurrences, at most error more than the true count
+     */
+    public record KeyCount<K>(K key, long count, long error) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.microservices.demo.kafka.admin.client;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.RetryConfigData;
+import com.microservices.demo.kafka.admin.exception.KafkaClientException;
+import com.microservices.demo.kafka.admin.partition.PartitionSizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.CreateTopicsOptions;
+import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for startup readiness checks
+ */
+@DisplayName("Kafka Admin Client Readiness Tests")
+class KafkaAdminClientTest {
+
+    private static final String TOPIC = "social-events";
+
+    private final AdminClient adminClient = mock(AdminClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KafkaConfigData kafkaConfigData;
+    private RetryConfigData retryConfigData;
+
+    @BeforeEach
+    void setUp() {
+        kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicNamesToCreate(List.of(TOPIC));
+        kafkaConfigData.setNumOfPartitions(3);
+        kafkaConfigData.setReplicationFactor((short) 1);
+        kafkaConfigData.setSchemaRegistryUrl("http://localhost:8081");
+        kafkaConfigData.setStartupTimeoutMs(5_000L);
+        retryConfigData = new RetryConfigData();
+        retryConfigData.setInitialIntervalMs(10L);
+        retryConfigData.setMultiplier(2.0);
+        retryConfigData.setMaxIntervalMs(50L);
+    }
+
+    @Test
+    @DisplayName("Should create missing topics and check the registry in parallel until both are ready")
+    void shouldBecomeReadyOnceTopicsAndRegistryAre() {
+        // Given
+        DescribeTopicsResult missing = describeResult(failed(new UnknownTopicOrPartitionException(TOPIC)));
+        DescribeTopicsResult ready = describeResult(KafkaFuture.completedFuture(description(true)));
+        when(adminClient.describeTopics(anyCollection(), any(DescribeTopicsOptions.class)))
+                .thenReturn(missing, ready);
+        CreateTopicsResult created = mock(CreateTopicsResult.class);
+        when(created.values()).thenReturn(Map.of(TOPIC, KafkaFuture.completedFuture(null)));
+        when(adminClient.createTopics(anyCollection(), any(CreateTopicsOptions.class))).thenReturn(created);
+        KafkaAdminClient client = client(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK);
+
+        // When
+        client.awaitStartupReadiness();
+
+        // Then
+        verify(adminClient, times(1)).createTopics(anyCollection(), any(CreateTopicsOptions.class));
+        verify(adminClient, times(2)).describeTopics(anyCollection(), any(DescribeTopicsOptions.class));
+        for (String phase : List.of("topics", "schema-registry", "total")) {
+            assertEquals(1, meterRegistry.get("kafka.admin.startup")
+                    .tag("phase", phase).tag("outcome", "ready").timer().count(), phase);
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail once the startup deadline passes while a topic has no leader")
+    void shouldFailAtStartupDeadline() {
+        // Given
+        kafkaConfigData.setStartupTimeoutMs(200L);
+        DescribeTopicsResult leaderless = describeResult(KafkaFuture.completedFuture(description(false)));
+        when(adminClient.describeTopics(anyCollection(), any(DescribeTopicsOptions.class))).thenReturn(leaderless);
+        KafkaAdminClient client = client(HttpStatus.OK);
+
+        // When / Then
+        assertThrows(KafkaClientException.class, client::checkTopicsCreated);
+        verify(adminClient, never()).createTopics(anyCollection(), any(CreateTopicsOptions.class));
+        assertEquals(1, meterRegistry.get("kafka.admin.startup")
+                .tag("phase", "topics").tag("outcome", "failed").timer().count());
+    }
+
+    private KafkaAdminClient client(HttpStatus... registryStatuses) {
+        int[] calls = {0};
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(
+                        registryStatuses[Math.min(calls[0]++, registryStatuses.length - 1)]).build()))
+                .build();
+        return new KafkaAdminClient(kafkaConfigData, retryConfigData, adminClient, webClient, meterRegistry,
+                new PartitionSizer(kafkaConfigData),
+                new TopicConfigReconciler(kafkaConfigData, adminClient, meterRegistry));
+    }
+
+    private static DescribeTopicsResult describeResult(KafkaFuture<TopicDescription> description) {
+        DescribeTopicsResult result = mock(DescribeTopicsResult.class);
+        when(result.topicNameValues()).thenReturn(Map.of(TOPIC, description));
+        return result;
+    }
+
+    private static TopicDescription description(boolean withLeader) {
+        Node leader = withLeader ? new Node(1, "localhost", 19092) : null;
+        return new TopicDescription(TOPIC, false,
+                List.of(new TopicPartitionInfo(0, leader, List.of(), List.of())));
+    }
+
+    private static <T> KafkaFuture<T> failed(Throwable e) {
+        KafkaFutureImpl<T> future = new KafkaFutureImpl<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
@@ -0,0 +1,115 @@
+package com.microservices.demo.kafka.admin.client;
+
+import com.microservices.demo.config.KafkaConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.AlterConfigsResult;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.DescribeConfigsResult;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for reconciling topic configs with their spec
+ */
+@DisplayName("Topic Config Reconciler Tests")
+class TopicConfigReconcilerTest {
+
+    private static final String TOPIC = "social-events";
+    private static final ConfigResource RESOURCE = new ConfigResource(ConfigResource.Type.TOPIC, TOPIC);
+
+    private final AdminClient adminClient = mock(AdminClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KafkaConfigData kafkaConfigData;
+    private TopicConfigReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfigData.TopicSpec spec = new KafkaConfigData.TopicSpec();
+        spec.setRetentionMs(86_400_000L);
+        spec.setCompressionType("lz4");
+        spec.setMinInsyncReplicas(2);
+        kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicSpecs(Map.of(TOPIC, spec));
+        reconciler = new TopicConfigReconciler(kafkaConfigData, adminClient, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should map the spec to topic configs and skip unset settings")
+    void shouldMapSpecToTopicConfigs() {
+        // When
+        Map<String, String> configs = reconciler.desiredConfigs(TOPIC);
+
+        // Then
+        assertEquals(Map.of(TopicConfig.RETENTION_MS_CONFIG, "86400000",
+                TopicConfig.COMPRESSION_TYPE_CONFIG, "lz4",
+                TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, "2"), configs);
+        assertTrue(reconciler.desiredConfigs("other-topic").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should report drift and set only drifted configs back")
+    @SuppressWarnings("unchecked")
+    void shouldAlterDriftedConfigsOnly() {
+        // Given
+        describeConfigs(new ConfigEntry(TopicConfig.RETENTION_MS_CONFIG, "86400000"),
+                new ConfigEntry(TopicConfig.COMPRESSION_TYPE_CONFIG, "producer"),
+                new ConfigEntry(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, "1"));
+        AlterConfigsResult altered = mock(AlterConfigsResult.class);
+        when(altered.all()).thenReturn(KafkaFuture.completedFuture(null));
+        ArgumentCaptor<Map<ConfigResource, Collection<AlterConfigOp>>> operations = ArgumentCaptor.forClass(Map.class);
+        when(adminClient.incrementalAlterConfigs(operations.capture())).thenReturn(altered);
+
+        // When
+        reconciler.reconcile(List.of(TOPIC)).join();
+
+        // Then
+        assertEquals(List.of(
+                new AlterConfigOp(new ConfigEntry(TopicConfig.COMPRESSION_TYPE_CONFIG, "lz4"), AlterConfigOp.OpType.SET),
+                new AlterConfigOp(new ConfigEntry(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, "2"),
+                        AlterConfigOp.OpType.SET)),
+                List.copyOf(operations.getValue().get(RESOURCE)));
+        assertEquals(0, drift());
+    }
+
+    @Test
+    @DisplayName("Should only report drift when reconciling is disabled")
+    void shouldOnlyReportDriftWhenDisabled() {
+        // Given
+        kafkaConfigData.setReconcileTopicConfigs(false);
+        describeConfigs(new ConfigEntry(TopicConfig.RETENTION_MS_CONFIG, "604800000"));
+
+        // When
+        reconciler.reconcile(List.of(TOPIC)).join();
+
+        // Then
+        verify(adminClient, never()).incrementalAlterConfigs(any());
+        assertEquals(3, drift());
+    }
+
+    private void describeConfigs(ConfigEntry... entries) {
+        DescribeConfigsResult described = mock(DescribeConfigsResult.class);
+        when(described.all()).thenReturn(KafkaFuture.completedFuture(Map.of(RESOURCE, new Config(List.of(entries)))));
+        when(adminClient.describeConfigs(anyCollection())).thenReturn(described);
+    }
+
+    private double drift() {
+        return meterRegistry.get("kafka.admin.topic.config.drift").tag("topic", TOPIC).gauge().value();
+    }
+}
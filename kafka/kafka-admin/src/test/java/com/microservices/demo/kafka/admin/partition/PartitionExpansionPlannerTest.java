@@ -0,0 +1,97 @@
+package com.microservices.demo.kafka.admin.partition;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConfigData.TopicSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for throughput-driven partition sizing and expansion planning
+ */
+@DisplayName("Partition Expansion Planner Tests")
+class PartitionExpansionPlannerTest {
+
+    private KafkaConfigData kafkaConfigData;
+    private final Map<String, TopicSpec> topicSpecs = new HashMap<>();
+    private PartitionSizer sizer;
+    private PartitionExpansionPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setNumOfPartitions(3);
+        kafkaConfigData.setPartitionProducerThroughput(50_000L);
+        kafkaConfigData.setPartitionConsumerThroughput(5_000L);
+        kafkaConfigData.setPartitionHeadroom(1.5);
+        kafkaConfigData.setMaxPartitions(48);
+        kafkaConfigData.setTopicSpecs(topicSpecs);
+        sizer = new PartitionSizer(kafkaConfigData);
+        planner = new PartitionExpansionPlanner(sizer, 100L);
+    }
+
+    @Test
+    @DisplayName("Should size topics from their declared target throughput, bounded by max-partitions")
+    void shouldSizeFromTargetThroughput() {
+        // Given
+        topicSpecs.put("events", spec(40_000L, false, false));
+        topicSpecs.put("huge", spec(10_000_000L, false, false));
+
+        // When / Then
+        assertEquals(12, sizer.partitionsFor("events"), "40000 * 1.5 / 5000 consumer msg/s");
+        assertEquals(48, sizer.partitionsFor("huge"));
+        assertEquals(3, sizer.partitionsFor("undeclared"), "Falls back to num-of-partitions");
+        assertEquals(1, sizer.partitionsForThroughput(0));
+    }
+
+    @Test
+    @DisplayName("Should expand unkeyed topics for rate plus lag drain, at most doubling")
+    void shouldExpandUnkeyedTopics() {
+        // Given
+        topicSpecs.put("events", spec(null, false, false));
+
+        // When
+        ExpansionPlan steady = planner.plan("events", 3, 9_000, 0);
+        ExpansionPlan lagging = planner.plan("events", 3, 9_000, 300_000);
+        ExpansionPlan overloaded = planner.plan("events", 4, 100_000, 0);
+
+        // Then
+        assertFalse(steady.expand(), "9000 * 1.5 / 5000 = 3 partitions is enough");
+        assertTrue(lagging.expand());
+        assertEquals(12_000, lagging.requiredThroughput(), 0.001);
+        assertEquals(4, lagging.targetPartitions(), "12000 * 1.5 / 5000 = 4");
+        assertEquals(8, overloaded.targetPartitions(), "Wants 30, capped at doubling");
+    }
+
+    @Test
+    @DisplayName("Should only double keyed topics, and only when keyed expansion is allowed")
+    void shouldGuardKeyedTopics() {
+        // Given
+        topicSpecs.put("allowed", spec(null, true, true));
+
+        // When
+        ExpansionPlan undeclared = planner.plan("undeclared", 3, 12_000, 0);
+        ExpansionPlan allowed = planner.plan("allowed", 3, 12_000, 0);
+        ExpansionPlan atCap = planner.plan("allowed", 32, 1_000_000, 0);
+
+        // Then
+        assertFalse(undeclared.expand(), "Topics without a spec count as keyed");
+        assertEquals(3, undeclared.targetPartitions());
+        assertTrue(allowed.expand());
+        assertEquals(6, allowed.targetPartitions(), "Keyed topics grow by doubling even if 4 would do");
+        assertFalse(atCap.expand(), "Doubling 32 would exceed 48 max partitions");
+    }
+
+    private static TopicSpec spec(Long targetThroughput, boolean keyed, boolean allowKeyedExpansion) {
+        TopicSpec spec = new TopicSpec();
+        spec.setTargetThroughput(targetThroughput);
+        spec.setKeyed(keyed);
+        spec.setAllowKeyedExpansion(allowKeyedExpansion);
+        return spec;
+    }
+}
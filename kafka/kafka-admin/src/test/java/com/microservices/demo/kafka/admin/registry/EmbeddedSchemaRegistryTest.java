@@ -0,0 +1,97 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-process schema registry stand-in
+ */
+@DisplayName("Embedded Schema Registry Tests")
+class EmbeddedSchemaRegistryTest {
+
+    private static final String TEST_EVENT = "com.microservices.demo.kafka.admin.registry.TestEvent";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AvroSchemaCatalog catalog;
+    private EmbeddedSchemaRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        catalog = AvroSchemaCatalog.fromClasspath();
+        registry = new EmbeddedSchemaRegistry(catalog, Map.of("test-events", TEST_EVENT), 0);
+        registry.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Should serve classpath schemas under their topic subject from startup")
+    void shouldServeClasspathSchemas() throws Exception {
+        // When
+        HttpResponse<String> root = get("/");
+        JsonNode latest = objectMapper.readTree(get("/subjects/test-events-value/versions/latest").body());
+        JsonNode byId = objectMapper.readTree(get("/schemas/ids/" + latest.get("id").asInt()).body());
+
+        // Then
+        assertEquals(200, root.statusCode());
+        assertEquals(1, latest.get("version").asInt());
+        assertEquals(catalog.get(TEST_EVENT), new Schema.Parser().parse(byId.get("schema").asText()));
+        assertEquals("[\"test-events-value\"]", get("/subjects").body());
+    }
+
+    @Test
+    @DisplayName("Should give the same id to the same schema and new versions to changed ones")
+    void shouldRegisterAndLookUpSchemas() throws Exception {
+        // Given
+        Schema schema = catalog.get(TEST_EVENT);
+        String changed = schema.toString().replace("\"text\"", "\"body\"");
+
+        // When
+        int existingId = post("/subjects/other-topic-value/versions", schema.toString()).get("id").asInt();
+        int changedId = post("/subjects/test-events-value/versions", changed).get("id").asInt();
+        JsonNode lookup = post("/subjects/test-events-value", changed);
+
+        // Then
+        assertEquals(objectMapper.readTree(get("/subjects/test-events-value/versions/1").body()).get("id").asInt(),
+                existingId);
+        assertNotEquals(existingId, changedId);
+        assertEquals(2, lookup.get("version").asInt());
+        assertEquals(changedId, lookup.get("id").asInt());
+        assertEquals(404, get("/schemas/ids/99").statusCode());
+        assertEquals(404, get("/subjects/unknown-value/versions/latest").statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(registry.getUrl() + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode post(String path, String schema) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("schema", schema));
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(registry.getUrl() + path))
+                        .header("Content-Type", "application/vnd.schemaregistry.v1+json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.demo.kafka.admin.registry;
+
+import com.microservices.demo.config.KafkaConfigData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for registering schemas and warming the producer serializer at startup
+ */
+@DisplayName("Schema Registry Warmer Tests")
+class SchemaRegistryWarmerTest {
+
+    private static final String TEST_EVENT = "com.microservices.demo.kafka.admin.registry.TestEvent";
+    private static final String TOPIC = "test-events";
+
+    private EmbeddedSchemaRegistry registry;
+    private final KafkaConfigData kafkaConfigData = new KafkaConfigData();
+
+    @BeforeEach
+    void setUp() {
+        registry = new EmbeddedSchemaRegistry(AvroSchemaCatalog.fromClasspath(), Map.of(), 0);
+        registry.start();
+        kafkaConfigData.setSchemaRegistryUrl(registry.getUrl());
+        kafkaConfigData.setValueSchemas(Map.of(TOPIC, TEST_EVENT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Should serialize a record of each registered schema with the producer value serializer")
+    @SuppressWarnings("unchecked")
+    void shouldWarmProducerValueSerializer() {
+        // Given
+        List<String> warmed = new ArrayList<>();
+        Serializer<Object> valueSerializer = (topic, data) -> {
+            warmed.add(topic + ":" + ((GenericRecord) data).getSchema().getFullName());
+            return new byte[0];
+        };
+        ObjectProvider<Serializer<Object>> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(valueSerializer);
+        SchemaRegistryWarmer warmer = new SchemaRegistryWarmer(kafkaConfigData, WebClient.create(), provider);
+
+        // When
+        warmer.preRegister();
+
+        // Then
+        assertEquals(List.of(TOPIC + ":" + TEST_EVENT), warmed);
+    }
+
+    @Test
+    @DisplayName("Should still register schemas when the serializer cannot serialize the sample record")
+    @SuppressWarnings("unchecked")
+    void shouldRegisterWhenSampleFails() {
+        // Given
+        ObjectProvider<Serializer<Object>> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn((topic, data) -> {
+            throw new IllegalStateException("registry unreachable");
+        });
+        SchemaRegistryWarmer warmer = new SchemaRegistryWarmer(kafkaConfigData, WebClient.create(), provider);
+
+        // When / Then
+        assertDoesNotThrow(warmer::preRegister);
+    }
+}
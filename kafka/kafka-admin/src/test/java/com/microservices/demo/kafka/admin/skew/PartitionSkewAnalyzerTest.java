@@ -0,0 +1,61 @@
+package com.microservices.demo.kafka.admin.skew;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the top-key sketch and the skew coefficients
+ */
+@DisplayName("Partition Skew Analyzer Tests")
+class PartitionSkewAnalyzerTest {
+
+    @Test
+    @DisplayName("Should keep heavy keys in the sketch while many rare keys pass through")
+    void shouldTrackHeavyHitters() {
+        // Given
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer(i % 4 == 0 ? "hot" : i % 10 == 1 ? "warm" : "rare-" + i);
+        }
+
+        // Then
+        List<SpaceSavingSketch.KeyCount<String>> top = sketch.top(2);
+        assertEquals(List.of("hot", "warm"), top.stream().map(SpaceSavingSketch.KeyCount::key).toList());
+        assertTrue(top.get(0).count() - top.get(0).error() <= 2_500 && top.get(0).count() >= 2_500);
+        assertEquals(10_000, sketch.getOffered());
+    }
+
+    @Test
+    @DisplayName("Should report the hottest partition and skew coefficients of the produce rates")
+    void shouldSummarizeSkew() {
+        // Given
+        Map<Integer, Double> rates = Map.of(0, 100.0, 1, 100.0, 2, 400.0);
+        SpaceSavingSketch<String> partitionSketch = new SpaceSavingSketch<>(10);
+        SpaceSavingSketch<String> topicSketch = new SpaceSavingSketch<>(10);
+        for (String key : List.of("42", "42", "42", "7")) {
+            partitionSketch.offer(key);
+            topicSketch.offer(key);
+        }
+
+        // When
+        SkewReport report = PartitionSkewAnalyzer.summarize("social-events", 10_000, rates,
+                Map.of(2, partitionSketch), topicSketch, 1);
+
+        // Then
+        assertEquals(600.0, report.produceRate(), 1e-9);
+        assertEquals(2, report.hottestPartition());
+        assertEquals(2.0, report.maxToMeanRatio(), 1e-9);
+        assertEquals(Math.sqrt(20_000) / 200, report.coefficientOfVariation(), 1e-9);
+        assertEquals(new KeyShare("42", 3, 0.75, 0), report.topKeys().getFirst());
+        assertEquals(List.of(0, 1, 2), report.partitions().stream().map(PartitionLoad::partition).toList());
+        assertEquals(4, report.partitions().get(2).sampledRecords());
+        assertTrue(report.partitions().get(0).topKeys().isEmpty());
+    }
+}
@@ -0,0 +1,321 @@
+package com.microservices.demo.kafka.consumer.commit;
+
+import com.microservices.demo.common.logging.SampledLogger;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Commits offsets of records processed asynchronously and out of order, without losing at-least-once
+ * delivery.
+ * <p>
+ * Every polled record is tracked by the {@link #interceptor()} before the listener sees it, and
+ * marked by the listener through {@link #complete} once processed, from any thread, which also notifies the
+ * {@link RecordCompletionListener}s. Per partition only the
+ * offset below the lowest incomplete record is committable, so a slow record holds back later completed
+ * ones. Every commit-interval-ms the consumer thread commits what became committable with
+ * {@code commitAsync}: on the next poll, or from the container's idle event when nothing arrives.
+ * <p>
+ * A record whose processing failed is reported through {@link #fail}: on the consumer thread its partition
+ * is then rewound to that offset with {@code seek}, its tracked offsets from there on are forgotten and
+ * records of it still in the current poll are withheld from the listener, so everything from the failed
+ * record on is delivered again.
+ * <p>
+ * Once more than max-uncommitted-records tracked records, across the service's consumers, wait for their
+ * commit, a consumer pauses its partitions instead of blocking its thread, so it keeps polling and
+ * rebalancing; they are resumed from the idle event once completions brought the count back under the
+ * bound. The bound is exceeded by at most one poll per consumer. Revoked partitions are committed
+ * synchronously; their incomplete records are redelivered to the new owner.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-consumer-config.async-commit-enabled", havingValue = "true")
+public class OffsetCommitCoordinator implements ConsumerAwareRebalanceListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffsetCommitCoordinator.class);
+    private static final SampledLogger PAUSE_LOG = SampledLogger.rateLimited(LOG, 1);
+
+    private static final long DEFAULT_COMMIT_INTERVAL_MS = 1_000;
+    private static final int DEFAULT_MAX_UNCOMMITTED_RECORDS = 10_000;
+
+    private final long commitIntervalNanos;
+    private final int maxUncommittedRecords;
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> lastCommitNanos = ThreadLocal.withInitial(() -> new long[]{System.nanoTime()});
+    private final Map<TopicPartition, Long> rewinds = new ConcurrentHashMap<>();
+    private final Set<TopicPartition> pausedForCapacity = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger uncommitted = new AtomicInteger();
+    private final List<RecordCompletionListener> completionListeners = new CopyOnWriteArrayList<>();
+    private final Counter commitsSucceeded;
+    private final Counter commitsFailed;
+    private final Counter rewindCounter;
+
+    public OffsetCommitCoordinator(KafkaConsumerConfigData consumerConfigData, MeterRegistry meterRegistry) {
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(consumerConfigData.getCommitIntervalMs() != null
+                ? consumerConfigData.getCommitIntervalMs() : DEFAULT_COMMIT_INTERVAL_MS);
+        this.maxUncommittedRecords = consumerConfigData.getMaxUncommittedRecords() != null
+                ? consumerConfigData.getMaxUncommittedRecords() : DEFAULT_MAX_UNCOMMITTED_RECORDS;
+        Gauge.builder("kafka.consumer.commit.uncommitted", uncommitted, AtomicInteger::get)
+                .description("Tracked records whose offsets are not committed yet")
+                .register(meterRegistry);
+        this.commitsSucceeded = Counter.builder("kafka.consumer.commit.async")
+                .description("Asynchronous offset commits")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.commitsFailed = Counter.builder("kafka.consumer.commit.async")
+                .description("Asynchronous offset commits")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.rewindCounter = Counter.builder("kafka.consumer.commit.rewinds")
+                .description("Records that failed processing and had their partition rewound for redelivery")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return container interceptor applying pending rewinds and tracking the polled records
+     */
+    public <K, V> BatchInterceptor<K, V> interceptor() {
+        return this::track;
+    }
+
+    /**
+     * Registers a listener notified of every completed record, e.g. for latencies that should include the
+     * asynchronous processing.
+     */
+    public void addCompletionListener(RecordCompletionListener listener) {
+        completionListeners.add(listener);
+    }
+
+    /**
+     * Marks a tracked record as processed; callable from any thread.
+     */
+    public void complete(TopicPartition partition, long offset) {
+        PartitionOffsets offsets = partitions.get(partition);
+        // Completions of revoked or rewound offsets are dropped; the records are processed again
+        PartitionOffsets.Polled polled = offsets != null ? offsets.complete(offset) : null;
+        if (polled != null) {
+            for (RecordCompletionListener listener : completionListeners) {
+                listener.completed(polled.record(), polled.polledAtNanos());
+            }
+        }
+    }
+
+    /**
+     * Marks a tracked record as failed, or never processed because an earlier one of its key failed; its
+     * partition is rewound to the lowest such offset on the consumer thread. Callable from any thread.
+     */
+    public void fail(TopicPartition partition, long offset) {
+        if (partitions.containsKey(partition)) {
+            rewinds.merge(partition, offset, Math::min);
+            rewindCounter.increment();
+        }
+    }
+
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        // Published on the consumer thread, so its consumer may commit, seek and resume
+        if (event.getConsumer() != null) {
+            onIdle(event.getConsumer());
+        }
+    }
+
+    void onIdle(Consumer<?, ?> consumer) {
+        rewind(consumer);
+        commitIfDue(consumer);
+        resumeIfCapacity(consumer);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : revoked) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            if (offsets != null) {
+                collect(partition, offsets, commits);
+                uncommitted.addAndGet(-offsets.pending());
+            }
+            forget(partition);
+        }
+        if (!commits.isEmpty()) {
+            try {
+                consumer.commitSync(commits);
+                commitsSucceeded.increment();
+            } catch (RuntimeException e) {
+                commitsFailed.increment();
+                LOG.warn("Could not commit offsets of revoked partitions {}: {}", revoked, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        for (TopicPartition partition : lost) {
+            PartitionOffsets offsets = partitions.remove(partition);
+            if (offsets != null) {
+                uncommitted.addAndGet(-offsets.pending());
+            }
+            forget(partition);
+        }
+    }
+
+    public int getUncommittedRecords() {
+        return uncommitted.get();
+    }
+
+    private <K, V> ConsumerRecords<K, V> track(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        Set<TopicPartition> rewound = rewind(consumer);
+        ConsumerRecords<K, V> delivered = rewound.isEmpty() ? records : without(records, rewound);
+        long polledAtNanos = System.nanoTime();
+        for (ConsumerRecord<K, V> record : delivered) {
+            if (partitionOffsets(new TopicPartition(record.topic(), record.partition())).track(record, polledAtNanos)) {
+                uncommitted.incrementAndGet();
+            }
+        }
+        commitIfDue(consumer);
+        resumeIfCapacity(consumer);
+        pauseIfOverCapacity(consumer);
+        return delivered;
+    }
+
+    /**
+     * Seeks partitions of this consumer with failed records back to the lowest failed offset.
+     *
+     * @return the rewound partitions
+     */
+    private Set<TopicPartition> rewind(Consumer<?, ?> consumer) {
+        if (rewinds.isEmpty()) {
+            return Set.of();
+        }
+        Set<TopicPartition> rewound = new HashSet<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            Long offset = rewinds.remove(partition);
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offset == null || offsets == null) {
+                continue;
+            }
+            uncommitted.addAndGet(-offsets.untrackFrom(offset));
+            consumer.seek(partition, offset);
+            rewound.add(partition);
+            LOG.warn("Processing failed at {}@{}, redelivering the partition from there", partition, offset);
+        }
+        return rewound;
+    }
+
+    private void pauseIfOverCapacity(Consumer<?, ?> consumer) {
+        if (uncommitted.get() <= maxUncommittedRecords) {
+            return;
+        }
+        // Completed records stop counting once drained for commit
+        commit(consumer);
+        if (uncommitted.get() <= maxUncommittedRecords) {
+            return;
+        }
+        Set<TopicPartition> toPause = new HashSet<>(consumer.assignment());
+        toPause.removeAll(consumer.paused());
+        if (!toPause.isEmpty()) {
+            consumer.pause(toPause);
+            pausedForCapacity.addAll(toPause);
+            PAUSE_LOG.warn("Pausing {} while more than {} records are uncommitted", toPause,
+                    maxUncommittedRecords);
+        }
+    }
+
+    private void resumeIfCapacity(Consumer<?, ?> consumer) {
+        Set<TopicPartition> toResume = new HashSet<>(consumer.assignment());
+        toResume.retainAll(pausedForCapacity);
+        if (toResume.isEmpty()) {
+            return;
+        }
+        commit(consumer);
+        if (uncommitted.get() <= maxUncommittedRecords) {
+            consumer.resume(toResume);
+            pausedForCapacity.removeAll(toResume);
+            LOG.info("Resuming {} partitions with {} records uncommitted", toResume.size(), uncommitted.get());
+        }
+    }
+
+    private void forget(TopicPartition partition) {
+        rewinds.remove(partition);
+        pausedForCapacity.remove(partition);
+    }
+
+    private static <K, V> ConsumerRecords<K, V> without(ConsumerRecords<K, V> records,
+                                                        Set<TopicPartition> excluded) {
+        Map<TopicPartition, List<ConsumerRecord<K, V>>> kept = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+            if (!excluded.contains(partition)) {
+                kept.put(partition, records.records(partition));
+            }
+        }
+        return new ConsumerRecords<>(kept);
+    }
+
+    private void commitIfDue(Consumer<?, ?> consumer) {
+        long now = System.nanoTime();
+        long[] lastCommit = lastCommitNanos.get();
+        if (now - lastCommit[0] < commitIntervalNanos) {
+            return;
+        }
+        lastCommit[0] = now;
+        commit(consumer);
+    }
+
+    private void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            PartitionOffsets offsets = partitions.get(partition);
+            if (offsets != null) {
+                collect(partition, offsets, commits);
+            }
+        }
+        if (commits.isEmpty()) {
+            return;
+        }
+        consumer.commitAsync(commits, (committed, e) -> {
+            if (e == null) {
+                commitsSucceeded.increment();
+            } else {
+                // A later commit covers these offsets; only a revoke or crash before it redelivers them
+                commitsFailed.increment();
+                LOG.warn("Asynchronous offset commit failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void collect(TopicPartition partition, PartitionOffsets offsets,
+                         Map<TopicPartition, OffsetAndMetadata> commits) {
+        int drained = offsets.drain();
+        if (drained > 0) {
+            uncommitted.addAndGet(-drained);
+            commits.put(partition, new OffsetAndMetadata(offsets.committable()));
+        }
+    }
+
+    private PartitionOffsets partitionOffsets(TopicPartition partition) {
+        return partitions.computeIfAbsent(partition, ignored -> new PartitionOffsets());
+    }
+}
@@ -0,0 +1,80 @@
+package com.microservices.demo.kafka.consumer.commit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Tracked offsets of one partition and whether their records completed.
+ * <p>
+ * Offsets are tracked as polled rather than assumed contiguous, since compaction and transaction markers
+ * leave gaps. Records complete from any thread; {@link #drain} runs on the consumer thread and drops the
+ * completed offsets below the lowest incomplete one, advancing the committable offset past them. An
+ * incomplete offset keeps its record until it completes, for the {@link RecordCompletionListener}s.
+ */
+class PartitionOffsets {
+
+    private static final Polled COMPLETED = new Polled(null, 0);
+
+    private final ConcurrentSkipListMap<Long, Polled> tracked = new ConcurrentSkipListMap<>();
+    private long committable = -1;
+
+    /**
+     * @return false if the offset was already tracked, e.g. when a batch is redelivered after an error
+     */
+    boolean track(ConsumerRecord<?, ?> record, long polledAtNanos) {
+        return tracked.putIfAbsent(record.offset(), new Polled(record, polledAtNanos)) == null;
+    }
+
+    /**
+     * @return the completed record as polled, or null if the offset was not tracked or already completed
+     */
+    Polled complete(long offset) {
+        Polled polled = tracked.get(offset);
+        return polled != null && polled != COMPLETED && tracked.replace(offset, polled, COMPLETED) ? polled : null;
+    }
+
+    /**
+     * Forgets the offsets from the given one on, which are delivered again after a rewind.
+     *
+     * @return the number of offsets forgotten
+     */
+    int untrackFrom(long offset) {
+        Map<Long, Polled> forgotten = tracked.tailMap(offset, true);
+        int count = forgotten.size();
+        forgotten.clear();
+        return count;
+    }
+
+    /**
+     * @return the number of offsets drained; {@link #committable()} moved past them
+     */
+    int drain() {
+        int drained = 0;
+        Map.Entry<Long, Polled> first;
+        while ((first = tracked.firstEntry()) != null && first.getValue() == COMPLETED) {
+            tracked.remove(first.getKey());
+            committable = first.getKey() + 1;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return the offset to commit: the one after the last drained record, or -1 before any was drained
+     */
+    long committable() {
+        return committable;
+    }
+
+    /**
+     * @return tracked offsets not drained yet, complete or not
+     */
+    int pending() {
+        return tracked.size();
+    }
+
+    record Polled(ConsumerRecord<?, ?> record, long polledAtNanos) {
+    }
+}
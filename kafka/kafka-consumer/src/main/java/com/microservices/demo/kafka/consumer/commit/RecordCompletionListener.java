@@ -0,0 +1,16 @@
+package com.microservices.demo.kafka.consumer.commit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Notified by the {@link OffsetCommitCoordinator} when a tracked record completes, on the thread that
+ * processed it, so per-record measurements cover the asynchronous processing rather than the hand-off.
+ */
+@FunctionalInterface
+public interface RecordCompletionListener {
+
+    /**
+     * @param polledAtNanos {@link System#nanoTime()} when the poll handed the record over
+     */
+    void completed(ConsumerRecord<?, ?> record, long polledAtNanos);
+}
@@ -1,9 +1,15 @@
 package com.microservices.demo.kafka.consumer.config;
 
+import com.microservices.demo.common.latency.EndToEndLatencyRecorder;
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.consumer.commit.OffsetCommitCoordinator;
+import com.microservices.demo.kafka.consumer.lag.RecordAgeInterceptor;
+import com.microservices.demo.kafka.consumer.latency.EndToEndLatencyInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +18,9 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.CompositeBatchInterceptor;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 
 import java.io.Serializable;
@@ -24,6 +33,9 @@ public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecor
 
     private final KafkaConfigData kafkaConfigData;
     private final KafkaConsumerConfigData kafkaConsumerConfigData;
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final ObjectProvider<OffsetCommitCoordinator> commitCoordinator;
+    private final MeterRegistry meterRegistry;
 
     @Value("${schema-registry.auth.username:}")
     private String schemaRegistryUsername;
@@ -31,9 +43,15 @@ public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecor
     @Value("${schema-registry.auth.password:}")
     private String schemaRegistryPassword;
 
-    public KafkaConsumerConfig(KafkaConfigData configData, KafkaConsumerConfigData consumerConfigData) {
+    public KafkaConsumerConfig(KafkaConfigData configData, KafkaConsumerConfigData consumerConfigData,
+                               EndToEndLatencyRecorder recorder,
+                               ObjectProvider<OffsetCommitCoordinator> coordinator,
+                               MeterRegistry registry) {
         this.kafkaConfigData = configData;
         this.kafkaConsumerConfigData = consumerConfigData;
+        this.latencyRecorder = recorder;
+        this.commitCoordinator = coordinator;
+        this.meterRegistry = registry;
     }
 
     @Bean
@@ -76,6 +94,28 @@ public class KafkaConsumerConfig<K extends Serializable, V extends SpecificRecor
         factory.setConcurrency(kafkaConsumerConfigData.getConcurrencyLevel());
         factory.setAutoStartup(kafkaConsumerConfigData.getAutoStartup());
         factory.getContainerProperties().setPollTimeout(kafkaConsumerConfigData.getPollTimeoutMs());
+
+        // End-to-end latency and record age per consumer group, recorded once records are processed
+        EndToEndLatencyInterceptor<K, V> latencyInterceptor =
+                new EndToEndLatencyInterceptor<>(latencyRecorder, kafkaConsumerConfigData.getConsumerGroupId());
+        RecordAgeInterceptor<K, V> ageInterceptor =
+                new RecordAgeInterceptor<>(meterRegistry, kafkaConsumerConfigData.getConsumerGroupId());
+        OffsetCommitCoordinator coordinator = commitCoordinator.getIfAvailable();
+        if (coordinator != null && Boolean.TRUE.equals(kafkaConsumerConfigData.getBatchListener())) {
+            // Offsets are committed by the coordinator as records complete, never by the container
+            ContainerProperties containerProperties = factory.getContainerProperties();
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            containerProperties.setConsumerRebalanceListener(coordinator);
+            containerProperties.setIdleEventInterval(kafkaConsumerConfigData.getCommitIntervalMs());
+            factory.setBatchInterceptor(coordinator.interceptor());
+            // The listener only hands records over, so they are measured as the coordinator sees them complete
+            coordinator.addCompletionListener(latencyInterceptor);
+            coordinator.addCompletionListener(ageInterceptor);
+        } else if (Boolean.TRUE.equals(kafkaConsumerConfigData.getBatchListener())) {
+            factory.setBatchInterceptor(new CompositeBatchInterceptor<>(latencyInterceptor, ageInterceptor));
+        } else {
+            factory.setRecordInterceptor(new CompositeRecordInterceptor<>(latencyInterceptor, ageInterceptor));
+        }
         return factory;
     }
 }
@@ -0,0 +1,18 @@
+package com.microservices.demo.kafka.consumer.exception;
+
+/**
+ * Exception class for records of a batch that failed processing, so the batch is not committed.
+ */
+public class BatchProcessingException extends RuntimeException {
+
+    public BatchProcessingException() {
+    }
+
+    public BatchProcessingException(String message) {
+        super(message);
+    }
+
+    public BatchProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
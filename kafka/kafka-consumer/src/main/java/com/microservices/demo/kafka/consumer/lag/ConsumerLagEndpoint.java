@@ -0,0 +1,25 @@
+package com.microservices.demo.kafka.consumer.lag;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/lag}) exposing the consumer group's latest lag sample, including the
+ * catch-up estimate, for autoscalers that poll HTTP rather than scrape metrics.
+ */
+@Component
+@Endpoint(id = "lag")
+public class ConsumerLagEndpoint {
+
+    private final ConsumerLagMonitor lagMonitor;
+
+    public ConsumerLagEndpoint(ConsumerLagMonitor monitor) {
+        this.lagMonitor = monitor;
+    }
+
+    @ReadOperation
+    public LagSnapshot lag() {
+        return lagMonitor.snapshot();
+    }
+}
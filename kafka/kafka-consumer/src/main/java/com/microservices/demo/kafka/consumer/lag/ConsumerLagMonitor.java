@@ -0,0 +1,193 @@
+package com.microservices.demo.kafka.consumer.lag;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaFutures;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Samples how far the service's consumer group is behind on kafka-config.topic-name, every
+ * lag-sample-interval-ms, through the admin API: log-end offsets against the group's committed offsets.
+ * <p>
+ * Lag is exported per partition as {@code kafka.consumer.lag} and in total as
+ * {@code kafka.consumer.lag.total}. Produce and consume rates are the growth of end and committed offsets
+ * between samples, smoothed exponentially, and give {@code kafka.consumer.lag.catch.up.seconds}: the lag
+ * divided by how much faster the group consumes than the topic grows, for autoscalers to act on. Partitions
+ * the group never committed count from their earliest offset. A lag-sample-interval-ms of 0 disables sampling.
+ */
+@Component
+public class ConsumerLagMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+
+    private static final long DEFAULT_SAMPLE_INTERVAL_MS = 10_000;
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final AdminClient adminClient;
+    private final String consumerGroupId;
+    private final String topic;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, AtomicLong> partitionLags = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile LagSnapshot lastSnapshot;
+    private long lastSampleNanos;
+    private long lastEndTotal = -1;
+    private long lastCommittedTotal = -1;
+    private double produceRate = Double.NaN;
+    private double consumeRate = Double.NaN;
+
+    public ConsumerLagMonitor(AdminClient client,
+                              KafkaConfigData kafkaConfigData,
+                              KafkaConsumerConfigData consumerConfigData,
+                              MeterRegistry registry) {
+        this.adminClient = client;
+        this.consumerGroupId = consumerConfigData.getConsumerGroupId();
+        this.topic = kafkaConfigData.getTopicName();
+        this.meterRegistry = registry;
+        Gauge.builder("kafka.consumer.lag.total", this, monitor -> monitor.snapshotValue(LagSnapshot::totalLag))
+                .description("Messages the consumer group has not committed yet")
+                .tags("topic", topic, "group", consumerGroupId)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.lag.catch.up.seconds", this,
+                        monitor -> monitor.snapshotValue(LagSnapshot::catchUpSeconds))
+                .description("Estimated time to consume the lag at the current produce and consume rates")
+                .baseUnit("seconds")
+                .tags("topic", topic, "group", consumerGroupId)
+                .register(meterRegistry);
+        long intervalMs = consumerConfigData.getLagSampleIntervalMs() != null
+                ? consumerConfigData.getLagSampleIntervalMs() : DEFAULT_SAMPLE_INTERVAL_MS;
+        if (intervalMs > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("kafka-lag-monitor").daemon(true).factory());
+            scheduler.scheduleWithFixedDelay(this::sampleInBackground, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * @return the latest sample, taking one if there is none yet
+     */
+    public LagSnapshot snapshot() {
+        LagSnapshot snapshot = lastSnapshot;
+        return snapshot != null ? snapshot : sample();
+    }
+
+    public synchronized LagSnapshot sample() {
+        List<TopicPartition> partitions = KafkaFutures.get(adminClient.describeTopics(List.of(topic)).topicNameValues()
+                .get(topic)).partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+        Map<TopicPartition, Long> endOffsets = KafkaFutures.listOffsets(adminClient, partitions, OffsetSpec.latest());
+        Map<TopicPartition, Long> earliestOffsets = KafkaFutures.listOffsets(adminClient, partitions,
+                OffsetSpec.earliest());
+        Map<TopicPartition, OffsetAndMetadata> committed = KafkaFutures.get(adminClient
+                .listConsumerGroupOffsets(consumerGroupId).partitionsToOffsetAndMetadata());
+        Map<Integer, Long> ends = new TreeMap<>();
+        Map<Integer, Long> positions = new TreeMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            ends.put(partition.partition(), endOffsets.get(partition));
+            positions.put(partition.partition(), offset != null ? offset.offset() : earliestOffsets.get(partition));
+        }
+        LagSnapshot snapshot = update(System.nanoTime(), System.currentTimeMillis(), ends, positions);
+        snapshot.partitionLag().forEach((partition, lag) -> partitionLags
+                .computeIfAbsent(partition, this::newPartitionLag).set(lag));
+        lastSnapshot = snapshot;
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes lag, smoothed rates and the catch-up estimate from one sample of end and committed offsets.
+     */
+    synchronized LagSnapshot update(long nowNanos, long nowMs, Map<Integer, Long> endOffsets,
+                                    Map<Integer, Long> committedOffsets) {
+        Map<Integer, Long> partitionLag = new TreeMap<>();
+        long totalLag = 0;
+        long endTotal = 0;
+        long committedTotal = 0;
+        for (Map.Entry<Integer, Long> end : endOffsets.entrySet()) {
+            long position = committedOffsets.getOrDefault(end.getKey(), 0L);
+            long lag = Math.max(0, end.getValue() - position);
+            partitionLag.put(end.getKey(), lag);
+            totalLag += lag;
+            endTotal += end.getValue();
+            committedTotal += position;
+        }
+        if (lastEndTotal >= 0 && nowNanos > lastSampleNanos) {
+            double seconds = (nowNanos - lastSampleNanos) / 1e9;
+            produceRate = smooth(produceRate, Math.max(0, endTotal - lastEndTotal) / seconds);
+            consumeRate = smooth(consumeRate, Math.max(0, committedTotal - lastCommittedTotal) / seconds);
+        }
+        lastSampleNanos = nowNanos;
+        lastEndTotal = endTotal;
+        lastCommittedTotal = committedTotal;
+        return new LagSnapshot(consumerGroupId, topic, nowMs, totalLag, partitionLag, produceRate, consumeRate,
+                catchUpSeconds(totalLag));
+    }
+
+    private double catchUpSeconds(long totalLag) {
+        if (totalLag == 0) {
+            return 0;
+        }
+        if (Double.isNaN(consumeRate)) {
+            return Double.NaN;
+        }
+        double drainRate = consumeRate - produceRate;
+        return drainRate > 0 ? totalLag / drainRate : Double.POSITIVE_INFINITY;
+    }
+
+    private AtomicLong newPartitionLag(int partition) {
+        AtomicLong lag = new AtomicLong();
+        Gauge.builder("kafka.consumer.lag", lag, AtomicLong::get)
+                .description("Log-end offset minus the consumer group's committed offset")
+                .tags("topic", topic, "partition", String.valueOf(partition), "group", consumerGroupId)
+                .register(meterRegistry);
+        return lag;
+    }
+
+    private double snapshotValue(ToDoubleFunction<LagSnapshot> value) {
+        LagSnapshot snapshot = lastSnapshot;
+        return snapshot == null ? Double.NaN : value.applyAsDouble(snapshot);
+    }
+
+    private void sampleInBackground() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next interval tries again
+            LOG.warn("Could not sample lag of group {} on topic {}: {}", consumerGroupId, topic, e.getMessage());
+        }
+    }
+
+    private static double smooth(double previous, double current) {
+        return Double.isNaN(previous) ? current : previous + RATE_SMOOTHING * (current - previous);
+    }
+}
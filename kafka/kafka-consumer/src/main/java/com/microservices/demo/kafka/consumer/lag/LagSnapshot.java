@@ -0,0 +1,22 @@
+package com.microservices.demo.kafka.consumer.lag;
+
+import java.util.Map;
+
+/**
+ * Lag of a consumer group on one topic at one sample.
+ *
+ * @param partitionLag     log-end offset minus committed offset, per partition
+ * @param produceRate      smoothed messages/s appended to the topic
+ * @param consumeRate      smoothed messages/s committed by the group
+ * @param catchUpSeconds   estimated time to consume the lag at the current rates; 0 without lag and
+ *                         infinite while the group does not consume faster than the topic grows
+ */
+public record LagSnapshot(String consumerGroupId,
+                          String topic,
+                          long sampledAtMs,
+                          long totalLag,
+                          Map<Integer, Long> partitionLag,
+                          double produceRate,
+                          double consumeRate,
+                          double catchUpSeconds) {
+}
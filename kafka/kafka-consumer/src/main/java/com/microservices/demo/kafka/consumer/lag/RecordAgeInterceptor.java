@@ -0,0 +1,94 @@
+package com.microservices.demo.kafka.consumer.lag;
+
+import com.microservices.demo.kafka.consumer.commit.OffsetCommitCoordinator;
+import com.microservices.demo.kafka.consumer.commit.RecordCompletionListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, once a record was processed, how old it is by its timestamp ({@code kafka.consumer.record.age})
+ * and how long it waited since it was handed over by the poll ({@code kafka.consumer.poll.to.process}).
+ * Record age includes time spent waiting in the lag, so it grows with it even when processing itself is fast.
+ * <p>
+ * As a container interceptor it records once the listener returns, which is only when processing is
+ * synchronous; with the {@link OffsetCommitCoordinator} it is registered as a completion listener instead,
+ * recording as each record completes.
+ */
+public class RecordAgeInterceptor<K, V> implements BatchInterceptor<K, V>, RecordInterceptor<K, V>,
+        RecordCompletionListener {
+
+    private final Timer recordAge;
+    private final Timer pollToProcess;
+    private final ThreadLocal<Long> polledAtNanos = new ThreadLocal<>();
+
+    public RecordAgeInterceptor(MeterRegistry registry, String consumerGroupId) {
+        this.recordAge = Timer.builder("kafka.consumer.record.age")
+                .description("Time from the record timestamp until the record was processed")
+                .tag("group", consumerGroupId)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.pollToProcess = Timer.builder("kafka.consumer.poll.to.process")
+                .description("Time from the poll returning a record until it was processed")
+                .tag("group", consumerGroupId)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        polledAtNanos.set(System.nanoTime());
+        return records;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        polledAtNanos.set(System.nanoTime());
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        long nowMs = System.currentTimeMillis();
+        for (ConsumerRecord<K, V> record : records) {
+            recordAge(record, nowMs);
+        }
+        recordPollToProcess(records.count());
+    }
+
+    @Override
+    public void success(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        recordAge(record, System.currentTimeMillis());
+        recordPollToProcess(1);
+    }
+
+    @Override
+    public void completed(ConsumerRecord<?, ?> record, long polledAtNanos) {
+        recordAge(record, System.currentTimeMillis());
+        pollToProcess.record(System.nanoTime() - polledAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordAge(ConsumerRecord<?, ?> record, long nowMs) {
+        if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE && record.timestamp() >= 0) {
+            recordAge.record(Math.max(0, nowMs - record.timestamp()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void recordPollToProcess(int count) {
+        Long polledAt = polledAtNanos.get();
+        if (polledAt != null) {
+            long elapsed = System.nanoTime() - polledAt;
+            for (int i = 0; i < count; i++) {
+                pollToProcess.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+            polledAtNanos.remove();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.microservices.demo.kafka.consumer.latency;
+
+import com.microservices.demo.common.latency.EndToEndLatencyRecorder;
+import com.microservices.demo.common.latency.OriginTimestamp;
+import com.microservices.demo.kafka.consumer.commit.OffsetCommitCoordinator;
+import com.microservices.demo.kafka.consumer.commit.RecordCompletionListener;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Container interceptor recording end-to-end latency once the listener has successfully processed
+ * a record or batch, so the measurement covers the listener's own work (e.g. indexing). Listeners that
+ * process asynchronously return before that; there it records as a completion listener of the
+ * {@link OffsetCommitCoordinator} instead. Records without an origin timestamp header are ignored.
+ */
+public class EndToEndLatencyInterceptor<K, V> implements BatchInterceptor<K, V>, RecordInterceptor<K, V>,
+        RecordCompletionListener {
+
+    private final EndToEndLatencyRecorder latencyRecorder;
+    private final String stage;
+
+    public EndToEndLatencyInterceptor(EndToEndLatencyRecorder recorder, String stage) {
+        this.latencyRecorder = recorder;
+        this.stage = stage;
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        return records;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        return record;
+    }
+
+    @Override
+    public void success(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        for (ConsumerRecord<K, V> record : records) {
+            recordLatency(record);
+        }
+    }
+
+    @Override
+    public void success(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        recordLatency(record);
+    }
+
+    @Override
+    public void completed(ConsumerRecord<?, ?> record, long polledAtNanos) {
+        recordLatency(record);
+    }
+
+    private void recordLatency(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(OriginTimestamp.HEADER);
+        if (header != null) {
+            long originMicros = OriginTimestamp.decode(header.value());
+            if (originMicros > 0) {
+                latencyRecorder.record(stage, originMicros);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.microservices.demo.kafka.consumer.parallel;
+
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.consumer.exception.BatchProcessingException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes the records of a polled batch in parallel while keeping their order per key, so that
+ * processing throughput is no longer capped by one listener thread per partition.
+ * <p>
+ * A batch is split into one lane per key, in poll order; lanes run concurrently and the records of a lane
+ * one after another. With processing-virtual-threads each lane gets a virtual thread and at most
+ * processing-concurrency lanes run at once; otherwise lanes share a pool of processing-concurrency
+ * platform threads. A processing-concurrency of 1 (the default) runs the batch on the listener thread.
+ * <p>
+ * {@link #execute} returns once every lane is done, so the container only commits the batch after all of
+ * it was processed; {@link #submit} returns right away, for offsets committed as records complete, and
+ * starts a key's lane after that key's lanes of earlier batches. A record whose task throws skips the rest
+ * of its lane, keeping the key's order, and fails the batch with a {@link BatchProcessingException} once
+ * the other lanes are done; lanes of that key queued behind it by later batches are skipped and fail
+ * their batches as well, so no record overtakes the failed one.
+ * <p>
+ * Per batch, the lanes run at once, the records per lane and the wall time are recorded as
+ * {@code kafka.consumer.batch.parallelism}, {@code kafka.consumer.batch.key.queue.depth} and
+ * {@code kafka.consumer.batch.time}.
+ */
+@Component
+public class ParallelBatchExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelBatchExecutor.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+    private static final Object NULL_KEY = new Object();
+
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final DistributionSummary parallelism;
+    private final DistributionSummary keyQueueDepth;
+    private final Timer batchTimer;
+    private final Map<Object, CompletableFuture<Void>> laneTails = new ConcurrentHashMap<>();
+
+    public ParallelBatchExecutor(KafkaConsumerConfigData consumerConfigData, MeterRegistry meterRegistry) {
+        this.concurrency = consumerConfigData.getProcessingConcurrency() == null
+                ? 1 : Math.max(1, consumerConfigData.getProcessingConcurrency());
+        boolean virtualThreads = Boolean.TRUE.equals(consumerConfigData.getProcessingVirtualThreads());
+        if (concurrency == 1) {
+            this.executor = null;
+            this.permits = null;
+        } else if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kafka-batch-", 0).factory());
+            this.permits = new Semaphore(concurrency);
+        } else {
+            this.executor = Executors.newFixedThreadPool(concurrency,
+                    Thread.ofPlatform().name("kafka-batch-", 0).daemon(true).factory());
+            this.permits = null;
+        }
+        this.parallelism = DistributionSummary.builder("kafka.consumer.batch.parallelism")
+                .description("Key lanes of a batch processed at the same time")
+                .register(meterRegistry);
+        this.keyQueueDepth = DistributionSummary.builder("kafka.consumer.batch.key.queue.depth")
+                .description("Records of one key processed in order within a batch")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("kafka.consumer.batch.time")
+                .description("Wall time to process a polled batch")
+                .register(meterRegistry);
+        LOG.info("Processing batches with concurrency {}{}", concurrency,
+                executor == null ? " on the listener thread" : virtualThreads ? " on virtual threads" : "");
+    }
+
+    /**
+     * Runs the task for every item, in order per key, and returns once all items were processed.
+     *
+     * @param keyOf key whose items must be processed in order; null keys share one lane
+     * @throws BatchProcessingException if a task threw
+     */
+    public <T> void execute(List<T> items, Function<? super T, ?> keyOf, Consumer<? super T> task) {
+        try {
+            submit(items, keyOf, task).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof BatchProcessingException batchProcessingException
+                    ? batchProcessingException : new BatchProcessingException("Error processing batch!", e.getCause());
+        }
+    }
+
+    /**
+     * Starts the task for every item, in order per key, and returns without waiting. A key's lane starts
+     * after the lanes of earlier submitted batches with that key, and is skipped if one of them failed.
+     *
+     * @return completes once all items were processed, exceptionally with a {@link BatchProcessingException}
+     * if a task threw
+     */
+    public <T> CompletableFuture<Void> submit(List<T> items, Function<? super T, ?> keyOf,
+                                             Consumer<? super T> task) {
+        long startNanos = System.nanoTime();
+        Map<Object, List<T>> lanes = lanes(items, keyOf);
+        lanes.values().forEach(lane -> keyQueueDepth.record(lane.size()));
+        parallelism.record(executor == null ? Math.min(1, lanes.size()) : Math.min(concurrency, lanes.size()));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CompletableFuture<Void> done;
+        if (executor == null) {
+            lanes.values().forEach(lane -> runLane(lane, task, failure));
+            done = CompletableFuture.completedFuture(null);
+        } else {
+            done = CompletableFuture.allOf(lanes.entrySet().stream()
+                    .map(lane -> chain(lane.getKey(), lane.getValue(), task, failure))
+                    .toArray(CompletableFuture[]::new));
+        }
+        return done.handle((ignored, e) -> {
+            batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            Throwable cause = failure.get() != null ? failure.get() : e;
+            if (cause != null) {
+                throw new BatchProcessingException("Error processing batch of " + items.size() + " records!",
+                        cause);
+            }
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Batch processing threads did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<Void> chain(Object key, List<T> lane, Consumer<? super T> task,
+                                              AtomicReference<Throwable> failure) {
+        Object laneKey = key == null ? NULL_KEY : key;
+        Runnable run = () -> {
+            if (permits != null) {
+                permits.acquireUninterruptibly();
+            }
+            try {
+                Throwable laneFailure = runLane(lane, task, failure);
+                if (laneFailure != null) {
+                    // Fails the tail, so the key's lanes of later batches skip their records
+                    throw new CompletionException(laneFailure);
+                }
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        };
+        CompletableFuture<Void> tail = laneTails.compute(laneKey, (ignored, previous) -> previous == null
+                ? CompletableFuture.runAsync(run, executor)
+                : previous.handleAsync((result, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        failure.compareAndSet(null, cause);
+                        throw new CompletionException(cause);
+                    }
+                    run.run();
+                    return null;
+                }, executor));
+        tail.whenComplete((result, e) -> laneTails.remove(laneKey, tail));
+        return tail;
+    }
+
+    /**
+     * @return what the failed task threw, or null if every item was processed
+     */
+    private static <T> Throwable runLane(List<T> lane, Consumer<? super T> task,
+                                         AtomicReference<Throwable> failure) {
+        for (T item : lane) {
+            try {
+                task.accept(item);
+            } catch (RuntimeException | Error e) {
+                // Later items of the key must not overtake the failed one
+                failure.compareAndSet(null, e);
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static <T> Map<Object, List<T>> lanes(List<T> items, Function<? super T, ?> keyOf) {
+        Map<Object, List<T>> lanes = new LinkedHashMap<>();
+        for (T item : items) {
+            lanes.computeIfAbsent(keyOf.apply(item), key -> new ArrayList<>()).add(item);
+        }
+        return lanes;
+    }
+}
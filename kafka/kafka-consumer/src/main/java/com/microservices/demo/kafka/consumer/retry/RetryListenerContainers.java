@@ -0,0 +1,86 @@
+package com.microservices.demo.kafka.consumer.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One listener container per retry topic, each in the tier's own consumer group, running the service's
+ * {@link RetryRecordHandler} through {@link RetryTopicRouter#process}.
+ * <p>
+ * Separate containers keep a record waiting on a long tier from pausing the shorter ones, and separate
+ * consumer groups keep the retry consumers out of the main consumer group's rebalances, the layout
+ * spring-kafka's {@code @RetryableTopic} uses. The containers start and stop with the application context,
+ * unless auto-startup is off.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-consumer-config.retry-enabled", havingValue = "true")
+public class RetryListenerContainers implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryListenerContainers.class);
+
+    private final List<ConcurrentMessageListenerContainer<Object, Object>> containers = new ArrayList<>();
+    private final boolean autoStartup;
+    private volatile boolean running;
+
+    @SuppressWarnings("unchecked")
+    public RetryListenerContainers(RetryTopicRouter router,
+                                   @Qualifier("retryListenerContainerFactory")
+                                   ConcurrentKafkaListenerContainerFactory<Object, Object> factory,
+                                   RetryRecordHandler<?, ?> handler) {
+        RetryRecordHandler<Object, Object> recordHandler = (RetryRecordHandler<Object, Object>) handler;
+        for (int tier = 0; tier < router.retryTopics().size(); tier++) {
+            String topic = router.retryTopics().get(tier);
+            String groupId = router.retryGroupIds().get(tier);
+            ConcurrentMessageListenerContainer<Object, Object> container = factory.createContainer(topic);
+            container.getContainerProperties().setGroupId(groupId);
+            container.getContainerProperties().setClientId(groupId);
+            container.getContainerProperties().setMessageListener((AcknowledgingMessageListener<Object, Object>)
+                    (record, acknowledgment) -> router.process(record, acknowledgment, recordHandler));
+            container.setBeanName(groupId);
+            containers.add(container);
+        }
+        this.autoStartup = containers.isEmpty() || containers.get(0).isAutoStartup();
+    }
+
+    @Override
+    public void start() {
+        containers.forEach(container -> {
+            container.start();
+            LOG.info("Started retry listener on {} in consumer group {}",
+                    container.getContainerProperties().getTopics(), container.getGroupId());
+        });
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        containers.forEach(ConcurrentMessageListenerContainer::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,15 @@
+package com.microservices.demo.kafka.consumer.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Processes a record again once its retry delay passed.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+@FunctionalInterface
+public interface RetryRecordHandler<K, V> {
+
+    void handle(ConsumerRecord<K, V> record) throws Exception;
+}
@@ -0,0 +1,86 @@
+package com.microservices.demo.kafka.consumer.retry;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Producer for forwarding failed records to retry topics and the dead-letter topic, and the container
+ * factory for the {@link RetryListenerContainers}, one record listener per retry topic, which acknowledge
+ * manually so that a record not yet due can be handed back with {@code nack}. A record whose forward to the
+ * next tier fails is retried with an exponential back-off without limit rather than skipped, since its
+ * failure would otherwise be lost.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka-consumer-config.retry-enabled", havingValue = "true")
+public class RetryTopicConfig {
+
+    private static final long FORWARD_RETRY_INITIAL_INTERVAL_MS = 1_000;
+    private static final double FORWARD_RETRY_MULTIPLIER = 2.0;
+    private static final long FORWARD_RETRY_MAX_INTERVAL_MS = 30_000;
+
+    private final KafkaConfigData kafkaConfigData;
+    private final KafkaConsumerConfigData kafkaConsumerConfigData;
+
+    @Value("${schema-registry.auth.username:}")
+    private String schemaRegistryUsername;
+
+    @Value("${schema-registry.auth.password:}")
+    private String schemaRegistryPassword;
+
+    public RetryTopicConfig(KafkaConfigData configData, KafkaConsumerConfigData consumerConfigData) {
+        this.kafkaConfigData = configData;
+        this.kafkaConsumerConfigData = consumerConfigData;
+    }
+
+    @Bean
+    public KafkaTemplate<Object, Object> retryKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
+        props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, kafkaConsumerConfigData.getRetryKeySerializer());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, kafkaConsumerConfigData.getRetryValueSerializer());
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, kafkaConsumerConfigData.getConsumerGroupId() + "-retry");
+        // Offsets of failed records are committed once forwarded, so the forward must not be lost
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        if (schemaRegistryUsername != null && !schemaRegistryUsername.isEmpty()) {
+            props.put("basic.auth.credentials.source", "USER_INFO");
+            props.put("basic.auth.user.info", schemaRegistryUsername + ":" + schemaRegistryPassword);
+        }
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryListenerContainerFactory(
+            ConsumerFactory<?, ?> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory((ConsumerFactory<Object, Object>) consumerFactory);
+        factory.setBatchListener(false);
+        factory.setConcurrency(1);
+        factory.setAutoStartup(kafkaConsumerConfigData.getAutoStartup());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(kafkaConsumerConfigData.getPollTimeoutMs());
+        ExponentialBackOff forwardBackOff = new ExponentialBackOff(FORWARD_RETRY_INITIAL_INTERVAL_MS,
+                FORWARD_RETRY_MULTIPLIER);
+        forwardBackOff.setMaxInterval(FORWARD_RETRY_MAX_INTERVAL_MS);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(forwardBackOff));
+        return factory;
+    }
+}
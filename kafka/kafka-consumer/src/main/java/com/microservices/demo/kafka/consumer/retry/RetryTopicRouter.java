@@ -0,0 +1,223 @@
+package com.microservices.demo.kafka.consumer.retry;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking retries: a record that failed processing is forwarded to the first of the delay-tiered
+ * retry topics, each failed retry to the next tier, and a record that failed on the last tier to the
+ * dead-letter topic, so the main partitions keep flowing while a failing record waits.
+ * <p>
+ * Retry topics are named {@code <topic-name>-<consumer-group-id>-retry-<delay-ms>} per retry-delays-ms
+ * entry, the dead-letter topic {@code <topic-name>-<consumer-group-id>-dlt}, so consumer groups of the same topic
+ * retry independently; all are created on startup. Forwarded records keep their key, carry the attempts
+ * and the time they are due in the {@link RetryTopicHeaders} and the original topic, partition, offset and
+ * latest failure in the {@code kafka_dlt-*} {@link KafkaHeaders}.
+ * <p>
+ * {@link #process} is meant for one listener container per retry topic, each in its own consumer group
+ * {@code <consumer-group-id>-retry-<delay-ms>} (see {@link RetryListenerContainers}): a record not yet due is
+ * handed back with {@code nack}, which pauses every partition of its container until it is. As all records
+ * of a tier wait the same delay, those behind it are not due earlier, and the other tiers and the main
+ * consumer group are not held back or rebalanced by it.
+ * Forwarded, retried and recovered records are counted as {@code kafka.consumer.retry.records},
+ * {@code kafka.consumer.retry.recovered} and {@code kafka.consumer.dlt.records}, tagged by topic.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-consumer-config.retry-enabled", havingValue = "true")
+public class RetryTopicRouter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryTopicRouter.class);
+
+    private static final List<Long> DEFAULT_RETRY_DELAYS_MS = List.of(1_000L, 10_000L, 60_000L);
+    private static final int MAX_STACKTRACE_CHARS = 4_096;
+
+    private final KafkaTemplate<Object, Object> kafkaTemplate;
+    private final KafkaAdminClient kafkaAdminClient;
+    private final MeterRegistry meterRegistry;
+    private final String topicName;
+    private final List<Long> retryDelaysMs;
+    private final List<String> retryTopics;
+    private final List<String> retryGroupIds;
+    private final String dltTopic;
+
+    public RetryTopicRouter(KafkaConfigData kafkaConfigData,
+                            KafkaConsumerConfigData consumerConfigData,
+                            @Qualifier("retryKafkaTemplate") KafkaTemplate<Object, Object> template,
+                            KafkaAdminClient adminClient,
+                            MeterRegistry registry) {
+        this.kafkaTemplate = template;
+        this.kafkaAdminClient = adminClient;
+        this.meterRegistry = registry;
+        this.topicName = kafkaConfigData.getTopicName();
+        this.retryDelaysMs = consumerConfigData.getRetryDelaysMs() == null || consumerConfigData.getRetryDelaysMs()
+                .isEmpty() ? DEFAULT_RETRY_DELAYS_MS : List.copyOf(consumerConfigData.getRetryDelaysMs());
+        String prefix = topicName + "-" + consumerConfigData.getConsumerGroupId();
+        this.retryTopics = retryDelaysMs.stream().map(delayMs -> prefix + "-retry-" + delayMs).toList();
+        this.retryGroupIds = retryDelaysMs.stream()
+                .map(delayMs -> consumerConfigData.getConsumerGroupId() + "-retry-" + delayMs).toList();
+        this.dltTopic = prefix + "-dlt";
+    }
+
+    @PostConstruct
+    public void createTopics() {
+        List<String> topics = new ArrayList<>(retryTopics);
+        topics.add(dltTopic);
+        kafkaAdminClient.createTopics(topics);
+        LOG.info("Retrying failed records of {} through {} before {}", topicName, retryTopics, dltTopic);
+    }
+
+    public List<String> retryTopics() {
+        return retryTopics;
+    }
+
+    /**
+     * @return the consumer group of each retry topic, in the order of {@link #retryTopics()}
+     */
+    public List<String> retryGroupIds() {
+        return retryGroupIds;
+    }
+
+    public String dltTopic() {
+        return dltTopic;
+    }
+
+    /**
+     * Forwards a record of topic-name that failed for the first time to the first retry tier.
+     *
+     * @return completes once the forwarded record was acknowledged; only then may its offset be committed
+     */
+    public CompletableFuture<Void> route(int partition, long offset, Object key, Object value, Throwable cause) {
+        return forward(topicName, partition, offset, key, value, new RecordHeaders(), 0, cause);
+    }
+
+    /**
+     * Forwards a record that failed again to the next retry tier, or to the dead-letter topic after the last.
+     */
+    public CompletableFuture<Void> route(ConsumerRecord<?, ?> record, Throwable cause) {
+        Headers headers = new RecordHeaders(record.headers().toArray());
+        String originalTopic = stringHeader(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC, record.topic());
+        int originalPartition = intHeader(headers, KafkaHeaders.DLT_ORIGINAL_PARTITION, record.partition());
+        long originalOffset = longHeader(headers, KafkaHeaders.DLT_ORIGINAL_OFFSET, record.offset());
+        return forward(originalTopic, originalPartition, originalOffset, record.key(), record.value(), headers,
+                intHeader(headers, RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, 0), cause);
+    }
+
+    /**
+     * Processes a record from a retry topic once it is due, forwarding it further if the handler fails.
+     */
+    public <K, V> void process(ConsumerRecord<K, V> record, Acknowledgment acknowledgment,
+                               RetryRecordHandler<K, V> handler) {
+        long waitMs = longHeader(record.headers(), RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, 0)
+                - System.currentTimeMillis();
+        if (waitMs > 0) {
+            acknowledgment.nack(Duration.ofMillis(waitMs));
+            return;
+        }
+        try {
+            handler.handle(record);
+            count("kafka.consumer.retry.recovered", "Records processed successfully on a retry topic",
+                    record.topic());
+        } catch (Exception e) {
+            LOG.warn("Retry of record {}-{}@{} failed: {}", record.topic(), record.partition(), record.offset(),
+                    e.getMessage());
+            // A failed forward throws, so the container's error handler seeks back and retries this record
+            // without limit; only the retry topic stalls, not the main partitions
+            route(record, e).join();
+        }
+        acknowledgment.acknowledge();
+    }
+
+    private CompletableFuture<Void> forward(String originalTopic, int originalPartition, long originalOffset,
+                                            Object key, Object value, Headers headers, int attempts,
+                                            Throwable cause) {
+        boolean deadLetter = attempts >= retryTopics.size();
+        String destination = deadLetter ? dltTopic : retryTopics.get(attempts);
+        setHeader(headers, KafkaHeaders.DLT_ORIGINAL_TOPIC, originalTopic.getBytes(StandardCharsets.UTF_8));
+        setHeader(headers, KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES)
+                .putInt(originalPartition).array());
+        setHeader(headers, KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES)
+                .putLong(originalOffset).array());
+        setHeader(headers, KafkaHeaders.DLT_EXCEPTION_FQCN, cause.getClass().getName()
+                .getBytes(StandardCharsets.UTF_8));
+        setHeader(headers, KafkaHeaders.DLT_EXCEPTION_MESSAGE, String.valueOf(cause.getMessage())
+                .getBytes(StandardCharsets.UTF_8));
+        setHeader(headers, KafkaHeaders.DLT_EXCEPTION_STACKTRACE, stackTrace(cause));
+        setHeader(headers, RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, ByteBuffer.allocate(Integer.BYTES)
+                .putInt(attempts + 1).array());
+        if (deadLetter) {
+            LOG.error("Record {}-{}@{} failed {} times, sending it to {}", originalTopic, originalPartition,
+                    originalOffset, attempts + 1, dltTopic);
+        } else {
+            setHeader(headers, RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, ByteBuffer.allocate(Long.BYTES)
+                    .putLong(System.currentTimeMillis() + retryDelaysMs.get(attempts)).array());
+        }
+        return kafkaTemplate.send(new ProducerRecord<>(destination, null, key, value, headers))
+                .thenRun(() -> count(deadLetter ? "kafka.consumer.dlt.records" : "kafka.consumer.retry.records",
+                        deadLetter ? "Records sent to the dead-letter topic" : "Failed records sent to a retry topic",
+                        destination));
+    }
+
+    private void count(String name, String description, String topic) {
+        Counter.builder(name)
+                .description(description)
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static void setHeader(Headers headers, String name, byte[] value) {
+        headers.remove(name);
+        headers.add(name, value);
+    }
+
+    private static byte[] stackTrace(Throwable cause) {
+        StringWriter stackTrace = new StringWriter();
+        cause.printStackTrace(new PrintWriter(stackTrace));
+        String trace = stackTrace.toString();
+        return trace.substring(0, Math.min(trace.length(), MAX_STACKTRACE_CHARS)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String stringHeader(Headers headers, String name, String defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header == null ? defaultValue : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static int intHeader(Headers headers, String name, int defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value().length != Integer.BYTES
+                ? defaultValue : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    private static long longHeader(Headers headers, String name, long defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value().length != Long.BYTES
+                ? defaultValue : ByteBuffer.wrap(header.value()).getLong();
+    }
+}
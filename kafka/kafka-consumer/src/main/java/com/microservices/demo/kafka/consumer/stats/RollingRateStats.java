@@ -0,0 +1,131 @@
+package com.microservices.demo.kafka.consumer.stats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Event count and 1, 5 and 15 minute rates of one consumer stage, safe to update from any number of
+ * listener and processing threads.
+ * <p>
+ * Counts go to a ring of {@value #BUCKET_MS} ms time buckets, each a {@link LongAdder}, so concurrent
+ * updates do not contend on a single counter. A slot is reused for a new bucket by swapping in a fresh
+ * one with CAS once its bucket has left the 15 minute window; nothing is ever reset in place, so no count
+ * of a live bucket is lost. A rate is the sum of the buckets in its window divided by the time they
+ * actually span, including the current, partial bucket and never more than the time since creation.
+ * <p>
+ * Rates are exported as {@code kafka.consumer.stats.rate} (events/s, per window) and the count as
+ * {@code kafka.consumer.stats.events}, both tagged by stage.
+ */
+public class RollingRateStats {
+
+    public enum Window {
+        ONE_MINUTE("1m", 60_000),
+        FIVE_MINUTES("5m", 300_000),
+        FIFTEEN_MINUTES("15m", 900_000);
+
+        private final String tag;
+        private final long millis;
+
+        Window(String tag, long millis) {
+            this.tag = tag;
+            this.millis = millis;
+        }
+    }
+
+    private static final long BUCKET_MS = 5_000;
+    /** The longest window in full buckets, plus the current one. */
+    private static final int BUCKETS = (int) (Window.FIFTEEN_MINUTES.millis / BUCKET_MS) + 1;
+
+    private record Bucket(long epoch, LongAdder count) {
+    }
+
+    private final LongSupplier clock;
+    private final long startMs;
+    private final LongAdder total = new LongAdder();
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+    private final AtomicLong lastReportMs;
+
+    public RollingRateStats(String stage, MeterRegistry registry) {
+        this(stage, registry, System::currentTimeMillis);
+    }
+
+    RollingRateStats(String stage, MeterRegistry registry, LongSupplier clock) {
+        this.clock = clock;
+        this.startMs = clock.getAsLong();
+        this.lastReportMs = new AtomicLong(startMs);
+        FunctionCounter.builder("kafka.consumer.stats.events", total, LongAdder::sum)
+                .description("Events counted by the consumer stage")
+                .tag("stage", stage)
+                .register(registry);
+        for (Window window : Window.values()) {
+            Gauge.builder("kafka.consumer.stats.rate", this, stats -> stats.ratePerSecond(window))
+                    .description("Events per second over the trailing window")
+                    .baseUnit("events/s")
+                    .tags("stage", stage, "window", window.tag)
+                    .register(registry);
+        }
+    }
+
+    public void record(long count) {
+        if (count <= 0) {
+            return;
+        }
+        total.add(count);
+        long epoch = clock.getAsLong() / BUCKET_MS;
+        int slot = (int) Math.floorMod(epoch, BUCKETS);
+        Bucket bucket = buckets.get(slot);
+        // A newer bucket in the slot means the clock stepped back; the count then goes to the newer bucket
+        while (bucket == null || bucket.epoch() < epoch) {
+            Bucket next = new Bucket(epoch, new LongAdder());
+            if (buckets.compareAndSet(slot, bucket, next)) {
+                bucket = next;
+            } else {
+                bucket = buckets.get(slot);
+            }
+        }
+        bucket.count().add(count);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public double ratePerSecond(Window window) {
+        long now = clock.getAsLong();
+        long epoch = now / BUCKET_MS;
+        long sum = 0;
+        for (long e = epoch - window.millis / BUCKET_MS; e <= epoch; e++) {
+            Bucket bucket = buckets.get((int) Math.floorMod(e, BUCKETS));
+            if (bucket != null && bucket.epoch() == e) {
+                sum += bucket.count().sum();
+            }
+        }
+        long spanMs = Math.min(window.millis + now - epoch * BUCKET_MS, now - startMs);
+        return spanMs <= 0 ? 0 : sum * 1000.0 / spanMs;
+    }
+
+    /**
+     * @return true for exactly one caller once per interval, to log statistics from a single thread
+     */
+    public boolean reportDue(long intervalMs) {
+        long now = clock.getAsLong();
+        long last = lastReportMs.get();
+        return now - last >= intervalMs && lastReportMs.compareAndSet(last, now);
+    }
+
+    /**
+     * @return the 1, 5 and 15 minute rates in events per minute, for log lines
+     */
+    public String formatRates() {
+        return String.format(Locale.ROOT, "%.2f/%.2f/%.2f per min (1m/5m/15m)",
+                ratePerSecond(Window.ONE_MINUTE) * 60, ratePerSecond(Window.FIVE_MINUTES) * 60,
+                ratePerSecond(Window.FIFTEEN_MINUTES) * 60);
+    }
+}
@@ -0,0 +1,176 @@
+package com.microservices.demo.kafka.consumer.commit;
+
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for committing offsets of out-of-order completions
+ */
+@DisplayName("Offset Commit Coordinator Tests")
+class OffsetCommitCoordinatorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("social-events", 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    private OffsetCommitCoordinator coordinator;
+    private BatchInterceptor<String, String> interceptor;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConsumerConfigData configData = new KafkaConsumerConfigData();
+        configData.setCommitIntervalMs(0L);
+        configData.setMaxUncommittedRecords(4);
+        coordinator = new OffsetCommitCoordinator(configData, meterRegistry);
+        interceptor = coordinator.interceptor();
+        consumer.assign(List.of(PARTITION));
+    }
+
+    @Test
+    @DisplayName("Should only commit past the lowest incomplete offset, across offset gaps")
+    void shouldCommitHighestContiguousCompletedOffset() {
+        // Given
+        interceptor.intercept(records(0, 1, 3, 4), consumer);
+
+        // When
+        coordinator.complete(PARTITION, 1);
+        coordinator.complete(PARTITION, 3);
+        interceptor.intercept(ConsumerRecords.empty(), consumer);
+
+        // Then
+        assertNull(committed());
+        assertEquals(4, coordinator.getUncommittedRecords());
+
+        // When
+        coordinator.complete(PARTITION, 0);
+        interceptor.intercept(ConsumerRecords.empty(), consumer);
+
+        // Then
+        assertEquals(4, committed().offset());
+        assertEquals(1, coordinator.getUncommittedRecords());
+        assertEquals(1.0, meterRegistry.get("kafka.consumer.commit.async").tag("outcome", "success")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should pause partitions beyond the bound and resume them once completions make room")
+    void shouldPauseForCapacity() {
+        // Given
+        interceptor.intercept(records(0, 1, 2, 3), consumer);
+
+        // When
+        interceptor.intercept(records(4), consumer);
+
+        // Then
+        assertEquals(Set.of(PARTITION), consumer.paused());
+
+        // When
+        coordinator.onIdle(consumer);
+
+        // Then
+        assertEquals(Set.of(PARTITION), consumer.paused());
+
+        // When
+        coordinator.complete(PARTITION, 0);
+        coordinator.onIdle(consumer);
+
+        // Then
+        assertTrue(consumer.paused().isEmpty());
+        assertEquals(1, committed().offset());
+        assertEquals(4, coordinator.getUncommittedRecords());
+    }
+
+    @Test
+    @DisplayName("Should rewind to the lowest failed offset and withhold the partition's polled records")
+    void shouldRewindToFailedOffset() {
+        // Given
+        interceptor.intercept(records(0, 1, 2), consumer);
+        coordinator.complete(PARTITION, 0);
+        coordinator.fail(PARTITION, 2);
+        coordinator.fail(PARTITION, 1);
+
+        // When
+        ConsumerRecords<String, String> delivered = interceptor.intercept(records(3), consumer);
+
+        // Then
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, consumer.position(PARTITION));
+        assertEquals(1, committed().offset());
+        assertEquals(0, coordinator.getUncommittedRecords());
+        assertEquals(2.0, meterRegistry.get("kafka.consumer.commit.rewinds").counter().count());
+
+        // When
+        delivered = interceptor.intercept(records(1, 2, 3), consumer);
+
+        // Then
+        assertEquals(3, delivered.count());
+        assertEquals(3, coordinator.getUncommittedRecords());
+    }
+
+    @Test
+    @DisplayName("Should notify completion listeners once per completed record, with its poll time")
+    void shouldNotifyCompletionListeners() {
+        // Given
+        List<Long> completed = new ArrayList<>();
+        long beforePollNanos = System.nanoTime();
+        coordinator.addCompletionListener((record, polledAtNanos) -> {
+            assertTrue(polledAtNanos >= beforePollNanos);
+            completed.add(record.offset());
+        });
+        interceptor.intercept(records(0, 1), consumer);
+
+        // When
+        coordinator.complete(PARTITION, 1);
+        coordinator.complete(PARTITION, 1);
+        coordinator.complete(PARTITION, 2);
+
+        // Then
+        assertEquals(List.of(1L), completed);
+    }
+
+    @Test
+    @DisplayName("Should commit completed offsets of revoked partitions and forget the rest")
+    void shouldCommitOnRevoke() {
+        // Given
+        interceptor.intercept(records(0, 1, 2), consumer);
+        coordinator.complete(PARTITION, 0);
+        coordinator.complete(PARTITION, 2);
+
+        // When
+        coordinator.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+        coordinator.complete(PARTITION, 1);
+
+        // Then
+        assertEquals(1, committed().offset());
+        assertEquals(0, coordinator.getUncommittedRecords());
+    }
+
+    private OffsetAndMetadata committed() {
+        return consumer.committed(Set.of(PARTITION)).get(PARTITION);
+    }
+
+    private static ConsumerRecords<String, String> records(long... offsets) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (long offset : offsets) {
+            records.add(new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "key", "value"));
+        }
+        return new ConsumerRecords<>(Map.of(PARTITION, records));
+    }
+}
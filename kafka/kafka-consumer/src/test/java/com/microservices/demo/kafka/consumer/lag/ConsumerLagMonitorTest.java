@@ -0,0 +1,66 @@
+package com.microservices.demo.kafka.consumer.lag;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for consumer lag, rates and the catch-up estimate
+ */
+@DisplayName("Consumer Lag Monitor Tests")
+class ConsumerLagMonitorTest {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    private ConsumerLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("social-events");
+        KafkaConsumerConfigData consumerConfigData = new KafkaConsumerConfigData();
+        consumerConfigData.setConsumerGroupId("social-events-consumer");
+        consumerConfigData.setLagSampleIntervalMs(0L);
+        monitor = new ConsumerLagMonitor(null, kafkaConfigData, consumerConfigData, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should estimate catch-up time from how much faster the group consumes than the topic grows")
+    void shouldEstimateCatchUpFromDrainRate() {
+        // Given
+        monitor.update(0, 0, Map.of(0, 1_000L, 1, 1_000L), Map.of(0, 0L, 1, 500L));
+
+        // When
+        LagSnapshot snapshot = monitor.update(10 * SECOND_NANOS, 10_000,
+                Map.of(0, 1_500L, 1, 1_500L), Map.of(0, 1_000L, 1, 1_500L));
+
+        // Then
+        assertEquals(500, snapshot.totalLag());
+        assertEquals(Map.of(0, 500L, 1, 0L), snapshot.partitionLag());
+        assertEquals(100.0, snapshot.produceRate(), 1e-9);
+        assertEquals(200.0, snapshot.consumeRate(), 1e-9);
+        assertEquals(5.0, snapshot.catchUpSeconds(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should report no catch-up time without lag and an infinite one when lag is not shrinking")
+    void shouldHandleNoLagAndNoDrain() {
+        // Given
+        LagSnapshot first = monitor.update(0, 0, Map.of(0, 100L), Map.of(0, 100L));
+
+        // When
+        LagSnapshot stalled = monitor.update(SECOND_NANOS, 1_000, Map.of(0, 200L), Map.of(0, 100L));
+
+        // Then
+        assertEquals(0.0, first.catchUpSeconds());
+        assertEquals(100, stalled.totalLag());
+        assertEquals(Double.POSITIVE_INFINITY, stalled.catchUpSeconds());
+    }
+}
@@ -0,0 +1,140 @@
+package com.microservices.demo.kafka.consumer.parallel;
+
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.consumer.exception.BatchProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-key ordered parallel batch processing
+ */
+@DisplayName("Parallel Batch Executor Tests")
+class ParallelBatchExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ParallelBatchExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    @DisplayName("Should process keys in parallel while keeping the order within each key")
+    void shouldKeepOrderPerKey() {
+        // Given
+        executor = executor(4, true);
+        List<int[]> items = IntStream.range(0, 400).mapToObj(i -> new int[]{i % 8, i}).toList();
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // When
+        executor.execute(items, item -> item[0], item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            seen.computeIfAbsent(item[0], key -> Collections.synchronizedList(new ArrayList<>())).add(item[1]);
+            sleep();
+            running.decrementAndGet();
+        });
+
+        // Then
+        assertEquals(8, seen.size());
+        seen.forEach((key, values) -> assertEquals(
+                IntStream.range(0, 50).map(i -> i * 8 + key).boxed().toList(), values));
+        assertTrue(maxRunning.get() > 1 && maxRunning.get() <= 4, "max running " + maxRunning.get());
+        assertEquals(4.0, meterRegistry.get("kafka.consumer.batch.parallelism").summary().max());
+        assertEquals(50.0, meterRegistry.get("kafka.consumer.batch.key.queue.depth").summary().max());
+        assertEquals(1, meterRegistry.get("kafka.consumer.batch.time").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should skip the rest of a failed key and fail the batch once other keys are done")
+    void shouldFailBatchAfterOtherKeysComplete() {
+        // Given
+        executor = executor(2, false);
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        BatchProcessingException e = assertThrows(BatchProcessingException.class, () ->
+                executor.execute(List.of("a1", "b1", "a2", "b2", "a3"), item -> item.charAt(0), item -> {
+                    if (item.equals("a2")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    processed.add(item);
+                }));
+
+        // Then
+        assertEquals("boom", e.getCause().getMessage());
+        assertEquals(List.of("a1", "b1", "b2"), processed.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Should skip a failed key's lanes of later submitted batches")
+    void shouldSkipKeyInLaterBatchesAfterFailure() {
+        // Given
+        executor = executor(2, false);
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<String> task = item -> {
+            if (item.equals("a1")) {
+                await(release);
+            }
+            if (item.equals("a2")) {
+                throw new IllegalStateException("boom");
+            }
+            processed.add(item);
+        };
+
+        // When
+        CompletableFuture<Void> first = executor.submit(List.of("a1", "a2"), item -> item.charAt(0), task);
+        CompletableFuture<Void> second = executor.submit(List.of("a3", "b1"), item -> item.charAt(0), task);
+        release.countDown();
+
+        // Then
+        CompletionException firstFailure = assertThrows(CompletionException.class, first::join);
+        CompletionException secondFailure = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(BatchProcessingException.class, firstFailure.getCause());
+        assertInstanceOf(BatchProcessingException.class, secondFailure.getCause());
+        assertEquals("boom", secondFailure.getCause().getCause().getMessage());
+        assertEquals(List.of("a1", "b1"), processed.stream().sorted().toList());
+    }
+
+    private ParallelBatchExecutor executor(int concurrency, boolean virtualThreads) {
+        KafkaConsumerConfigData configData = new KafkaConsumerConfigData();
+        configData.setProcessingConcurrency(concurrency);
+        configData.setProcessingVirtualThreads(virtualThreads);
+        return new ParallelBatchExecutor(configData, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
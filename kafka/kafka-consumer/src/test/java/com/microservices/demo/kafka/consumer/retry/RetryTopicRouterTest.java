@@ -0,0 +1,170 @@
+package com.microservices.demo.kafka.consumer.retry;
+
+import com.microservices.demo.config.KafkaConfigData;
+import com.microservices.demo.config.KafkaConsumerConfigData;
+import com.microservices.demo.kafka.admin.client.KafkaAdminClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for forwarding failed records through retry tiers to the dead-letter topic
+ */
+@DisplayName("Retry Topic Router Tests")
+class RetryTopicRouterTest {
+
+    private static final String RETRY_1S = "social-events-group-retry-1000";
+    private static final String RETRY_10S = "social-events-group-retry-10000";
+    private static final String DLT = "social-events-group-dlt";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<Object, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<ProducerRecord<Object, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+    private RetryTopicRouter router;
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("social-events");
+        KafkaConsumerConfigData consumerConfigData = new KafkaConsumerConfigData();
+        consumerConfigData.setConsumerGroupId("group");
+        consumerConfigData.setRetryDelaysMs(List.of(1_000L, 10_000L));
+        when(kafkaTemplate.send(sent.capture())).thenReturn(CompletableFuture.completedFuture(null));
+        router = new RetryTopicRouter(kafkaConfigData, consumerConfigData, kafkaTemplate,
+                mock(KafkaAdminClient.class), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should forward a first failure to the first tier with its origin, failure and due time")
+    void shouldForwardFirstFailureToFirstTier() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        router.route(2, 42L, 7L, "value", new IllegalStateException("index down")).join();
+
+        // Then
+        ProducerRecord<Object, Object> record = sent.getValue();
+        assertEquals(RETRY_1S, record.topic());
+        assertEquals(7L, record.key());
+        assertEquals("social-events", string(record.headers(), KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(2, ByteBuffer.wrap(header(record.headers(), KafkaHeaders.DLT_ORIGINAL_PARTITION)).getInt());
+        assertEquals(42L, ByteBuffer.wrap(header(record.headers(), KafkaHeaders.DLT_ORIGINAL_OFFSET)).getLong());
+        assertEquals(IllegalStateException.class.getName(),
+                string(record.headers(), KafkaHeaders.DLT_EXCEPTION_FQCN));
+        assertEquals(1, ByteBuffer.wrap(header(record.headers(), RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS))
+                .getInt());
+        assertTrue(ByteBuffer.wrap(header(record.headers(), RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP))
+                .getLong() >= before + 1_000);
+        assertEquals(1.0, meterRegistry.get("kafka.consumer.retry.records").tag("topic", RETRY_1S)
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should move failed retries to the next tier and past the last one to the dead-letter topic")
+    void shouldForwardThroughTiersToDeadLetterTopic() {
+        // Given
+        router.route(0, 5L, 7L, "value", new IllegalStateException("first")).join();
+        ConsumerRecord<Object, Object> retried = received(RETRY_1S, sent.getValue());
+
+        // When
+        router.route(retried, new IllegalStateException("second")).join();
+        ConsumerRecord<Object, Object> retriedAgain = received(RETRY_10S, sent.getValue());
+        router.route(retriedAgain, new IllegalStateException("third")).join();
+
+        // Then
+        ProducerRecord<Object, Object> dead = sent.getValue();
+        assertEquals(DLT, dead.topic());
+        assertEquals("social-events", string(dead.headers(), KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertEquals(5L, ByteBuffer.wrap(header(dead.headers(), KafkaHeaders.DLT_ORIGINAL_OFFSET)).getLong());
+        assertEquals("third", string(dead.headers(), KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        assertEquals(3, ByteBuffer.wrap(header(dead.headers(), RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS)).getInt());
+        assertEquals(1.0, meterRegistry.get("kafka.consumer.dlt.records").tag("topic", DLT).counter().count());
+    }
+
+    @Test
+    @DisplayName("Should hand a record back until it is due and then process and acknowledge it")
+    void shouldNackUntilDue() {
+        // Given
+        router.route(0, 5L, 7L, "value", new IllegalStateException("first")).join();
+        ConsumerRecord<Object, Object> retried = received(RETRY_1S, sent.getValue());
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+        List<Object> handled = new ArrayList<>();
+
+        // When
+        router.process(retried, acknowledgment, record -> handled.add(record.value()));
+
+        // Then
+        verify(acknowledgment).nack(any(Duration.class));
+        verify(acknowledgment, never()).acknowledge();
+        assertTrue(handled.isEmpty());
+
+        // When
+        retried.headers().remove(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+        router.process(retried, acknowledgment, record -> handled.add(record.value()));
+
+        // Then
+        verify(acknowledgment).acknowledge();
+        assertEquals(List.of("value"), handled);
+        assertEquals(1.0, meterRegistry.get("kafka.consumer.retry.recovered").tag("topic", RETRY_1S)
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Should leave a record unacknowledged and rethrow when forwarding its failure fails")
+    void shouldRethrowWhenForwardFails() {
+        // Given
+        router.route(0, 5L, 7L, "value", new IllegalStateException("first")).join();
+        ConsumerRecord<Object, Object> retried = received(RETRY_1S, sent.getValue());
+        retried.headers().remove(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+        // When
+        assertThrows(CompletionException.class, () -> router.process(retried, acknowledgment, record -> {
+            throw new IllegalStateException("second");
+        }));
+
+        // Then
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private static ConsumerRecord<Object, Object> received(String topic, ProducerRecord<Object, Object> record) {
+        assertEquals(topic, record.topic());
+        ConsumerRecord<Object, Object> received = new ConsumerRecord<>(topic, 0, 0L, record.key(), record.value());
+        record.headers().forEach(header -> received.headers().add(header));
+        return received;
+    }
+
+    private static byte[] header(Headers headers, String name) {
+        return headers.lastHeader(name).value();
+    }
+
+    private static String string(Headers headers, String name) {
+        return new String(header(headers, name), StandardCharsets.UTF_8);
+    }
+}
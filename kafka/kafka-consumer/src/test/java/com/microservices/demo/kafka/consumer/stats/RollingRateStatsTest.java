@@ -0,0 +1,91 @@
+package com.microservices.demo.kafka.consumer.stats;
+
+import com.microservices.demo.kafka.consumer.stats.RollingRateStats.Window;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for consumer statistics with rolling rate windows
+ */
+@DisplayName("Rolling Rate Stats Tests")
+class RollingRateStatsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private RollingRateStats stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new RollingRateStats("processed", meterRegistry, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should compute each window's rate over the time it spans and expire older events")
+    void shouldComputeRatesPerWindow() {
+        // Given
+        for (int second = 0; second < 600; second++) {
+            stats.record(second < 300 ? 30 : 10);
+            clock.addAndGet(1_000);
+        }
+
+        // When
+        double oneMinute = stats.ratePerSecond(Window.ONE_MINUTE);
+        double fiveMinutes = stats.ratePerSecond(Window.FIVE_MINUTES);
+        double fifteenMinutes = stats.ratePerSecond(Window.FIFTEEN_MINUTES);
+
+        // Then
+        assertEquals(10.0, oneMinute, 0.5);
+        assertEquals(10.0, fiveMinutes, 0.5);
+        assertEquals(20.0, fifteenMinutes, 0.01);
+        assertEquals(12_000, stats.getTotal());
+        assertEquals(10.0, meterRegistry.get("kafka.consumer.stats.rate").tag("window", "1m").gauge().value(), 0.5);
+
+        // When
+        clock.addAndGet(16 * 60_000);
+
+        // Then
+        assertEquals(0.0, stats.ratePerSecond(Window.FIFTEEN_MINUTES));
+        assertEquals(12_000.0, meterRegistry.get("kafka.consumer.stats.events").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not lose counts recorded concurrently and report to a single caller per interval")
+    void shouldCountConcurrentUpdatesExactly() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    stats.record(1);
+                    if (i % 1_000 == 0) {
+                        clock.addAndGet(100);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(80_000, stats.getTotal());
+        assertEquals(80_000 / 8.0, stats.ratePerSecond(Window.ONE_MINUTE), 0.01);
+        assertTrue(stats.reportDue(1_000));
+        assertFalse(stats.reportDue(1_000));
+    }
+}
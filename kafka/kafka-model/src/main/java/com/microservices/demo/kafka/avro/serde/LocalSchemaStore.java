@@ -0,0 +1,45 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.avro.model.TwitterAvroModel;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.message.SchemaStore;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fingerprint to schema resolver for single-object encoded messages.
+ * <p>
+ * Knows the schemas of the generated models on the classpath, plus any schema registered explicitly, so
+ * decoding never needs a schema registry round trip. Older writer schemas that are still on a topic must be
+ * registered before their messages can be read.
+ */
+public class LocalSchemaStore implements SchemaStore {
+
+    private final Map<Long, Schema> schemasByFingerprint = new ConcurrentHashMap<>();
+
+    public LocalSchemaStore() {
+        register(SocialEventAvroModel.getClassSchema());
+        register(TwitterAvroModel.getClassSchema());
+    }
+
+    /**
+     * @return the CRC-64-AVRO fingerprint of the schema's parsing canonical form
+     */
+    public long register(Schema schema) {
+        long fingerprint = fingerprint(schema);
+        schemasByFingerprint.putIfAbsent(fingerprint, schema);
+        return fingerprint;
+    }
+
+    @Override
+    public Schema findByFingerprint(long fingerprint) {
+        return schemasByFingerprint.get(fingerprint);
+    }
+
+    public static long fingerprint(Schema schema) {
+        return SchemaNormalization.parsingFingerprint64(schema);
+    }
+}
@@ -0,0 +1,89 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka deserializer for Avro single-object encoded values written by {@link SingleObjectAvroSerializer}.
+ * <p>
+ * The writer schema is found by fingerprint in a {@link LocalSchemaStore} and resolved against the schema
+ * of the generated reader class, so compatible schema changes are read without a schema registry. Each
+ * thread reuses its binary decoder; datum readers are cached per writer fingerprint.
+ *
+ * @param <T> Generated Avro model
+ */
+public class SingleObjectAvroDeserializer<T extends SpecificRecord> implements Deserializer<T> {
+
+    private static final ThreadLocal<BinaryDecoder> DECODER = new ThreadLocal<>();
+
+    private final LocalSchemaStore schemaStore;
+    private final Map<Long, SpecificDatumReader<T>> readersByFingerprint = new ConcurrentHashMap<>();
+    private Schema readerSchema;
+
+    public SingleObjectAvroDeserializer() {
+        this(new LocalSchemaStore());
+    }
+
+    public SingleObjectAvroDeserializer(LocalSchemaStore schemaStore) {
+        this.schemaStore = schemaStore;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        SingleObjectAvroSerdeConfig.registerSchemaClasses(schemaStore, configs);
+        Object readerClass = configs.get(SingleObjectAvroSerdeConfig.READER_CLASS_CONFIG);
+        if (readerClass != null && !readerClass.toString().isBlank()) {
+            readerSchema = SingleObjectAvroSerdeConfig.schemaOf(readerClass.toString().trim());
+        }
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < SingleObjectAvroSerdeConfig.HEADER_LENGTH
+                || data[0] != SingleObjectAvroSerdeConfig.MAGIC_0 || data[1] != SingleObjectAvroSerdeConfig.MAGIC_1) {
+            throw new SerializationException("Message for topic " + topic + " is not Avro single-object encoded");
+        }
+        long fingerprint = 0;
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            fingerprint = fingerprint << 8 | (data[2 + i] & 0xFF);
+        }
+        SpecificDatumReader<T> reader = readersByFingerprint.computeIfAbsent(fingerprint, this::newReader);
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, SingleObjectAvroSerdeConfig.HEADER_LENGTH,
+                data.length - SingleObjectAvroSerdeConfig.HEADER_LENGTH, DECODER.get());
+        DECODER.set(decoder);
+        try {
+            return reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error deserializing Avro message for topic " + topic, e);
+        }
+    }
+
+    private SpecificDatumReader<T> newReader(long fingerprint) {
+        Schema writerSchema = schemaStore.findByFingerprint(fingerprint);
+        if (writerSchema == null) {
+            throw new SerializationException("Unknown Avro schema fingerprint " + Long.toHexString(fingerprint));
+        }
+        Schema schema = readerSchema;
+        if (schema == null) {
+            Class<?> readerClass = SpecificData.get().getClass(writerSchema);
+            if (readerClass == null) {
+                throw new SerializationException("No generated class for Avro schema " + writerSchema.getFullName());
+            }
+            schema = SpecificData.get().getSchema(readerClass);
+        }
+        return new SpecificDatumReader<>(writerSchema, schema);
+    }
+}
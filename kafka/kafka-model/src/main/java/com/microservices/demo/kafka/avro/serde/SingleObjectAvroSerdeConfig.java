@@ -0,0 +1,53 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificData;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.Map;
+
+/**
+ * Config keys understood by {@link SingleObjectAvroSerializer} and {@link SingleObjectAvroDeserializer},
+ * passed through the producer and consumer configs like any other serializer setting.
+ */
+public final class SingleObjectAvroSerdeConfig {
+
+    /**
+     * Comma separated generated Avro classes whose schemas are added to the {@link LocalSchemaStore}.
+     */
+    public static final String SCHEMA_CLASSES_CONFIG = "single.object.avro.schema.classes";
+
+    /**
+     * Generated Avro class to read every message into; by default the class named by the writer schema.
+     */
+    public static final String READER_CLASS_CONFIG = "single.object.avro.reader.class";
+
+    /** Single-object encoding marker, followed by the little-endian 64 bit schema fingerprint. */
+    static final byte MAGIC_0 = (byte) 0xC3;
+    static final byte MAGIC_1 = (byte) 0x01;
+    static final int HEADER_LENGTH = 10;
+
+    private SingleObjectAvroSerdeConfig() {
+    }
+
+    static void registerSchemaClasses(LocalSchemaStore schemaStore, Map<String, ?> configs) {
+        Object classes = configs.get(SCHEMA_CLASSES_CONFIG);
+        if (classes == null) {
+            return;
+        }
+        for (String className : classes.toString().split(",")) {
+            if (!className.isBlank()) {
+                schemaStore.register(schemaOf(className.trim()));
+            }
+        }
+    }
+
+    static Schema schemaOf(String className) {
+        try {
+            return SpecificData.get().getSchema(Class.forName(className, true,
+                    Thread.currentThread().getContextClassLoader()));
+        } catch (ClassNotFoundException e) {
+            throw new SerializationException("Unknown Avro class " + className, e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka serializer writing Avro single-object encoding: a two byte marker, the 64 bit fingerprint of the
+ * writer schema and the Avro binary body, the same bytes the generated {@code toByteBuffer()} produces.
+ * <p>
+ * Unlike the Confluent serializer there is no schema registry lookup and no registry id framing; readers
+ * resolve the fingerprint through a {@link LocalSchemaStore}. Each thread reuses its output buffer and
+ * binary encoder, so a send allocates only the returned byte array.
+ *
+ * @param <T> Generated Avro model
+ */
+public class SingleObjectAvroSerializer<T extends SpecificRecord> implements Serializer<T> {
+
+    /** Buffers grown beyond this by a large record are dropped instead of being kept per thread. */
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1 << 20;
+
+    private static final ThreadLocal<EncodeBuffer> ENCODE_BUFFER = ThreadLocal.withInitial(EncodeBuffer::new);
+
+    private final Map<Schema, Writer> writersBySchema = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // Writers are derived from the records themselves; the schema list only matters for readers
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        Writer writer = writersBySchema.computeIfAbsent(data.getSchema(), Writer::new);
+        EncodeBuffer buffer = ENCODE_BUFFER.get();
+        try {
+            buffer.out.reset();
+            buffer.out.write(writer.header, 0, writer.header.length);
+            buffer.encoder = EncoderFactory.get().directBinaryEncoder(buffer.out, buffer.encoder);
+            writer.datumWriter.write(data, buffer.encoder);
+            return buffer.out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error serializing Avro message for topic " + topic, e);
+        } finally {
+            if (buffer.out.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+                ENCODE_BUFFER.remove();
+            }
+        }
+    }
+
+    private static final class Writer {
+
+        private final byte[] header = new byte[SingleObjectAvroSerdeConfig.HEADER_LENGTH];
+        private final SpecificDatumWriter<SpecificRecord> datumWriter;
+
+        Writer(Schema schema) {
+            long fingerprint = LocalSchemaStore.fingerprint(schema);
+            header[0] = SingleObjectAvroSerdeConfig.MAGIC_0;
+            header[1] = SingleObjectAvroSerdeConfig.MAGIC_1;
+            for (int i = 0; i < Long.BYTES; i++) {
+                header[2 + i] = (byte) (fingerprint >>> (8 * i));
+            }
+            this.datumWriter = new SpecificDatumWriter<>(schema);
+        }
+    }
+
+    private static final class EncodeBuffer {
+
+        private final ReusableOutputStream out = new ReusableOutputStream();
+        private BinaryEncoder encoder;
+    }
+
+    private static final class ReusableOutputStream extends ByteArrayOutputStream {
+
+        ReusableOutputStream() {
+            super(1024);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
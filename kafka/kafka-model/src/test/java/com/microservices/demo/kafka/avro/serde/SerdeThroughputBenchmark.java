@@ -0,0 +1,103 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the Confluent Avro serde and the single-object serde for social events.
+ * The Confluent side uses an in-process mock:// schema registry, so only the serde cost itself is measured.
+ * Run {@link #main(String[])} from the test classpath; the GC profiler reports bytes allocated per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SerdeThroughputBenchmark {
+
+    private static final String TOPIC = "social-events";
+
+    @Param({"64", "4096"})
+    private int textLength;
+
+    private KafkaAvroSerializer confluentSerializer;
+    private KafkaAvroDeserializer confluentDeserializer;
+    private SingleObjectAvroSerializer<SocialEventAvroModel> singleObjectSerializer;
+    private SingleObjectAvroDeserializer<SocialEventAvroModel> singleObjectDeserializer;
+    private SocialEventAvroModel event;
+    private byte[] confluentBytes;
+    private byte[] singleObjectBytes;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> confluentConfigs = Map.of(
+                AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://serde-benchmark",
+                "specific.avro.reader", true);
+        confluentSerializer = new KafkaAvroSerializer();
+        confluentSerializer.configure(confluentConfigs, false);
+        confluentDeserializer = new KafkaAvroDeserializer();
+        confluentDeserializer.configure(confluentConfigs, false);
+        singleObjectSerializer = new SingleObjectAvroSerializer<>();
+        singleObjectDeserializer = new SingleObjectAvroDeserializer<>();
+        singleObjectDeserializer.configure(Map.of(), false);
+
+        event = SocialEventAvroModel.newBuilder()
+                .setId(1L)
+                .setUserId(1_000L)
+                .setText("x".repeat(textLength))
+                .setCreatedAt(System.currentTimeMillis())
+                .build();
+        confluentBytes = confluentSerializer.serialize(TOPIC, event);
+        singleObjectBytes = singleObjectSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] confluentSerialize() {
+        return confluentSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] singleObjectSerialize() {
+        return singleObjectSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object confluentDeserialize() {
+        return confluentDeserializer.deserialize(TOPIC, confluentBytes);
+    }
+
+    @Benchmark
+    public SocialEventAvroModel singleObjectDeserialize() {
+        return singleObjectDeserializer.deserialize(TOPIC, singleObjectBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerdeThroughputBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
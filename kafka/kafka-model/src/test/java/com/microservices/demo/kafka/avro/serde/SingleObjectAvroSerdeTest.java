@@ -0,0 +1,107 @@
+package com.microservices.demo.kafka.avro.serde;
+
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the single-object Avro serializer and deserializer
+ */
+@DisplayName("Single-Object Avro Serde Tests")
+class SingleObjectAvroSerdeTest {
+
+    private static final String TOPIC = "social-events";
+
+    @Test
+    @DisplayName("Should round-trip records and write the same bytes as the generated encoder")
+    void shouldRoundTripRecords() throws Exception {
+        // Given
+        SingleObjectAvroSerializer<SocialEventAvroModel> serializer = new SingleObjectAvroSerializer<>();
+        SingleObjectAvroDeserializer<SocialEventAvroModel> deserializer = new SingleObjectAvroDeserializer<>();
+        deserializer.configure(Map.of(), false);
+        SocialEventAvroModel event = event(42L, "Kafka".repeat(1_000));
+
+        // When
+        byte[] bytes = serializer.serialize(TOPIC, event);
+        byte[] again = serializer.serialize(TOPIC, event(43L, "Java"));
+
+        // Then
+        ByteBuffer generated = event.toByteBuffer();
+        byte[] expected = new byte[generated.remaining()];
+        generated.get(expected);
+        assertArrayEquals(expected, bytes);
+        assertEquals(event, deserializer.deserialize(TOPIC, bytes));
+        assertEquals(event(43L, "Java"), deserializer.deserialize(TOPIC, again), "Reused buffer should be reset");
+        assertNull(serializer.serialize(TOPIC, null));
+        assertNull(deserializer.deserialize(TOPIC, null));
+    }
+
+    @Test
+    @DisplayName("Should reject messages with an unknown fingerprint or without the single-object marker")
+    void shouldRejectUnknownMessages() {
+        // Given
+        SingleObjectAvroDeserializer<SocialEventAvroModel> deserializer = new SingleObjectAvroDeserializer<>();
+        byte[] bytes = new SingleObjectAvroSerializer<SocialEventAvroModel>().serialize(TOPIC, event(1L, "Docker"));
+        bytes[2] ^= 0x7F;
+
+        // When / Then
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, bytes));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[]{0, 0, 0, 0, 1}));
+    }
+
+    @Test
+    @DisplayName("Should resolve a registered older writer schema against the reader class")
+    void shouldResolveOlderWriterSchema() {
+        // Given
+        Schema oldSchema = SchemaBuilder.record("SocialEventAvroModel")
+                .namespace("com.microservices.demo.kafka.avro.model")
+                .fields()
+                .requiredLong("userId")
+                .requiredLong("id")
+                .optionalString("text")
+                .optionalLong("createdAt")
+                .requiredString("source")
+                .endRecord();
+        LocalSchemaStore schemaStore = new LocalSchemaStore();
+        long fingerprint = schemaStore.register(oldSchema);
+        SingleObjectAvroDeserializer<SocialEventAvroModel> deserializer =
+                new SingleObjectAvroDeserializer<>(schemaStore);
+        deserializer.configure(Map.of(SingleObjectAvroSerdeConfig.READER_CLASS_CONFIG,
+                SocialEventAvroModel.class.getName()), false);
+
+        // Old writer: userId=7, id=8, text=null, createdAt=null, source="legacy"
+        ByteBuffer message = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN)
+                .put(SingleObjectAvroSerdeConfig.MAGIC_0).put(SingleObjectAvroSerdeConfig.MAGIC_1)
+                .putLong(fingerprint)
+                .put(new byte[]{14, 16, 0, 0, 12})
+                .put("legacy".getBytes());
+        byte[] bytes = new byte[message.position()];
+        message.flip().get(bytes);
+
+        // When
+        SocialEventAvroModel event = deserializer.deserialize(TOPIC, bytes);
+
+        // Then
+        assertEquals(7L, event.getUserId());
+        assertEquals(8L, event.getId());
+        assertNull(event.getText());
+    }
+
+    private static SocialEventAvroModel event(long id, String text) {
+        return SocialEventAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(1_000L)
+                .setText(text)
+                .setCreatedAt(1_700_000_000_000L)
+                .build();
+    }
+}
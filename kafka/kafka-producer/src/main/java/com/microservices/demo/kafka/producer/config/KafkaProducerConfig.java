@@ -2,13 +2,17 @@ package com.microservices.demo.kafka.producer.config;
 
 import com.microservices.demo.config.KafkaConfigData;
 import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData.DeliveryMode;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
 import java.io.Serializable;
@@ -22,15 +26,19 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
 
     private final KafkaProducerConfigData kafkaProducerConfigData;
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${schema-registry.auth.username:}")
     private String schemaRegistryUsername;
 
     @Value("${schema-registry.auth.password:}")
     private String schemaRegistryPassword;
 
-    public KafkaProducerConfig(KafkaConfigData configData, KafkaProducerConfigData producerConfigData) {
+    public KafkaProducerConfig(KafkaConfigData configData, KafkaProducerConfigData producerConfigData,
+                               MeterRegistry registry) {
         this.kafkaConfigData = configData;
         this.kafkaProducerConfigData = producerConfigData;
+        this.meterRegistry = registry;
     }
 
     @Bean
@@ -47,6 +55,12 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProducerConfigData.getAcks());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
+        // Idempotence (required by transactions) only works with acks=all
+        boolean idempotent = deliveryMode() != DeliveryMode.PLAIN;
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotent);
+        if (idempotent) {
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
 
         // Add Schema Registry authentication if credentials are provided
         if (schemaRegistryUsername != null && !schemaRegistryUsername.isEmpty()) {
@@ -57,13 +71,36 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         return props;
     }
 
+    @Bean(destroyMethod = "close")
+    public Serializer<Object> producerValueSerializer() {
+        return ProducerSerializers.newSerializer(producerConfig(), ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, false);
+    }
+
     @Bean
+    @SuppressWarnings("unchecked")
     public ProducerFactory<K, V> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+        DefaultKafkaProducerFactory<K, V> producerFactory = new DefaultKafkaProducerFactory<>(producerConfig());
+        // Every producer shares one value serializer, so its schema cache is filled once and can be warmed
+        // before the first send; it is already configured, and closed with the context rather than a producer
+        producerFactory.setValueSerializer((Serializer<V>) (Serializer<?>) ProducerSerializers.shared(
+                producerValueSerializer()));
+        producerFactory.setConfigureSerializers(false);
+        if (deliveryMode() == DeliveryMode.TRANSACTIONAL) {
+            producerFactory.setTransactionIdPrefix(kafkaProducerConfigData.getTransactionIdPrefix());
+        }
+        // Bridges the client's internal producer metrics (batch-size-avg, record-queue-time-avg,
+        // compression-rate-avg, buffer-available-bytes, ...) into Micrometer as kafka.producer.*
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
     }
 
     @Bean
     public KafkaTemplate<K, V> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    private DeliveryMode deliveryMode() {
+        return kafkaProducerConfigData.getDeliveryMode() == null
+                ? DeliveryMode.IDEMPOTENT : kafkaProducerConfigData.getDeliveryMode();
+    }
 }
@@ -0,0 +1,56 @@
+package com.microservices.demo.kafka.producer.config;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+
+/**
+ * Builds serializers the way a producer does from its configuration, for code that serializes records
+ * outside of the producer itself or hands one serializer to several producers.
+ */
+public final class ProducerSerializers {
+
+    private ProducerSerializers() {
+    }
+
+    /**
+     * @param configs     producer configuration
+     * @param classConfig the serializer class property, key.serializer or value.serializer
+     * @param isKey       whether the serializer is for keys
+     * @return a new serializer of the configured class, configured with the producer configuration
+     */
+    @SuppressWarnings("unchecked")
+    public static Serializer<Object> newSerializer(Map<String, Object> configs, String classConfig, boolean isKey) {
+        Object serializerClass = configs.get(classConfig);
+        try {
+            Serializer<Object> serializer = serializerClass instanceof Class<?> clazz
+                    ? (Serializer<Object>) Utils.newInstance(clazz)
+                    : Utils.newInstance(serializerClass.toString(), Serializer.class);
+            serializer.configure(configs, isKey);
+            return serializer;
+        } catch (ClassNotFoundException e) {
+            throw new ConfigException(classConfig, serializerClass, "Unknown serializer class");
+        }
+    }
+
+    /**
+     * @return a view of the serializer that leaves closing it to its owner, for handing one instance to
+     *         several producers, which each close their serializers
+     */
+    public static Serializer<Object> shared(Serializer<Object> serializer) {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(String topic, Object data) {
+                return serializer.serialize(topic, data);
+            }
+
+            @Override
+            public byte[] serialize(String topic, Headers headers, Object data) {
+                return serializer.serialize(topic, headers, data);
+            }
+        };
+    }
+}
@@ -1,9 +1,30 @@
 package com.microservices.demo.kafka.producer.config.service;
 
 import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.RecordMetadata;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface KafkaProducer<K extends Serializable, V extends SpecificRecordBase> {
+    /**
+     * Sends a record without reporting its outcome to the caller; failures are logged. Waits for capacity
+     * instead of rejecting the record when the producer is at its in-flight limit.
+     */
     void send(String topicName, K key, V message);
+
+    /**
+     * Sends a record and completes with its metadata once acknowledged by the broker.
+     * If the producer is at its in-flight limit the returned future is already failed with a
+     * {@link com.microservices.demo.kafka.producer.exception.ProducerBackpressureException}.
+     */
+    CompletableFuture<RecordMetadata> sendAsync(String topicName, K key, V message);
+
+    /**
+     * Sends all records, admitting the batch as a whole or rejecting it as a whole.
+     * Completes once every record was acknowledged or failed: with their metadata in order, or
+     * exceptionally with one of the failures if any record failed.
+     */
+    CompletableFuture<List<RecordMetadata>> sendAll(String topicName, List<Pair<K, V>> messages);
 }
@@ -0,0 +1,7 @@
+package com.microservices.demo.kafka.producer.config.service;
+
+/**
+ * Key and message of one record in a batch send.
+ */
+public record Pair<K, V>(K key, V value) {
+}
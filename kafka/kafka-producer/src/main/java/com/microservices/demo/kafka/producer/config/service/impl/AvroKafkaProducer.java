@@ -1,60 +1,276 @@
 package com.microservices.demo.kafka.producer.config.service.impl;
 
+import com.microservices.demo.common.latency.OriginTimestamp;
+import com.microservices.demo.common.logging.SampledLogger;
+import com.microservices.demo.config.KafkaProducerConfigData;
 import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.exception.ProducerBackpressureException;
+import com.microservices.demo.kafka.producer.exception.RecordSpilledException;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.PartitionRouter;
+import com.microservices.demo.kafka.producer.spill.RecordSpill;
 import jakarta.annotation.PreDestroy;
+import org.apache.avro.specific.SpecificData;
 import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Generic Kafka producer for Avro-serialized messages.
  * Supports any Avro model that extends SpecificRecordBase.
+ * <p>
+ * When max-in-flight-records is set, each send must first take a permit that is only returned
+ * once the broker acknowledges (or fails) the record. Admission never blocks longer than
+ * admission-timeout-ms, so a slow broker surfaces as {@link ProducerBackpressureException}
+ * to the caller instead of a thread stuck on a full buffer.memory. The fire-and-forget {@link #send}
+ * has no future to report a rejection on, so it keeps blocking until a permit frees up.
+ * <p>
+ * Records that are rejected, or fail with an error the {@link RecordSpill} accepts, are handed to it; if it
+ * keeps them, the caller's future fails with {@link RecordSpilledException} instead of the original error.
+ * A send can fail on the producer's I/O thread long after the caller got its value back and possibly
+ * reused it, so while the spill keeps records each value is deep-copied before it is sent, and the copy is
+ * what gets spilled.
+ * <p>
+ * Once closed, sends fail with {@link IllegalStateException} instead of lazily creating a new producer.
  *
  * @param <K> Key type
  * @param <V> Value type (Avro model)
  */
 @Service
+@ConditionalOnExpression("!'${kafka-producer-config.delivery-mode:idempotent}'.equalsIgnoreCase('transactional')"
+        + " and ${kafka-producer-config.producer-pool-size:1} <= 1")
 public class AvroKafkaProducer<K extends Serializable, V extends SpecificRecordBase>
         implements KafkaProducer<K, V> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AvroKafkaProducer.class);
+    private static final SampledLogger SEND_LOG = SampledLogger.rateLimited(LOG, 1);
+    private static final SampledLogger ERROR_LOG = SampledLogger.rateLimited(LOG, 10);
+    private static final SampledLogger METADATA_LOG = SampledLogger.sampled(LOG, 1000);
 
     private final KafkaTemplate<K, V> kafkaTemplate;
+    private final ProducerMetrics producerMetrics;
+    private final PartitionRouter partitionRouter;
+    private final RecordSpill recordSpill;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlightRecords;
+    private final long admissionTimeoutNanos;
+    private final boolean copyValues;
+    private volatile boolean closed;
 
-    public AvroKafkaProducer(KafkaTemplate<K, V> template) {
+    public AvroKafkaProducer(KafkaTemplate<K, V> template,
+                             KafkaProducerConfigData producerConfigData,
+                             ProducerMetrics metrics,
+                             PartitionRouter router,
+                             RecordSpill spill) {
         this.kafkaTemplate = template;
+        this.producerMetrics = metrics;
+        this.partitionRouter = router;
+        this.recordSpill = spill;
+        this.copyValues = spill.keepsRecords();
+        this.maxInFlightRecords = producerConfigData.getMaxInFlightRecords() == null
+                ? 0 : producerConfigData.getMaxInFlightRecords();
+        this.inFlightPermits = maxInFlightRecords > 0 ? new Semaphore(maxInFlightRecords) : null;
+        this.admissionTimeoutNanos = producerConfigData.getAdmissionTimeoutMs() == null
+                ? 0 : TimeUnit.MILLISECONDS.toNanos(producerConfigData.getAdmissionTimeoutMs());
     }
 
     @Override
     public void send(String topicName, K key, V message) {
-        LOG.info("Sending event='{}' to topic='{}'", message, topicName);
-        CompletableFuture<SendResult<K, V>> kafkaResultFuture =
-                kafkaTemplate.send(topicName, key, message);
-        addCallback(topicName, message, kafkaResultFuture);
+        if (closed) {
+            throw closedException();
+        }
+        if (!admitBlocking()) {
+            ProducerBackpressureException interrupted = new ProducerBackpressureException(
+                    "Interrupted while waiting for an in-flight permit");
+            ERROR_LOG.error("Dropped event with key {} to topic {}", key, topicName, interrupted);
+            spillOrCause(unsentRecord(topicName, key, message), interrupted);
+            return;
+        }
+        SEND_LOG.info("Sending event='{}' to topic='{}'", message, topicName);
+        // Failures are logged and spilled by the send callback
+        doSend(topicName, key, message);
+    }
+
+    @Override
+    public CompletableFuture<RecordMetadata> sendAsync(String topicName, K key, V message) {
+        if (closed) {
+            return CompletableFuture.failedFuture(closedException());
+        }
+        if (!admit(1)) {
+            return CompletableFuture.failedFuture(spillOrCause(unsentRecord(topicName, key, message), rejected(1)));
+        }
+        SEND_LOG.info("Sending event='{}' to topic='{}'", message, topicName);
+        return doSend(topicName, key, message);
+    }
+
+    @Override
+    public CompletableFuture<List<RecordMetadata>> sendAll(String topicName, List<Pair<K, V>> messages) {
+        if (closed) {
+            return CompletableFuture.failedFuture(closedException());
+        }
+        int count = messages.size();
+        if (!admit(count)) {
+            ProducerBackpressureException rejected = rejected(count);
+            boolean spilled = true;
+            for (Pair<K, V> message : messages) {
+                spilled &= recordSpill.spill(unsentRecord(topicName, message.key(), message.value()), rejected);
+            }
+            return CompletableFuture.failedFuture(spilled ? new RecordSpilledException(rejected) : rejected);
+        }
+        SEND_LOG.info("Sending {} events to topic='{}'", count, topicName);
+        List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>(count);
+        for (Pair<K, V> message : messages) {
+            futures.add(doSend(topicName, message.key(), message.value()));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
     }
 
     @PreDestroy
     public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         if (kafkaTemplate != null) {
             LOG.info("Closing Kafka producer!");
             kafkaTemplate.destroy();
         }
     }
 
-    private void addCallback(String topicName, V message,
-                             CompletableFuture<SendResult<K, V>> kafkaResultFuture) {
+    private CompletableFuture<RecordMetadata> doSend(String topicName, K key, V message) {
+        ProducerRecord<K, V> record = newRecord(topicName, key, message);
+        long sendStartNanos = System.nanoTime();
+        CompletableFuture<SendResult<K, V>> kafkaResultFuture;
+        try {
+            kafkaResultFuture = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            // Serialization or metadata failures are thrown before the record reaches the accumulator
+            release();
+            ERROR_LOG.error("Error while sending event {} to topic {}", message, topicName, e);
+            return CompletableFuture.failedFuture(spillOrCause(record, e));
+        }
+        return addCallback(record, sendStartNanos, kafkaResultFuture);
+    }
+
+    private ProducerRecord<K, V> newRecord(String topicName, K key, V message) {
+        Headers headers = originHeaders();
+        Integer partition = partitionRouter.route(topicName, key, headers);
+        return new ProducerRecord<>(topicName, partition, key, copyValues ? copy(message) : message, headers);
+    }
+
+    /**
+     * @return a record that admission turned away, built only for the spill; it is not routed, so keys
+     * that were never sent do not count towards the router's hot keys
+     */
+    private ProducerRecord<K, V> unsentRecord(String topicName, K key, V message) {
+        return new ProducerRecord<>(topicName, null, key, copyValues ? copy(message) : message, originHeaders());
+    }
+
+    private static Headers originHeaders() {
+        Headers headers = new RecordHeaders();
+        // Stamped for end-to-end latency measurement by the consumers
+        headers.add(OriginTimestamp.HEADER, OriginTimestamp.encode(OriginTimestamp.currentMicros()));
+        return headers;
+    }
+
+    private Throwable spillOrCause(ProducerRecord<K, V> record, Throwable cause) {
+        return recordSpill.spill(record, cause) ? new RecordSpilledException(cause) : cause;
+    }
+
+    private boolean admit(int count) {
+        producerMetrics.recordsInFlight(count);
+        if (inFlightPermits == null || inFlightPermits.tryAcquire(count)) {
+            return true;
+        }
+        if (admissionTimeoutNanos > 0 && count <= maxInFlightRecords) {
+            long start = System.nanoTime();
+            try {
+                boolean acquired = inFlightPermits.tryAcquire(count, admissionTimeoutNanos, TimeUnit.NANOSECONDS);
+                producerMetrics.recordAdmissionWait(System.nanoTime() - start);
+                if (acquired) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        producerMetrics.recordsInFlight(-count);
+        producerMetrics.incrementRejected(count);
+        return false;
+    }
+
+    private boolean admitBlocking() {
+        producerMetrics.recordsInFlight(1);
+        if (inFlightPermits == null || inFlightPermits.tryAcquire()) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            inFlightPermits.acquire();
+            producerMetrics.recordAdmissionWait(System.nanoTime() - start);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            producerMetrics.recordsInFlight(-1);
+            producerMetrics.incrementRejected(1);
+            return false;
+        }
+    }
+
+    private void release() {
+        producerMetrics.recordCompleted();
+        if (inFlightPermits != null) {
+            inFlightPermits.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V copy(V message) {
+        return (V) SpecificData.getForSchema(message.getSchema()).deepCopy(message.getSchema(), message);
+    }
+
+    private static IllegalStateException closedException() {
+        return new IllegalStateException("Kafka producer is closed");
+    }
+
+    private ProducerBackpressureException rejected(int count) {
+        return new ProducerBackpressureException("Rejected " + count + " record(s): "
+                + producerMetrics.getInFlightRecords() + " in flight, limit " + maxInFlightRecords);
+    }
+
+    private CompletableFuture<RecordMetadata> addCallback(ProducerRecord<K, V> record, long sendStartNanos,
+                                                         CompletableFuture<SendResult<K, V>> kafkaResultFuture) {
+        CompletableFuture<RecordMetadata> metadataFuture = new CompletableFuture<>();
         kafkaResultFuture.whenComplete((result, throwable) -> {
+            release();
             if (throwable != null) {
-                LOG.error("Error while sending event {} to topic {}", message.toString(), topicName, throwable);
-            } else {
-                RecordMetadata metadata = result.getRecordMetadata();
+                producerMetrics.recordSendError(throwable);
+                // Only the key: unless copied, the value may have been reused by the caller since
+                ERROR_LOG.error("Error while sending event with key {} to topic {}", record.key(), record.topic(),
+                        throwable);
+                metadataFuture.completeExceptionally(spillOrCause(record, throwable));
+                return;
+            }
+            RecordMetadata metadata = result.getRecordMetadata();
+            producerMetrics.recordAcknowledged(metadata, sendStartNanos);
+            if (METADATA_LOG.isDebugEnabled()) {
                 LOG.debug("Received new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}, at time {}",
                         metadata.topic(),
                         metadata.partition(),
@@ -62,6 +278,8 @@ public class AvroKafkaProducer<K extends Serializable, V extends SpecificRecordB
                         metadata.timestamp(),
                         System.nanoTime());
             }
+            metadataFuture.complete(metadata);
         });
+        return metadataFuture;
     }
 }
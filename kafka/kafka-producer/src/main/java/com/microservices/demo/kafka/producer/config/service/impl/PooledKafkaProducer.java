@@ -0,0 +1,156 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData.PoolRouting;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.KeyHashing;
+import com.microservices.demo.kafka.producer.partition.PartitionRouter;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import com.microservices.demo.kafka.producer.spill.RecordSpill;
+import jakarta.annotation.PreDestroy;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Spreads sends over producer-pool-size independent Kafka producers, so that many sending threads do not
+ * all contend on the record accumulator of a single producer.
+ * <p>
+ * With {@link PoolRouting#THREAD} routing a thread always uses the same producer; with
+ * {@link PoolRouting#PARTITION} routing (the default) a key's default partition always maps to the same
+ * producer, so per-key ordering is kept and each producer only builds batches for its own partitions.
+ * The default partition is computed against the topic's live partition count from
+ * {@link TopicPartitionCounts}, so it follows topic expansion; until the count is known keys are spread by
+ * hash alone. Pools larger than the topic's partition count leave producers idle in partition mode.
+ * <p>
+ * Each pooled producer is an {@link AvroKafkaProducer} with its own client id, buffer memory and
+ * max-in-flight-records limit; all of them report to the same {@link ProducerMetrics}.
+ *
+ * @param <K> Key type
+ * @param <V> Value type (Avro model)
+ */
+@Service
+@ConditionalOnExpression("!'${kafka-producer-config.delivery-mode:idempotent}'.equalsIgnoreCase('transactional')"
+        + " and ${kafka-producer-config.producer-pool-size:1} > 1")
+public class PooledKafkaProducer<K extends Serializable, V extends SpecificRecordBase>
+        implements KafkaProducer<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledKafkaProducer.class);
+
+    private static final String CLIENT_ID_PREFIX = "producer-pool-";
+
+    private final List<ProducerFactory<K, V>> producerFactories;
+    private final List<AvroKafkaProducer<K, V>> producers;
+    private final PoolRouting routing;
+    private final TopicPartitionCounts partitionCounts;
+
+    public PooledKafkaProducer(ProducerFactory<K, V> factory,
+                               TopicPartitionCounts counts,
+                               KafkaProducerConfigData producerConfigData,
+                               ProducerMetrics metrics,
+                               PartitionRouter router,
+                               RecordSpill spill) {
+        int poolSize = Math.max(1, producerConfigData.getProducerPoolSize());
+        this.routing = producerConfigData.getProducerPoolRouting() == null
+                ? PoolRouting.PARTITION : producerConfigData.getProducerPoolRouting();
+        this.partitionCounts = counts;
+        this.producerFactories = new ArrayList<>(poolSize);
+        this.producers = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            ProducerFactory<K, V> pooledFactory = factory.copyWithConfigurationOverride(
+                    Map.of(ProducerConfig.CLIENT_ID_CONFIG, CLIENT_ID_PREFIX + i));
+            producerFactories.add(pooledFactory);
+            producers.add(new AvroKafkaProducer<>(new KafkaTemplate<>(pooledFactory), producerConfigData, metrics,
+                    router, spill));
+        }
+        LOG.info("Kafka producer pool of {} producers routing by {}", poolSize, routing);
+    }
+
+    @Override
+    public void send(String topicName, K key, V message) {
+        producers.get(select(topicName, key)).send(topicName, key, message);
+    }
+
+    @Override
+    public CompletableFuture<RecordMetadata> sendAsync(String topicName, K key, V message) {
+        return producers.get(select(topicName, key)).sendAsync(topicName, key, message);
+    }
+
+    @Override
+    public CompletableFuture<List<RecordMetadata>> sendAll(String topicName, List<Pair<K, V>> messages) {
+        if (routing == PoolRouting.THREAD) {
+            return producers.get(byThread()).sendAll(topicName, messages);
+        }
+        // One sendAll per producer keeps admission all-or-nothing per producer
+        int[] owners = new int[messages.size()];
+        List<List<Pair<K, V>>> groups = new ArrayList<>(producers.size());
+        for (int i = 0; i < producers.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            owners[i] = select(topicName, messages.get(i).key());
+            groups.get(owners[i]).add(messages.get(i));
+        }
+        List<CompletableFuture<List<RecordMetadata>>> groupResults = new ArrayList<>(producers.size());
+        for (int i = 0; i < producers.size(); i++) {
+            groupResults.add(groups.get(i).isEmpty()
+                    ? CompletableFuture.completedFuture(List.of())
+                    : producers.get(i).sendAll(topicName, groups.get(i)));
+        }
+        return CompletableFuture.allOf(groupResults.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    int[] cursors = new int[producers.size()];
+                    List<RecordMetadata> results = new ArrayList<>(owners.length);
+                    for (int owner : owners) {
+                        results.add(groupResults.get(owner).join().get(cursors[owner]++));
+                    }
+                    return results;
+                });
+    }
+
+    /**
+     * Applies producer config overrides to every pooled producer; each is recreated on its next send.
+     */
+    public void reconfigure(Map<String, Object> configs) {
+        for (ProducerFactory<K, V> pooledFactory : producerFactories) {
+            pooledFactory.updateConfigs(configs);
+            pooledFactory.reset();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        LOG.info("Closing Kafka producer pool!");
+        producers.forEach(AvroKafkaProducer::close);
+        producerFactories.forEach(ProducerFactory::reset);
+    }
+
+    private int select(String topicName, K key) {
+        if (routing == PoolRouting.THREAD || key == null) {
+            return byThread();
+        }
+        int keyHash = KeyHashing.hash(key);
+        int numPartitions = partitionCounts.partitionCount(topicName);
+        return numPartitions > 0
+                ? KeyHashing.defaultPartition(keyHash, numPartitions) % producers.size()
+                : KeyHashing.defaultPartition(keyHash, producers.size());
+    }
+
+    private int byThread() {
+        return (int) (Thread.currentThread().threadId() % producers.size());
+    }
+}
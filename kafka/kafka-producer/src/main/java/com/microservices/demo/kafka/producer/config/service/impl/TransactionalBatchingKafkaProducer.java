@@ -0,0 +1,338 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.common.latency.OriginTimestamp;
+import com.microservices.demo.common.logging.SampledLogger;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.service.KafkaProducer;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.PartitionRouter;
+import jakarta.annotation.PreDestroy;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Exactly-once producer that amortizes transaction overhead by grouping sends into one open transaction,
+ * committed once it holds transaction-max-records records or is transaction-max-interval-ms old.
+ * <p>
+ * Sends from any number of threads share the open transaction under a read lock; the commit takes the
+ * write lock, so no record can be sent while the transaction is being committed and a new one begun.
+ * Returned futures complete only once the enclosing transaction commits, and fail if it is aborted,
+ * so a caller never sees a record as sent unless it is visible to read_committed consumers.
+ * A {@link #sendAll} batch is always contained in a single transaction. Once closed, sends fail with
+ * {@link IllegalStateException} rather than creating a new producer.
+ */
+@Service
+@ConditionalOnProperty(name = "kafka-producer-config.delivery-mode", havingValue = "transactional")
+public class TransactionalBatchingKafkaProducer<K extends Serializable, V extends SpecificRecordBase>
+        implements KafkaProducer<K, V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionalBatchingKafkaProducer.class);
+    private static final SampledLogger ERROR_LOG = SampledLogger.rateLimited(LOG, 10);
+
+    private final ProducerFactory<K, V> producerFactory;
+    private final ProducerMetrics producerMetrics;
+    private final PartitionRouter partitionRouter;
+    private final int maxRecords;
+    private final long maxIntervalNanos;
+    private final ReadWriteLock transactionLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService commitScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("kafka-tx-commit").daemon(true).factory());
+    private volatile Producer<K, V> producer;
+    private volatile OpenTransaction transaction;
+    private volatile boolean closed;
+
+    public TransactionalBatchingKafkaProducer(ProducerFactory<K, V> factory,
+                                              KafkaProducerConfigData producerConfigData,
+                                              ProducerMetrics metrics,
+                                              PartitionRouter router) {
+        this.producerFactory = factory;
+        this.producerMetrics = metrics;
+        this.partitionRouter = router;
+        this.maxRecords = producerConfigData.getTransactionMaxRecords();
+        long maxIntervalMs = producerConfigData.getTransactionMaxIntervalMs();
+        this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(maxIntervalMs);
+        commitScheduler.scheduleWithFixedDelay(this::commitIfExpired, maxIntervalMs, maxIntervalMs,
+                TimeUnit.MILLISECONDS);
+        LOG.info("Transactional producer committing every {} records or {} ms", maxRecords, maxIntervalMs);
+    }
+
+    @Override
+    public void send(String topicName, K key, V message) {
+        sendAsync(topicName, key, message);
+    }
+
+    @Override
+    public CompletableFuture<RecordMetadata> sendAsync(String topicName, K key, V message) {
+        CompletableFuture<RecordMetadata> result;
+        boolean commitDue;
+        try {
+            lockOpenTransaction();
+        } catch (KafkaException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            result = doSend(topicName, key, message);
+            commitDue = transaction.size() >= maxRecords;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        if (commitDue) {
+            commit(false);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<List<RecordMetadata>> sendAll(String topicName, List<Pair<K, V>> messages) {
+        List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>(messages.size());
+        boolean commitDue;
+        try {
+            lockOpenTransaction();
+        } catch (KafkaException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            for (Pair<K, V> message : messages) {
+                futures.add(doSend(topicName, message.key(), message.value()));
+            }
+            commitDue = transaction.size() >= maxRecords;
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+        if (commitDue) {
+            commit(false);
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (closed) {
+            return;
+        }
+        LOG.info("Closing transactional Kafka producer!");
+        // Sends that already hold the read lock still make it into the final commit
+        closed = true;
+        commitScheduler.shutdownNow();
+        commit(true);
+        transactionLock.writeLock().lock();
+        try {
+            if (producer != null) {
+                producer.close();
+                producer = null;
+            }
+        } finally {
+            transactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called holding the read lock.
+     */
+    private CompletableFuture<RecordMetadata> doSend(String topicName, K key, V message) {
+        Headers headers = new RecordHeaders();
+        headers.add(OriginTimestamp.HEADER, OriginTimestamp.encode(OriginTimestamp.currentMicros()));
+        Integer partition = partitionRouter.route(topicName, key, headers);
+        ProducerRecord<K, V> record = new ProducerRecord<>(topicName, partition, key, message, headers);
+        PendingSend pending = new PendingSend(System.nanoTime());
+        producerMetrics.recordsInFlight(1);
+        OpenTransaction current = transaction;
+        current.add(pending);
+        try {
+            producer.send(record, (metadata, e) -> {
+                if (e != null) {
+                    // The commit will fail and abort the whole transaction
+                    ERROR_LOG.error("Error while sending event {} to topic {}", message, topicName, e);
+                } else {
+                    pending.metadata = metadata;
+                }
+            });
+        } catch (KafkaException e) {
+            // Serialization or state errors: the commit cannot succeed any more
+            current.failed = true;
+            ERROR_LOG.error("Error while sending event {} to topic {}", message, topicName, e);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Returns holding the read lock on an open transaction, beginning one if a failed commit left none.
+     *
+     * @throws IllegalStateException if the producer is closed
+     */
+    private void lockOpenTransaction() {
+        while (true) {
+            if (transaction == null) {
+                transactionLock.writeLock().lock();
+                try {
+                    checkOpen();
+                    if (transaction == null) {
+                        beginTransaction();
+                    }
+                } finally {
+                    transactionLock.writeLock().unlock();
+                }
+            }
+            transactionLock.readLock().lock();
+            if (closed) {
+                transactionLock.readLock().unlock();
+                checkOpen();
+            }
+            if (transaction != null) {
+                return;
+            }
+            transactionLock.readLock().unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Transactional Kafka producer is closed");
+        }
+    }
+
+    /**
+     * Must be called holding the write lock.
+     */
+    private void beginTransaction() {
+        if (producer == null) {
+            producer = producerFactory.createProducer();
+        }
+        producer.beginTransaction();
+        transaction = new OpenTransaction(System.nanoTime());
+    }
+
+    private void commitIfExpired() {
+        OpenTransaction current = transaction;
+        if (current != null && current.size() > 0 && System.nanoTime() - current.startNanos >= maxIntervalNanos) {
+            commit(true);
+        }
+    }
+
+    /**
+     * Commits the open transaction and begins the next one.
+     *
+     * @param force commit even if the transaction is below transaction-max-records
+     */
+    private void commit(boolean force) {
+        transactionLock.writeLock().lock();
+        try {
+            OpenTransaction current = transaction;
+            if (current == null || current.size() == 0 || (!force && current.size() < maxRecords)) {
+                return;
+            }
+            long commitStart = System.nanoTime();
+            try {
+                if (current.failed) {
+                    throw new KafkaException("A send in the transaction failed");
+                }
+                producer.commitTransaction();
+                producerMetrics.recordTransactionCommit(current.size(), System.nanoTime() - commitStart);
+                current.complete(producerMetrics);
+            } catch (KafkaException e) {
+                ERROR_LOG.error("Aborting transaction of {} records ({})", current.size(), e.getMessage(), e);
+                abort();
+                current.fail(e, producerMetrics);
+            }
+            transaction = null;
+            if (!commitScheduler.isShutdown()) {
+                beginTransaction();
+            }
+        } catch (KafkaException e) {
+            LOG.error("Could not begin a new transaction", e);
+        } finally {
+            transactionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called holding the write lock.
+     */
+    private void abort() {
+        producerMetrics.incrementTransactionAborts();
+        try {
+            producer.abortTransaction();
+        } catch (KafkaException e) {
+            // Fenced or otherwise fatal: discard this producer, a new one is created for the next transaction
+            LOG.warn("Could not abort transaction, recreating producer: {}", e.getMessage());
+            try {
+                producer.close();
+            } catch (KafkaException ignored) {
+                // already broken
+            }
+            producer = null;
+        }
+    }
+
+    private static final class PendingSend {
+
+        private final CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        private final long sendStartNanos;
+        private volatile RecordMetadata metadata;
+
+        private PendingSend(long sendStartNanos) {
+            this.sendStartNanos = sendStartNanos;
+        }
+    }
+
+    private static final class OpenTransaction {
+
+        private final long startNanos;
+        private final ConcurrentLinkedQueue<PendingSend> sends = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile boolean failed;
+
+        private OpenTransaction(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        void add(PendingSend pending) {
+            sends.add(pending);
+            size.incrementAndGet();
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void complete(ProducerMetrics producerMetrics) {
+            for (PendingSend pending : sends) {
+                producerMetrics.recordCompleted();
+                producerMetrics.recordAcknowledged(pending.metadata, pending.sendStartNanos);
+                pending.future.complete(pending.metadata);
+            }
+        }
+
+        void fail(Throwable cause, ProducerMetrics producerMetrics) {
+            for (PendingSend pending : sends) {
+                producerMetrics.recordCompleted();
+                producerMetrics.recordSendError(cause);
+                pending.future.completeExceptionally(cause);
+            }
+        }
+    }
+}
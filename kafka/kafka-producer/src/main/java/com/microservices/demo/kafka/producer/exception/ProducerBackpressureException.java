@@ -0,0 +1,12 @@
+package com.microservices.demo.kafka.producer.exception;
+
+/**
+ * Signals that a send was not admitted because the producer already has the maximum number of
+ * unacknowledged records in flight. Callers should slow down or shed load rather than retry immediately.
+ */
+public class ProducerBackpressureException extends RuntimeException {
+
+    public ProducerBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.microservices.demo.kafka.producer.exception;
+
+/**
+ * Signals that a record could not be sent now but was appended to the local spill journal, from which it
+ * will be re-published once the cluster is reachable. The cause is the original send failure.
+ */
+public class RecordSpilledException extends RuntimeException {
+
+    public RecordSpilledException(Throwable cause) {
+        super("Record spilled to the local journal: " + cause.getMessage(), cause);
+    }
+}
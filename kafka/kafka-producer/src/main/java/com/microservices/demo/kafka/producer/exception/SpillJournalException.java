@@ -0,0 +1,15 @@
+package com.microservices.demo.kafka.producer.exception;
+
+/**
+ * Signals that the local spill journal could not be opened, read or written.
+ */
+public class SpillJournalException extends RuntimeException {
+
+    public SpillJournalException(String message) {
+        super(message);
+    }
+
+    public SpillJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,284 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Producer-side meters recorded by the application. The Kafka client's own producer metrics
+ * (batch-size-avg, record-queue-time-avg, compression-rate-avg, buffer-available-bytes, ...) are
+ * bridged separately as {@code kafka.producer.*} by the listener registered in KafkaProducerConfig.
+ * <p>
+ * Partition imbalance is computed every {@link #BALANCE_WINDOW} on a scheduler, against the topic's live
+ * partition count; the gauge only reads the last result, so scrapes never reset each other's window.
+ */
+@Component
+public class ProducerMetrics {
+
+    private static final Duration ACK_LATENCY_WINDOW = Duration.ofSeconds(30);
+    private static final Duration BALANCE_WINDOW = Duration.ofSeconds(10);
+
+    private final MeterRegistry meterRegistry;
+    private final LongAdder inFlightRecords = new LongAdder();
+    private final Timer admissionWaitTimer;
+    private final Counter admissionRejectedCounter;
+    private final Timer ackLatencyTimer;
+    private final Timer transactionCommitTimer;
+    private final DistributionSummary transactionSizeSummary;
+    private final Counter transactionAbortCounter;
+    private final Map<TopicPartition, PartitionMeters> partitionMeters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, TopicBalance> topicBalances = new ConcurrentHashMap<>();
+    private final Counter hotKeyRecordsCounter;
+    private final TopicPartitionCounts partitionCounts;
+    private final ScheduledExecutorService balanceScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("kafka-producer-balance").daemon(true).factory());
+    private volatile double batchSizeBytes;
+
+    public ProducerMetrics(MeterRegistry meterRegistry, TopicPartitionCounts topicPartitionCounts,
+                           KafkaProducerConfigData producerConfigData) {
+        this.meterRegistry = meterRegistry;
+        this.partitionCounts = topicPartitionCounts;
+
+        Gauge.builder("kafka.producer.in.flight", inFlightRecords, LongAdder::sum)
+                .description("Records sent but not yet acknowledged by the broker")
+                .register(meterRegistry);
+
+        this.admissionWaitTimer = Timer.builder("kafka.producer.admission.wait")
+                .description("Time senders waited for in-flight capacity")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        this.admissionRejectedCounter = Counter.builder("kafka.producer.admission.rejected")
+                .description("Records rejected because the in-flight limit was reached")
+                .register(meterRegistry);
+
+        this.ackLatencyTimer = Timer.builder("kafka.producer.ack.latency")
+                .description("Time from send until the broker acknowledged the record")
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                // Short window so percentiles reflect the current linger/batch settings soon after a change
+                .distributionStatisticExpiry(ACK_LATENCY_WINDOW)
+                .register(meterRegistry);
+
+        this.transactionCommitTimer = Timer.builder("kafka.producer.transaction.commit.time")
+                .description("Time taken by commitTransaction, including the flush of the transaction's records")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        this.transactionSizeSummary = DistributionSummary.builder("kafka.producer.transaction.records")
+                .description("Records per committed transaction")
+                .register(meterRegistry);
+
+        this.transactionAbortCounter = Counter.builder("kafka.producer.transaction.aborts")
+                .description("Transactions aborted after a failed send or commit")
+                .register(meterRegistry);
+
+        this.hotKeyRecordsCounter = Counter.builder("kafka.producer.hot.key.records")
+                .description("Records of hot keys salted across several partitions")
+                .register(meterRegistry);
+
+        this.batchSizeBytes = (double) producerConfigData.getBatchSize() * producerConfigData.getBatchSizeBoostFactor();
+        Gauge.builder("kafka.producer.batch.fill.ratio", this, ProducerMetrics::getBatchFillRatio)
+                .description("Average batch size relative to the configured batch.size")
+                .register(meterRegistry);
+
+        balanceScheduler.scheduleAtFixedRate(this::sampleBalances, BALANCE_WINDOW.toMillis(),
+                BALANCE_WINDOW.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        balanceScheduler.shutdownNow();
+    }
+
+    public void recordsInFlight(int count) {
+        inFlightRecords.add(count);
+    }
+
+    public void recordCompleted() {
+        inFlightRecords.decrement();
+    }
+
+    public void recordAdmissionWait(long nanos) {
+        admissionWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void incrementRejected(int count) {
+        admissionRejectedCounter.increment(count);
+    }
+
+    public void recordAcknowledged(RecordMetadata metadata, long sendStartNanos) {
+        ackLatencyTimer.record(System.nanoTime() - sendStartNanos, TimeUnit.NANOSECONDS);
+        PartitionMeters meters = partitionMeters.computeIfAbsent(
+                new TopicPartition(metadata.topic(), metadata.partition()), this::newPartitionMeters);
+        meters.records.increment();
+        meters.bytes.increment(Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize()));
+    }
+
+    public void recordSendError(Throwable throwable) {
+        Throwable cause = unwrap(throwable);
+        errorCounters.computeIfAbsent(cause.getClass(), type -> Counter.builder("kafka.producer.send.errors")
+                .description("Records the broker did not acknowledge, by exception type")
+                .tag("exception", type.getSimpleName())
+                .register(meterRegistry)).increment();
+    }
+
+    public void incrementHotKeyRecords() {
+        hotKeyRecordsCounter.increment();
+    }
+
+    public void recordTransactionCommit(int records, long commitNanos) {
+        transactionCommitTimer.record(commitNanos, TimeUnit.NANOSECONDS);
+        transactionSizeSummary.record(records);
+    }
+
+    public void incrementTransactionAborts() {
+        transactionAbortCounter.increment();
+    }
+
+    public long getInFlightRecords() {
+        return inFlightRecords.sum();
+    }
+
+    /**
+     * Called when batch.size is changed at runtime, so the fill ratio stays relative to the current setting.
+     */
+    public void setBatchSize(int bytes) {
+        this.batchSizeBytes = bytes;
+    }
+
+    public double getBatchFillRatio() {
+        return averageClientMetric(meterRegistry, "kafka.producer.batch.size.avg") / batchSizeBytes;
+    }
+
+    public double getRecordQueueTimeMs() {
+        return averageClientMetric(meterRegistry, "kafka.producer.record.queue.time.avg");
+    }
+
+    public long getAcknowledgedCount() {
+        return ackLatencyTimer.count();
+    }
+
+    /**
+     * p99 acknowledgement latency over roughly the last 30 seconds.
+     */
+    public double getAckLatencyP99Ms() {
+        for (ValueAtPercentile percentile : ackLatencyTimer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Closes the current balance window of every topic.
+     */
+    void sampleBalances() {
+        topicBalances.values().forEach(TopicBalance::sample);
+    }
+
+    private PartitionMeters newPartitionMeters(TopicPartition topicPartition) {
+        String topic = topicPartition.topic();
+        String partition = String.valueOf(topicPartition.partition());
+        topicBalances.computeIfAbsent(topic, this::newTopicBalance);
+        return new PartitionMeters(
+                Counter.builder("kafka.producer.partition.records")
+                        .description("Records acknowledged per topic-partition")
+                        .tags("topic", topic, "partition", partition)
+                        .register(meterRegistry),
+                Counter.builder("kafka.producer.partition.bytes")
+                        .description("Serialized key and value bytes acknowledged per topic-partition")
+                        .baseUnit("bytes")
+                        .tags("topic", topic, "partition", partition)
+                        .register(meterRegistry));
+    }
+
+    private TopicBalance newTopicBalance(String topic) {
+        TopicBalance balance = new TopicBalance(topic);
+        Gauge.builder("kafka.producer.partition.imbalance", balance, TopicBalance::getImbalance)
+                .description("Records on the busiest partition relative to the per-partition mean over the last"
+                        + " 10 seconds; 1 is perfectly balanced")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        return balance;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof KafkaProducerException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static double averageClientMetric(MeterRegistry registry, String name) {
+        return registry.find(name).gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(value -> !Double.isNaN(value))
+                .average()
+                .orElse(Double.NaN);
+    }
+
+    private record PartitionMeters(Counter records, Counter bytes) {
+    }
+
+    /**
+     * Computes partition balance over the records acknowledged between two scheduled samples.
+     */
+    private final class TopicBalance {
+
+        private final String topic;
+        private final Map<Integer, Double> lastCounts = new HashMap<>();
+        private volatile double imbalance = Double.NaN;
+
+        private TopicBalance(String topic) {
+            this.topic = topic;
+        }
+
+        double getImbalance() {
+            return imbalance;
+        }
+
+        synchronized void sample() {
+            double sum = 0;
+            double max = 0;
+            int partitions = 0;
+            for (Map.Entry<TopicPartition, PartitionMeters> entry : partitionMeters.entrySet()) {
+                if (!entry.getKey().topic().equals(topic)) {
+                    continue;
+                }
+                double count = entry.getValue().records().count();
+                Double last = lastCounts.put(entry.getKey().partition(), count);
+                double delta = count - (last == null ? 0 : last);
+                sum += delta;
+                max = Math.max(max, delta);
+                partitions++;
+            }
+            // Partitions that never received a record still count towards the mean
+            double mean = sum / Math.max(partitions, partitionCounts.partitionCount(topic));
+            imbalance = mean == 0 ? Double.NaN : max / mean;
+        }
+    }
+}
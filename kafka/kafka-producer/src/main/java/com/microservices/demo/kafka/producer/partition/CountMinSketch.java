@@ -0,0 +1,68 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count-min sketch estimating per-key frequencies in fixed memory.
+ * Estimates never undercount; they overcount by at most total/width with high probability.
+ * {@link #decay()} halves all counters so the sketch tracks recent rather than all-time frequency.
+ */
+public final class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param depth number of rows (independent hash functions), at most 4
+     */
+    public CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("depth must be between 1 and " + SEEDS.length);
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = roundedWidth - 1;
+        this.counters = new AtomicLongArray(roundedWidth * depth);
+    }
+
+    /**
+     * Adds one occurrence of the key and returns its new estimated count.
+     */
+    public long increment(long keyHash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, keyHash)));
+        }
+        return estimate;
+    }
+
+    public long estimate(long keyHash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, keyHash)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter. Concurrent increments may be lost, which only makes estimates slightly low
+     * for the window in which the decay happens.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+
+    private int index(int row, long keyHash) {
+        long hash = (keyHash ^ SEEDS[row]) * 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return row * (widthMask + 1) + (int) (hash & widthMask);
+    }
+}
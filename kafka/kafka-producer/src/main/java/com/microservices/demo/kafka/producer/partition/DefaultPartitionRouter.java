@@ -0,0 +1,19 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Leaves every record to the producer's partitioner (murmur2 of the key).
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-producer-config.hot-key-partitioning-enabled", havingValue = "false",
+        matchIfMissing = true)
+public class DefaultPartitionRouter implements PartitionRouter {
+
+    @Override
+    public Integer route(String topic, Object key, Headers headers) {
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads hot keys over several partitions while every other key keeps the default partitioner's
+ * sticky per-key ordering.
+ * <p>
+ * Key frequencies are tracked in a decaying count-min sketch (halved every hot-key-window-ms). A key
+ * whose estimated share of recent records exceeds hot-key-share is salted: each of its records goes to
+ * one of hot-key-salt-partitions consecutive partitions, starting at the key's default partition, and
+ * carries the salt in the {@value #SALT_HEADER} header so consumers can tell salted records apart.
+ * Ordering of a hot key is only preserved within each salt.
+ * <p>
+ * Partitions are computed against the topic's live partition count from {@link TopicPartitionCounts}, so
+ * salt 0 is always the partition the producer's partitioner would pick. Until that count is known, and
+ * for topics with fewer than two partitions, hot keys are left to the partitioner too.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-producer-config.hot-key-partitioning-enabled", havingValue = "true")
+public class HotKeyPartitionRouter implements PartitionRouter {
+
+    public static final String SALT_HEADER = "key-salt";
+
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SKETCH_DEPTH = 4;
+    private static final long MIN_HOT_COUNT = 100;
+
+    private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+    private final AtomicLong recentTotal = new AtomicLong();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final ProducerMetrics producerMetrics;
+    private final TopicPartitionCounts partitionCounts;
+    private final int saltPartitions;
+    private final double hotKeyShare;
+    private final long windowNanos;
+
+    public HotKeyPartitionRouter(TopicPartitionCounts counts,
+                                 KafkaProducerConfigData producerConfigData,
+                                 ProducerMetrics metrics) {
+        this.producerMetrics = metrics;
+        this.partitionCounts = counts;
+        this.saltPartitions = producerConfigData.getHotKeySaltPartitions();
+        this.hotKeyShare = producerConfigData.getHotKeyShare();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(producerConfigData.getHotKeyWindowMs());
+    }
+
+    @Override
+    public Integer route(String topic, Object key, Headers headers) {
+        if (key == null || saltPartitions < 2) {
+            return null;
+        }
+        decayIfWindowElapsed();
+        int keyHash = KeyHashing.hash(key);
+        long count = sketch.increment(keyHash);
+        long total = recentTotal.incrementAndGet();
+        if (count < MIN_HOT_COUNT || count < hotKeyShare * total) {
+            return null;
+        }
+        int numPartitions = partitionCounts.partitionCount(topic);
+        if (numPartitions < 2) {
+            return null;
+        }
+        int salt = ThreadLocalRandom.current().nextInt(Math.min(saltPartitions, numPartitions));
+        headers.add(SALT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(salt).array());
+        producerMetrics.incrementHotKeyRecords();
+        int defaultPartition = KeyHashing.defaultPartition(keyHash, numPartitions);
+        return (defaultPartition + salt) % numPartitions;
+    }
+
+    private void decayIfWindowElapsed() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            sketch.decay();
+            recentTotal.updateAndGet(total -> total >>> 1);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Kafka default partitioner's key hashing, applied to keys before serialization.
+ */
+public final class KeyHashing {
+
+    private KeyHashing() {
+    }
+
+    public static int hash(Object key) {
+        return Utils.murmur2(keyBytes(key));
+    }
+
+    public static int defaultPartition(int keyHash, int numPartitions) {
+        return Utils.toPositive(keyHash) % numPartitions;
+    }
+
+    /**
+     * Bytes the default serializers produce for the common key types, so that hashes match the
+     * partition the default partitioner chooses for the serialized key.
+     */
+    private static byte[] keyBytes(Object key) {
+        if (key instanceof Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+        if (key instanceof String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+        return ByteBuffer.allocate(Integer.BYTES).putInt(key.hashCode()).array();
+    }
+}
@@ -0,0 +1,15 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Chooses the partition of an outgoing record before it is handed to the Kafka producer.
+ */
+public interface PartitionRouter {
+
+    /**
+     * @param headers headers of the outgoing record; a router may add routing metadata to them
+     * @return the partition to send to, or {@code null} to leave it to the producer's partitioner
+     */
+    Integer route(String topic, Object key, Headers headers);
+}
@@ -0,0 +1,120 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live partition count of each topic, as the producers see it in their cluster metadata.
+ * <p>
+ * Topics are sized per topic-spec and can be expanded online, so routing by partition must not assume
+ * kafka-config.num-of-partitions. Counts are read from a dedicated metadata-only producer built from the
+ * service's producer configuration, which refreshes its metadata like every other producer. The first
+ * lookup of a topic waits for its metadata, as a first send does; afterwards the cached count is returned
+ * immediately and re-read in the background once it is older than {@value #REFRESH_INTERVAL_MS} ms.
+ */
+@Component
+public class TopicPartitionCounts {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicPartitionCounts.class);
+
+    public static final int UNKNOWN = -1;
+
+    private static final long REFRESH_INTERVAL_MS = 1_000;
+    private static final int METADATA_TIMEOUT_MS = 5_000;
+
+    private record Count(int partitions, long readAtNanos) {
+    }
+
+    private final Map<String, Object> metadataProducerConfigs;
+    private final Map<String, Count> counts = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("kafka-partition-counts").daemon(true).factory());
+    private volatile KafkaProducer<byte[], byte[]> metadataProducer;
+
+    public TopicPartitionCounts(ProducerFactory<?, ?> producerFactory) {
+        Map<String, Object> configs = new HashMap<>(producerFactory.getConfigurationProperties());
+        configs.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        configs.put(ProducerConfig.CLIENT_ID_CONFIG, "partition-metadata");
+        configs.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, METADATA_TIMEOUT_MS);
+        this.metadataProducerConfigs = configs;
+    }
+
+    /**
+     * @return the number of partitions of the topic, or {@link #UNKNOWN} if its metadata is not available
+     */
+    public int partitionCount(String topic) {
+        Count count = counts.get(topic);
+        if (count == null) {
+            return read(topic);
+        }
+        if (System.nanoTime() - count.readAtNanos() >= TimeUnit.MILLISECONDS.toNanos(REFRESH_INTERVAL_MS)
+                && refreshing.add(topic)) {
+            refresher.execute(() -> {
+                try {
+                    read(topic);
+                } finally {
+                    refreshing.remove(topic);
+                }
+            });
+        }
+        return count.partitions();
+    }
+
+    @PreDestroy
+    public void close() {
+        refresher.shutdownNow();
+        KafkaProducer<byte[], byte[]> producer = metadataProducer;
+        if (producer != null) {
+            producer.close(Duration.ofSeconds(1));
+        }
+    }
+
+    private int read(String topic) {
+        Count previous = counts.get(topic);
+        int partitions;
+        try {
+            partitions = producer().partitionsFor(topic).size();
+            if (previous != null && previous.partitions() != UNKNOWN && previous.partitions() != partitions) {
+                LOG.info("Topic {} now has {} partitions (was {})", topic, partitions, previous.partitions());
+            }
+        } catch (KafkaException e) {
+            // Keeps the last known count, and is cached too, so an unreachable cluster is not asked on every send
+            partitions = previous != null ? previous.partitions() : UNKNOWN;
+            LOG.warn("Could not read partition count of topic {}: {}", topic, e.getMessage());
+        }
+        counts.put(topic, new Count(partitions, System.nanoTime()));
+        return partitions;
+    }
+
+    private KafkaProducer<byte[], byte[]> producer() {
+        KafkaProducer<byte[], byte[]> producer = metadataProducer;
+        if (producer == null) {
+            synchronized (this) {
+                producer = metadataProducer;
+                if (producer == null) {
+                    producer = new KafkaProducer<>(metadataProducerConfigs, new ByteArraySerializer(),
+                            new ByteArraySerializer());
+                    metadataProducer = producer;
+                }
+            }
+        }
+        return producer;
+    }
+}
@@ -0,0 +1,255 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import com.microservices.demo.common.logging.SampledLogger;
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.ProducerSerializers;
+import com.microservices.demo.kafka.producer.exception.ProducerBackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spills records that failed with a retriable error (brokers unreachable, delivery timeout) or were not
+ * admitted because the producer was saturated to a {@link SpillJournal} under spill-directory.
+ * <p>
+ * Failed sends are reported on the producer's network thread, so {@link #spill} only queues the record;
+ * a dedicated writer thread serializes it and appends it to the journal. Records arriving while the
+ * queue is full are dropped and counted, like records that do not fit in the journal.
+ * <p>
+ * Every spill-drain-interval-ms a drainer re-publishes the journal in order, spill-drain-batch-records at
+ * a time, as raw bytes through its own producer built from the service's producer configuration. A batch
+ * is only committed once every record in it was acknowledged; a failed batch means the cluster is still
+ * unhealthy and is retried in the next interval, so re-published records are delivered at least once.
+ * Spilled records are delivered after records sent since, and keep their original timestamp and headers.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-producer-config.spill-enabled", havingValue = "true")
+public class JournalRecordSpill implements RecordSpill {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalRecordSpill.class);
+    private static final SampledLogger ERROR_LOG = SampledLogger.rateLimited(LOG, 1);
+
+    private static final Duration DRAIN_PRODUCER_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+    private static final int SPILL_QUEUE_RECORDS = 8192;
+    private static final long SPILL_QUEUE_POLL_MS = 100;
+
+    private final SpillJournal journal;
+    private final Serializer<Object> keySerializer;
+    private final Serializer<Object> valueSerializer;
+    private final Map<String, Object> drainProducerConfigs;
+    private final int drainBatchRecords;
+    private final Counter spilledCounter;
+    private final Counter droppedCounter;
+    private final Counter drainedCounter;
+    private final ScheduledExecutorService drainScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("kafka-spill-drainer").daemon(true).factory());
+    private final BlockingQueue<ProducerRecord<?, ?>> spillQueue = new ArrayBlockingQueue<>(SPILL_QUEUE_RECORDS);
+    private final Thread spillWriter;
+    private volatile boolean closed;
+    private KafkaProducer<byte[], byte[]> drainProducer;
+
+    public JournalRecordSpill(KafkaProducerConfigData producerConfigData,
+                              ProducerFactory<?, ?> producerFactory,
+                              MeterRegistry meterRegistry) {
+        Map<String, Object> configs = producerFactory.getConfigurationProperties();
+        this.keySerializer = ProducerSerializers.newSerializer(configs,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, true);
+        this.valueSerializer = ProducerSerializers.newSerializer(configs,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, false);
+        this.drainProducerConfigs = new HashMap<>(configs);
+        drainProducerConfigs.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        drainProducerConfigs.put(ProducerConfig.CLIENT_ID_CONFIG, "spill-drainer");
+        this.drainBatchRecords = producerConfigData.getSpillDrainBatchRecords();
+        this.journal = new SpillJournal(Path.of(producerConfigData.getSpillDirectory()),
+                producerConfigData.getSpillSegmentBytes(), producerConfigData.getSpillMaxSegments());
+
+        Gauge.builder("kafka.producer.spill.depth", journal, SpillJournal::getPendingRecords)
+                .description("Spilled records waiting to be re-published")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.spill.disk", journal, SpillJournal::getDiskBytes)
+                .description("Disk space taken by spill segments")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("kafka.producer.spill.corrupt", journal, SpillJournal::getCorruptRecords)
+                .description("Spilled records skipped on recovery because their checksum did not match")
+                .register(meterRegistry);
+        this.spilledCounter = Counter.builder("kafka.producer.spill.records")
+                .description("Records appended to the spill journal")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("kafka.producer.spill.dropped")
+                .description("Records lost because the spill queue or journal was full")
+                .register(meterRegistry);
+        this.drainedCounter = Counter.builder("kafka.producer.spill.drained")
+                .description("Spilled records re-published and acknowledged")
+                .register(meterRegistry);
+
+        Gauge.builder("kafka.producer.spill.queue", spillQueue, BlockingQueue::size)
+                .description("Records waiting to be written to the spill journal")
+                .register(meterRegistry);
+
+        this.spillWriter = Thread.ofPlatform().name("kafka-spill-writer").daemon(true).start(this::writeSpilled);
+        long drainIntervalMs = producerConfigData.getSpillDrainIntervalMs();
+        drainScheduler.scheduleWithFixedDelay(this::drain, drainIntervalMs, drainIntervalMs, TimeUnit.MILLISECONDS);
+        LOG.info("Spilling unsent records to {} (up to {} segments of {} bytes)",
+                producerConfigData.getSpillDirectory(), producerConfigData.getSpillMaxSegments(),
+                producerConfigData.getSpillSegmentBytes());
+    }
+
+    @Override
+    public boolean spill(ProducerRecord<?, ?> record, Throwable cause) {
+        if (!isSpillable(cause)) {
+            return false;
+        }
+        if (spillQueue.offer(record)) {
+            return true;
+        }
+        droppedCounter.increment();
+        ERROR_LOG.error("Spill queue full ({} records waiting for the journal), dropping record for topic {}",
+                spillQueue.size(), record.topic());
+        return false;
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        try {
+            spillWriter.join(DRAIN_PRODUCER_CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Records queued after the writer stopped still go to the journal before it is closed
+        for (ProducerRecord<?, ?> record; (record = spillQueue.poll()) != null; ) {
+            write(record);
+        }
+        drainScheduler.shutdownNow();
+        try {
+            if (!drainScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOG.warn("Spill drainer did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (drainProducer != null) {
+            drainProducer.close(DRAIN_PRODUCER_CLOSE_TIMEOUT);
+        }
+        journal.close();
+        LOG.info("Spill journal closed with {} records pending", journal.getPendingRecords());
+    }
+
+    private void writeSpilled() {
+        try {
+            while (!closed) {
+                ProducerRecord<?, ?> record = spillQueue.poll(SPILL_QUEUE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    write(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(ProducerRecord<?, ?> record) {
+        SpilledRecord spilled;
+        try {
+            spilled = new SpilledRecord(record.topic(), record.partition(),
+                    record.timestamp() != null ? record.timestamp() : System.currentTimeMillis(),
+                    keySerializer.serialize(record.topic(), record.headers(), record.key()),
+                    valueSerializer.serialize(record.topic(), record.headers(), record.value()),
+                    record.headers().toArray());
+        } catch (RuntimeException e) {
+            droppedCounter.increment();
+            ERROR_LOG.error("Could not serialize record for topic {} to spill it", record.topic(), e);
+            return;
+        }
+        if (journal.append(spilled)) {
+            spilledCounter.increment();
+            return;
+        }
+        droppedCounter.increment();
+        ERROR_LOG.error("Spill journal full ({} records pending), dropping record for topic {}",
+                journal.getPendingRecords(), record.topic());
+    }
+
+    private void drain() {
+        try {
+            journal.force();
+            while (!Thread.currentThread().isInterrupted()) {
+                SpillJournal.Batch batch = journal.read(drainBatchRecords);
+                if (batch.records().isEmpty() || !publish(batch.records())) {
+                    return;
+                }
+                journal.commit(batch);
+                drainedCounter.increment(batch.records().size());
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next interval retries from the last commit
+            LOG.error("Error draining spill journal", e);
+        }
+    }
+
+    /**
+     * @return true if every record was acknowledged
+     */
+    private boolean publish(List<SpilledRecord> records) {
+        if (drainProducer == null) {
+            drainProducer = new KafkaProducer<>(drainProducerConfigs, new ByteArraySerializer(),
+                    new ByteArraySerializer());
+        }
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (SpilledRecord record : records) {
+            drainProducer.send(new ProducerRecord<>(record.topic(), record.partition(), record.timestamp(),
+                    record.key(), record.value(), Arrays.asList(record.headers())), (metadata, e) -> {
+                if (e != null) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            if (failure.get() != null) {
+                // Usually metadata could not be fetched: the cluster is still unreachable
+                break;
+            }
+        }
+        drainProducer.flush();
+        if (failure.get() != null) {
+            ERROR_LOG.warn("Cluster not ready to re-publish {} spilled records: {}", journal.getPendingRecords(),
+                    failure.get().getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isSpillable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException || t instanceof ProducerBackpressureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps nothing: records that could not be sent are reported to the caller and lost.
+ */
+@Component
+@ConditionalOnProperty(name = "kafka-producer-config.spill-enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpRecordSpill implements RecordSpill {
+
+    @Override
+    public boolean spill(ProducerRecord<?, ?> record, Throwable cause) {
+        return false;
+    }
+
+    @Override
+    public boolean keepsRecords() {
+        return false;
+    }
+}
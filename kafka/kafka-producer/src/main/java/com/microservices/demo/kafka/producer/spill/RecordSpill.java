@@ -0,0 +1,24 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+/**
+ * Where the producer puts records it could not send, so they can be re-published later.
+ */
+public interface RecordSpill {
+
+    /**
+     * @param record the record that could not be sent
+     * @param cause  why it could not be sent
+     * @return true if the record was kept for re-publishing, false if it is lost
+     */
+    boolean spill(ProducerRecord<?, ?> record, Throwable cause);
+
+    /**
+     * @return true if {@link #spill} may keep records; producers then hand it records whose value they own,
+     *         since a send can fail long after the caller got its value back
+     */
+    default boolean keepsRecords() {
+        return true;
+    }
+}
@@ -0,0 +1,393 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import com.microservices.demo.kafka.producer.exception.SpillJournalException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable FIFO of serialized records on local disk, kept in memory-mapped segment files of
+ * {@code segmentBytes} each. At most {@code maxSegments} segments exist at once, so disk usage is bounded
+ * by their product; appends beyond that are refused.
+ * <p>
+ * A segment starts with an 8 byte header ({@link #MAGIC}, {@link #VERSION}) followed by records of
+ * {@code [int length][int crc32c][payload]}, where the checksum covers the payload. The length is written
+ * last, so a record torn by a crash reads as the end of the segment. The position up to which records have
+ * been re-published is kept in a small mapped checkpoint file; fully drained segments are deleted.
+ * <p>
+ * Data written to the mapped segments survives a crash of the process; {@link #force()} also makes it
+ * survive a crash of the host. On reopening, segments are scanned to find where the valid data ends and
+ * records failing their checksum are counted and skipped together with the rest of their segment.
+ * Records re-published but not yet committed when the process stopped are re-published again.
+ */
+public class SpillJournal implements Closeable {
+
+    public static final int MAGIC = 0x5350494c; // "SPIL"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8;
+    public static final int RECORD_OVERHEAD_BYTES = 4 + 4;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpillJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CHECKPOINT_FILE = "drain.checkpoint";
+    private static final int END = -1;
+    private static final int CORRUPT = -2;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final MappedByteBuffer checkpoint;
+    private int readPosition = HEADER_BYTES;
+    private long nextSequence;
+    private long pendingRecords;
+    private long corruptRecords;
+    private boolean closed;
+
+    /**
+     * A run of records returned by {@link #read(int)}, to be passed to {@link #commit(Batch)} once they have
+     * been re-published.
+     */
+    public record Batch(List<SpilledRecord> records, long segmentSequence, int position) {
+    }
+
+    public SpillJournal(Path directory, int segmentBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                checkpoint = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES + Integer.BYTES);
+            }
+            recover();
+        } catch (IOException e) {
+            throw new SpillJournalException("Could not open spill journal in " + directory, e);
+        }
+    }
+
+    /**
+     * @return false if the record did not fit: the journal is full or the record is larger than a segment
+     */
+    public synchronized boolean append(SpilledRecord record) {
+        if (closed) {
+            return false;
+        }
+        byte[] topic = record.topic().getBytes(StandardCharsets.UTF_8);
+        byte[][] headerKeys = new byte[record.headers().length][];
+        int payloadBytes = Long.BYTES + Short.BYTES + topic.length + Integer.BYTES
+                + Integer.BYTES + length(record.key()) + Integer.BYTES + length(record.value()) + Short.BYTES;
+        for (int i = 0; i < headerKeys.length; i++) {
+            headerKeys[i] = record.headers()[i].key().getBytes(StandardCharsets.UTF_8);
+            payloadBytes += Short.BYTES + headerKeys[i].length + Integer.BYTES + length(record.headers()[i].value());
+        }
+        int recordBytes = RECORD_OVERHEAD_BYTES + payloadBytes;
+        if (recordBytes > segmentBytes - HEADER_BYTES) {
+            return false;
+        }
+        Segment segment = segments.peekLast();
+        if (segment == null || segmentBytes - segment.end < recordBytes) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            if (segment != null) {
+                segment.buffer.force();
+            }
+            segment = createSegment();
+        }
+
+        ByteBuffer buffer = segment.buffer;
+        int start = segment.end;
+        buffer.position(start + RECORD_OVERHEAD_BYTES);
+        buffer.putLong(record.timestamp());
+        buffer.putShort((short) topic.length).put(topic);
+        buffer.putInt(record.partition() == null ? -1 : record.partition());
+        putBytes(buffer, record.key());
+        putBytes(buffer, record.value());
+        buffer.putShort((short) headerKeys.length);
+        for (int i = 0; i < headerKeys.length; i++) {
+            buffer.putShort((short) headerKeys[i].length).put(headerKeys[i]);
+            putBytes(buffer, record.headers()[i].value());
+        }
+        buffer.putInt(start + 4, checksum(buffer, start + RECORD_OVERHEAD_BYTES, payloadBytes));
+        buffer.putInt(start, payloadBytes);
+        segment.end = start + recordBytes;
+        pendingRecords++;
+        return true;
+    }
+
+    /**
+     * Returns up to {@code maxRecords} of the oldest records not yet committed, without consuming them.
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<SpilledRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        Segment segment = segments.peekFirst();
+        if (segment == null) {
+            return new Batch(records, 0, HEADER_BYTES);
+        }
+        Iterator<Segment> remaining = segments.iterator();
+        remaining.next();
+        int position = readPosition;
+        while (records.size() < maxRecords) {
+            int next = nextRecord(segment.buffer, position, segment.end);
+            if (next < 0) {
+                if (!remaining.hasNext()) {
+                    break;
+                }
+                segment = remaining.next();
+                position = HEADER_BYTES;
+                continue;
+            }
+            records.add(decode(segment.buffer, position + RECORD_OVERHEAD_BYTES));
+            position = next;
+        }
+        return new Batch(records, segment.sequence, position);
+    }
+
+    /**
+     * Consumes the records of a batch, deleting segments that have been read completely.
+     */
+    public synchronized void commit(Batch batch) {
+        if (closed) {
+            return;
+        }
+        while (segments.size() > 1 && segments.peekFirst().sequence < batch.segmentSequence()) {
+            Segment drained = segments.pollFirst();
+            try {
+                Files.deleteIfExists(drained.path);
+            } catch (IOException e) {
+                LOG.warn("Could not delete drained spill segment {}: {}", drained.path, e.getMessage());
+            }
+        }
+        readPosition = batch.position();
+        pendingRecords -= batch.records().size();
+        checkpoint.putLong(0, batch.segmentSequence()).putInt(Long.BYTES, batch.position());
+    }
+
+    /**
+     * Writes appended records and the checkpoint through to the storage device.
+     */
+    public synchronized void force() {
+        if (closed) {
+            return;
+        }
+        Segment segment = segments.peekLast();
+        if (segment != null) {
+            segment.buffer.force();
+        }
+        checkpoint.force();
+    }
+
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getDiskBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    public synchronized long getCorruptRecords() {
+        return corruptRecords;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        segments.clear();
+    }
+
+    private void recover() throws IOException {
+        long checkpointSequence = checkpoint.getLong(0);
+        int checkpointPosition = checkpoint.getInt(Long.BYTES);
+        nextSequence = checkpointSequence;
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            long sequence = sequence(file);
+            if (sequence < checkpointSequence) {
+                Files.delete(file);
+                continue;
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            Segment segment = openSegment(file, sequence);
+            int from = HEADER_BYTES;
+            if (segments.isEmpty() && sequence == checkpointSequence && checkpointPosition > HEADER_BYTES) {
+                from = checkpointPosition;
+                readPosition = checkpointPosition;
+            }
+            segments.add(segment);
+            scan(segment, from);
+        }
+        if (pendingRecords > 0 || corruptRecords > 0) {
+            LOG.info("Spill journal {} recovered with {} records to re-publish ({} corrupt records skipped)",
+                    directory, pendingRecords, corruptRecords);
+        }
+    }
+
+    /**
+     * Counts the valid records from {@code from} and sets the segment end after the last one.
+     */
+    private void scan(Segment segment, int from) {
+        int position = from;
+        while (true) {
+            int next = nextRecord(segment.buffer, position, segmentBytes);
+            if (next == CORRUPT) {
+                corruptRecords++;
+                LOG.warn("Corrupt record in spill segment {} at {}, skipping the rest of the segment",
+                        segment.path, position);
+            }
+            if (next < 0) {
+                break;
+            }
+            pendingRecords++;
+            position = next;
+        }
+        segment.end = position;
+    }
+
+    private Segment createSegment() {
+        long sequence = nextSequence++;
+        Path path = directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+        try {
+            Segment segment = new Segment(sequence, path, map(path));
+            segment.buffer.putInt(0, MAGIC).putInt(4, VERSION);
+            segment.end = HEADER_BYTES;
+            if (segments.isEmpty()) {
+                // Nothing left to drain: reading starts at the beginning of the new segment
+                readPosition = HEADER_BYTES;
+                checkpoint.putLong(0, sequence).putInt(Long.BYTES, HEADER_BYTES);
+            }
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new SpillJournalException("Could not create spill segment " + path, e);
+        }
+    }
+
+    private Segment openSegment(Path path, long sequence) throws IOException {
+        MappedByteBuffer buffer = map(path);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new SpillJournalException("Not a spill segment: " + path);
+        }
+        return new Segment(sequence, path, buffer);
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /**
+     * @return the position after the record at {@code position}, {@link #END} or {@link #CORRUPT}
+     */
+    private static int nextRecord(ByteBuffer buffer, int position, int limit) {
+        if (position + RECORD_OVERHEAD_BYTES > limit) {
+            return END;
+        }
+        int length = buffer.getInt(position);
+        if (length == 0) {
+            return END;
+        }
+        int payloadStart = position + RECORD_OVERHEAD_BYTES;
+        if (length < 0 || length > limit - payloadStart
+                || buffer.getInt(position + 4) != checksum(buffer, payloadStart, length)) {
+            return CORRUPT;
+        }
+        return payloadStart + length;
+    }
+
+    private static SpilledRecord decode(ByteBuffer segmentBuffer, int position) {
+        ByteBuffer buffer = segmentBuffer.duplicate().position(position);
+        long timestamp = buffer.getLong();
+        byte[] topic = new byte[buffer.getShort()];
+        buffer.get(topic);
+        int partition = buffer.getInt();
+        byte[] key = getBytes(buffer);
+        byte[] value = getBytes(buffer);
+        Header[] headers = new Header[buffer.getShort()];
+        for (int i = 0; i < headers.length; i++) {
+            byte[] headerKey = new byte[buffer.getShort()];
+            buffer.get(headerKey);
+            headers[i] = new RecordHeader(new String(headerKey, StandardCharsets.UTF_8), getBytes(buffer));
+        }
+        return new SpilledRecord(new String(topic, StandardCharsets.UTF_8), partition < 0 ? null : partition,
+                timestamp, key, value, headers);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static long sequence(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int end;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
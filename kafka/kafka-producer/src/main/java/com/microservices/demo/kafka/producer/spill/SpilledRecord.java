@@ -0,0 +1,11 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import org.apache.kafka.common.header.Header;
+
+/**
+ * A serialized record as stored in the spill journal. A null partition leaves the choice to the default
+ * partitioner, which picks the same partition for the same serialized key.
+ */
+public record SpilledRecord(String topic, Integer partition, long timestamp, byte[] key, byte[] value,
+                            Header[] headers) {
+}
@@ -0,0 +1,133 @@
+package com.microservices.demo.kafka.producer.tuning;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.config.service.impl.PooledKafkaProducer;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.tuning.BatchingPolicy.Action;
+import com.microservices.demo.kafka.producer.tuning.BatchingPolicy.Decision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retunes linger.ms and batch.size every adaptive-batching-interval-ms from the observed batch fill,
+ * record queue time and ack latency, as decided by {@link BatchingPolicy}.
+ * <p>
+ * A change is applied by updating the producer factory configs and resetting the factory, so the
+ * producer is rebuilt with the new settings on the next send; pooled producers are rebuilt the same way.
+ * The old producer is closed gracefully, but a send racing the reset can fail and is reported like any
+ * other send error. Every decision, including holds, is logged and counted as
+ * {@code kafka.producer.tuning.decisions}; the current settings are exported as gauges.
+ * Not used in transactional mode, whose producer is held for the life of its transactions.
+ */
+@Component
+@ConditionalOnExpression("${kafka-producer-config.adaptive-batching-enabled:false}"
+        + " and !'${kafka-producer-config.delivery-mode:idempotent}'.equalsIgnoreCase('transactional')")
+public class AdaptiveBatchingController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchingController.class);
+
+    private final ProducerFactory<?, ?> producerFactory;
+    private final ObjectProvider<PooledKafkaProducer<?, ?>> pooledProducer;
+    private final ProducerMetrics producerMetrics;
+    private final BatchingPolicy policy;
+    private final Map<Action, Counter> decisionCounters = new EnumMap<>(Action.class);
+    private final ScheduledExecutorService tuningScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("kafka-batching-tuner").daemon(true).factory());
+    private volatile int lingerMs;
+    private volatile int batchSize;
+    private long lastAcknowledgedCount;
+
+    public AdaptiveBatchingController(ProducerFactory<?, ?> factory,
+                                      ObjectProvider<PooledKafkaProducer<?, ?>> pooled,
+                                      KafkaProducerConfigData producerConfigData,
+                                      ProducerMetrics metrics,
+                                      MeterRegistry meterRegistry) {
+        this.producerFactory = factory;
+        this.pooledProducer = pooled;
+        this.producerMetrics = metrics;
+        this.policy = new BatchingPolicy(producerConfigData);
+        this.lingerMs = producerConfigData.getLingerMs();
+        this.batchSize = producerConfigData.getBatchSize() * producerConfigData.getBatchSizeBoostFactor();
+
+        for (Action action : Action.values()) {
+            decisionCounters.put(action, Counter.builder("kafka.producer.tuning.decisions")
+                    .description("Adaptive batching decisions, by action")
+                    .tag("action", action.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("kafka.producer.tuning.linger", this, controller -> controller.lingerMs)
+                .description("linger.ms currently chosen by adaptive batching")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("kafka.producer.tuning.batch.size", this, controller -> controller.batchSize)
+                .description("batch.size currently chosen by adaptive batching")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        long intervalMs = producerConfigData.getAdaptiveBatchingIntervalMs();
+        tuningScheduler.scheduleWithFixedDelay(this::tune, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        LOG.info("Adaptive batching every {} ms starting from linger.ms={}, batch.size={}",
+                intervalMs, lingerMs, batchSize);
+    }
+
+    @PreDestroy
+    public void close() {
+        tuningScheduler.shutdownNow();
+    }
+
+    void tune() {
+        try {
+            long acknowledgedCount = producerMetrics.getAcknowledgedCount();
+            boolean traffic = acknowledgedCount > lastAcknowledgedCount;
+            lastAcknowledgedCount = acknowledgedCount;
+            double batchFill = traffic ? producerMetrics.getBatchFillRatio() : Double.NaN;
+            double queueTimeMs = producerMetrics.getRecordQueueTimeMs();
+            double ackP99Ms = traffic ? producerMetrics.getAckLatencyP99Ms() : Double.NaN;
+
+            Decision decision = policy.decide(batchFill, queueTimeMs, ackP99Ms, lingerMs, batchSize);
+            decisionCounters.get(decision.action()).increment();
+            LOG.info("Adaptive batching {}: linger.ms {} -> {}, batch.size {} -> {} ({}; batch fill {}, "
+                            + "queue time {} ms, ack p99 {} ms)",
+                    decision.action(), lingerMs, decision.lingerMs(), batchSize, decision.batchSize(),
+                    decision.reason(), format(batchFill), format(queueTimeMs), format(ackP99Ms));
+            if (decision.action() != Action.HOLD) {
+                apply(decision);
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next interval decides again
+            LOG.error("Adaptive batching failed", e);
+        }
+    }
+
+    private void apply(Decision decision) {
+        Map<String, Object> configs = Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, decision.lingerMs(),
+                ProducerConfig.BATCH_SIZE_CONFIG, decision.batchSize());
+        producerFactory.updateConfigs(configs);
+        producerFactory.reset();
+        pooledProducer.ifAvailable(pool -> pool.reconfigure(configs));
+        producerMetrics.setBatchSize(decision.batchSize());
+        lingerMs = decision.lingerMs();
+        batchSize = decision.batchSize();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,72 @@
+package com.microservices.demo.kafka.producer.tuning;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+
+/**
+ * Picks the next linger.ms and batch.size from what the producer observed over the last interval.
+ * <p>
+ * Latency comes first: while ack p99 is above adaptive-max-ack-latency-ms, linger is halved, then batch
+ * size. Below half of that bound there is headroom to spend on throughput: batches that fill up before
+ * linger expires get a larger batch.size, and batches that wait out linger mostly empty get a longer
+ * linger. Anything else holds the current settings. Every step stays within the configured bounds.
+ */
+final class BatchingPolicy {
+
+    static final double FULL_BATCH_FILL = 0.9;
+    static final double SPARSE_BATCH_FILL = 0.5;
+
+    enum Action {
+        HOLD,
+        DECREASE_LINGER,
+        DECREASE_BATCH,
+        INCREASE_BATCH,
+        INCREASE_LINGER
+    }
+
+    record Decision(Action action, int lingerMs, int batchSize, String reason) {
+    }
+
+    private final double maxAckLatencyMs;
+    private final int minLingerMs;
+    private final int maxLingerMs;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+
+    BatchingPolicy(KafkaProducerConfigData producerConfigData) {
+        this.maxAckLatencyMs = producerConfigData.getAdaptiveMaxAckLatencyMs();
+        this.minLingerMs = producerConfigData.getAdaptiveMinLingerMs();
+        this.maxLingerMs = producerConfigData.getAdaptiveMaxLingerMs();
+        this.minBatchSize = producerConfigData.getAdaptiveMinBatchSize();
+        this.maxBatchSize = producerConfigData.getAdaptiveMaxBatchSize();
+    }
+
+    Decision decide(double batchFill, double queueTimeMs, double ackP99Ms, int lingerMs, int batchSize) {
+        if (Double.isNaN(batchFill) || Double.isNaN(ackP99Ms)) {
+            return new Decision(Action.HOLD, lingerMs, batchSize, "no traffic observed");
+        }
+        if (ackP99Ms > maxAckLatencyMs) {
+            if (lingerMs > minLingerMs) {
+                return new Decision(Action.DECREASE_LINGER, Math.max(minLingerMs, lingerMs / 2), batchSize,
+                        "ack p99 above SLO");
+            }
+            if (batchSize > minBatchSize) {
+                return new Decision(Action.DECREASE_BATCH, lingerMs, Math.max(minBatchSize, batchSize / 2),
+                        "ack p99 above SLO at minimum linger");
+            }
+            return new Decision(Action.HOLD, lingerMs, batchSize, "ack p99 above SLO at minimum settings");
+        }
+        if (ackP99Ms > maxAckLatencyMs / 2) {
+            return new Decision(Action.HOLD, lingerMs, batchSize, "ack p99 near SLO");
+        }
+        boolean lingerBound = Double.isNaN(queueTimeMs) || queueTimeMs >= lingerMs / 2.0;
+        if (batchFill >= FULL_BATCH_FILL && !lingerBound && batchSize < maxBatchSize) {
+            return new Decision(Action.INCREASE_BATCH, lingerMs, (int) Math.min(maxBatchSize, 2L * batchSize),
+                    "batches fill before linger expires");
+        }
+        if (batchFill < SPARSE_BATCH_FILL && lingerBound && lingerMs < maxLingerMs) {
+            return new Decision(Action.INCREASE_LINGER, Math.min(maxLingerMs, Math.max(lingerMs + 1, lingerMs * 2)),
+                    batchSize, "batches leave sparse after waiting out linger");
+        }
+        return new Decision(Action.HOLD, lingerMs, batchSize, "within targets");
+    }
+}
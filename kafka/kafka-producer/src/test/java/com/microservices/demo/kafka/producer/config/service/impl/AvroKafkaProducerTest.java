@@ -0,0 +1,195 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.exception.ProducerBackpressureException;
+import com.microservices.demo.kafka.producer.exception.RecordSpilledException;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.DefaultPartitionRouter;
+import com.microservices.demo.kafka.producer.partition.PartitionRouter;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import com.microservices.demo.kafka.producer.spill.NoOpRecordSpill;
+import com.microservices.demo.kafka.producer.spill.RecordSpill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for in-flight admission of the Avro producer
+ */
+@DisplayName("Avro Kafka Producer Backpressure Tests")
+class AvroKafkaProducerTest {
+
+    private static final String TOPIC = "social-events";
+
+    private final List<CompletableFuture<SendResult<Long, SocialEventAvroModel>>> pendingSends = new ArrayList<>();
+    private KafkaTemplate<Long, SocialEventAvroModel> template;
+    private KafkaProducerConfigData configData;
+    private SimpleMeterRegistry meterRegistry;
+    private ProducerMetrics producerMetrics;
+    private AvroKafkaProducer<Long, SocialEventAvroModel> producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        template = mock(KafkaTemplate.class);
+        when(template.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            CompletableFuture<SendResult<Long, SocialEventAvroModel>> future = new CompletableFuture<>();
+            pendingSends.add(future);
+            return future;
+        });
+        configData = new KafkaProducerConfigData();
+        configData.setMaxInFlightRecords(3);
+        configData.setAdmissionTimeoutMs(0L);
+        configData.setBatchSize(16384);
+        configData.setBatchSizeBoostFactor(1);
+        meterRegistry = new SimpleMeterRegistry();
+        producerMetrics = new ProducerMetrics(meterRegistry, mock(TopicPartitionCounts.class), configData);
+        producer = new AvroKafkaProducer<>(template, configData, producerMetrics, new DefaultPartitionRouter(),
+                new NoOpRecordSpill());
+    }
+
+    @Test
+    @DisplayName("Should reject sends beyond the in-flight limit until acknowledgements free capacity")
+    void shouldRejectBeyondInFlightLimit() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertFalse(producer.sendAsync(TOPIC, (long) i, event(i)).isCompletedExceptionally());
+        }
+
+        // When
+        CompletableFuture<RecordMetadata> rejected = producer.sendAsync(TOPIC, 3L, event(3));
+
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ProducerBackpressureException.class, e.getCause());
+        assertEquals(3, producerMetrics.getInFlightRecords());
+
+        acknowledge(0);
+        assertFalse(producer.sendAsync(TOPIC, 4L, event(4)).isCompletedExceptionally(),
+                "An acknowledgement should return a permit");
+    }
+
+    @Test
+    @DisplayName("Should only route records that are actually sent")
+    void shouldNotRouteRejectedRecords() {
+        // Given
+        List<Long> routedKeys = new ArrayList<>();
+        PartitionRouter router = (topic, key, headers) -> {
+            routedKeys.add((Long) key);
+            return null;
+        };
+        AvroKafkaProducer<Long, SocialEventAvroModel> routingProducer = new AvroKafkaProducer<>(template,
+                configData, producerMetrics, router, new NoOpRecordSpill());
+        for (int i = 0; i < 3; i++) {
+            routingProducer.sendAsync(TOPIC, (long) i, event(i));
+        }
+
+        // When
+        routingProducer.sendAsync(TOPIC, 3L, event(3));
+        routingProducer.sendAll(TOPIC, List.of(new Pair<>(4L, event(4))));
+
+        // Then
+        assertEquals(List.of(0L, 1L, 2L), routedKeys, "Rejected keys should not count towards hot keys");
+    }
+
+    @Test
+    @DisplayName("Should make fire-and-forget sends wait for a permit instead of dropping the record")
+    void shouldBlockSendAtInFlightLimit() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            producer.send(TOPIC, (long) i, event(i));
+        }
+
+        // When
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> producer.send(TOPIC, 3L, event(3)));
+
+        // Then
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+        acknowledge(0);
+        blocked.get(5, TimeUnit.SECONDS);
+        assertEquals(4, pendingSends.size(), "The waiting record should reach the producer");
+        assertEquals(0, meterRegistry.get("kafka.producer.admission.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should admit a batch as a whole and complete once every record is acknowledged")
+    void shouldSendBatchAsAWhole() throws Exception {
+        // Given
+        List<Pair<Long, SocialEventAvroModel>> batch = List.of(
+                new Pair<>(1L, event(1)), new Pair<>(2L, event(2)));
+
+        // When
+        CompletableFuture<List<RecordMetadata>> result = producer.sendAll(TOPIC, batch);
+        CompletableFuture<List<RecordMetadata>> tooLarge = producer.sendAll(TOPIC, batch);
+
+        // Then
+        assertTrue(tooLarge.isCompletedExceptionally(), "Only one permit left, the second batch needs two");
+        assertFalse(result.isDone());
+        acknowledge(0);
+        acknowledge(1);
+        assertEquals(List.of(1L, 2L), result.get().stream().map(RecordMetadata::offset).toList());
+        assertEquals(0, producerMetrics.getInFlightRecords());
+        assertEquals(2, meterRegistry.get("kafka.producer.partition.records")
+                .tags("topic", TOPIC, "partition", "0").counter().count());
+        assertEquals(2 * (8 + 64), meterRegistry.get("kafka.producer.partition.bytes").counter().count());
+        assertEquals(2, meterRegistry.get("kafka.producer.ack.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should spill a failed record as it was sent even though the caller reused its value")
+    void shouldSpillValueAsSent() throws Exception {
+        // Given
+        List<String> spilledTexts = new ArrayList<>();
+        RecordSpill spill = (record, cause) -> spilledTexts.add(((SocialEventAvroModel) record.value()).getText());
+        AvroKafkaProducer<Long, SocialEventAvroModel> spillingProducer = new AvroKafkaProducer<>(template,
+                configData, producerMetrics, new DefaultPartitionRouter(), spill);
+        SocialEventAvroModel reused = event(1);
+        CompletableFuture<RecordMetadata> failed = spillingProducer.sendAsync(TOPIC, 1L, reused);
+
+        // When
+        reused.setId(2L);
+        reused.setText("text 2");
+        spillingProducer.sendAsync(TOPIC, 2L, reused);
+        pendingSends.get(0).completeExceptionally(new TimeoutException("Expiring 1 record(s)"));
+
+        // Then
+        assertEquals(List.of("text 1"), spilledTexts);
+        ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(RecordSpilledException.class, e.getCause());
+    }
+
+    private void acknowledge(int index) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(TOPIC, 0), index + 1, 0, 0L, 8, 64);
+        pendingSends.get(index).complete(new SendResult<>(null, metadata));
+    }
+
+    private static SocialEventAvroModel event(long id) {
+        return SocialEventAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(id)
+                .setText("text " + id)
+                .setCreatedAt(0L)
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.config.KafkaProducerConfigData.PoolRouting;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.DefaultPartitionRouter;
+import com.microservices.demo.kafka.producer.partition.KeyHashing;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import com.microservices.demo.kafka.producer.spill.NoOpRecordSpill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for routing sends across the producer pool
+ */
+@DisplayName("Pooled Kafka Producer Tests")
+class PooledKafkaProducerTest {
+
+    private static final String TOPIC = "social-events";
+    private static final int POOL_SIZE = 2;
+
+    private final List<MockProducer<Long, SocialEventAvroModel>> mockProducers = new ArrayList<>();
+    private TopicPartitionCounts partitionCounts;
+    private PooledKafkaProducer<Long, SocialEventAvroModel> producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Serializer<SocialEventAvroModel> valueSerializer = (topic, data) -> new byte[0];
+        ProducerFactory<Long, SocialEventAvroModel> factory = mock(ProducerFactory.class);
+        when(factory.copyWithConfigurationOverride(anyMap())).thenAnswer(invocation -> {
+            // KafkaTemplate closes non-transactional producers after each send, as the factory's are close-safe
+            MockProducer<Long, SocialEventAvroModel> mockProducer =
+                    spy(new MockProducer<>(true, (topic, data) -> new byte[Long.BYTES], valueSerializer));
+            doNothing().when(mockProducer).close();
+            doNothing().when(mockProducer).close(any(Duration.class));
+            mockProducers.add(mockProducer);
+            ProducerFactory<Long, SocialEventAvroModel> pooledFactory = mock(ProducerFactory.class);
+            when(pooledFactory.createProducer()).thenReturn(mockProducer);
+            return pooledFactory;
+        });
+
+        partitionCounts = mock(TopicPartitionCounts.class);
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(6);
+        KafkaProducerConfigData configData = new KafkaProducerConfigData();
+        configData.setProducerPoolSize(POOL_SIZE);
+        configData.setProducerPoolRouting(PoolRouting.PARTITION);
+        configData.setBatchSize(16384);
+        configData.setBatchSizeBoostFactor(1);
+        producer = new PooledKafkaProducer<>(factory, partitionCounts, configData,
+                new ProducerMetrics(new SimpleMeterRegistry(), partitionCounts, configData),
+                new DefaultPartitionRouter(), new NoOpRecordSpill());
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.close();
+    }
+
+    @Test
+    @DisplayName("Should always send the records of a key through the same producer")
+    void shouldKeepKeyOnOneProducer() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            producer.sendAsync(TOPIC, 42L, event(42L));
+        }
+
+        // Then
+        assertEquals(POOL_SIZE, mockProducers.size());
+        assertEquals(List.of(10), mockProducers.stream()
+                .map(mockProducer -> mockProducer.history().size())
+                .filter(sent -> sent > 0)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("Should spread a batch over the pool and return metadata in input order")
+    void shouldSplitBatchAndKeepOrder() throws Exception {
+        // Given
+        List<Pair<Long, SocialEventAvroModel>> batch = LongStream.range(0, 50)
+                .mapToObj(key -> new Pair<>(key, event(key)))
+                .toList();
+
+        // When
+        List<RecordMetadata> results = producer.sendAll(TOPIC, batch).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(batch.size(), results.size());
+        assertTrue(mockProducers.stream().allMatch(mockProducer -> !mockProducer.history().isEmpty()),
+                "Every pooled producer should receive part of the batch");
+        for (MockProducer<Long, SocialEventAvroModel> mockProducer : mockProducers) {
+            long offset = 0;
+            for (ProducerRecord<Long, SocialEventAvroModel> sent : mockProducer.history()) {
+                int index = sent.key().intValue();
+                assertEquals(offset++, results.get(index).offset(),
+                        "Metadata of record " + index + " should come from the producer that sent it");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should map partitions to producers by the topic's live partition count")
+    void shouldFollowLivePartitionCount() {
+        // Given
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(9);
+        long key = LongStream.range(0, 1_000)
+                .filter(k -> KeyHashing.defaultPartition(KeyHashing.hash(k), 9) % POOL_SIZE
+                        != KeyHashing.defaultPartition(KeyHashing.hash(k), 6) % POOL_SIZE)
+                .findFirst()
+                .orElseThrow();
+
+        // When
+        producer.sendAsync(TOPIC, key, event(key));
+
+        // Then
+        int expectedProducer = KeyHashing.defaultPartition(KeyHashing.hash(key), 9) % POOL_SIZE;
+        assertEquals(1, mockProducers.get(expectedProducer).history().size(),
+                "The key's partition in the expanded topic decides its producer");
+    }
+
+    private static SocialEventAvroModel event(long id) {
+        return SocialEventAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(id)
+                .setText("text " + id)
+                .setCreatedAt(0L)
+                .build();
+    }
+}
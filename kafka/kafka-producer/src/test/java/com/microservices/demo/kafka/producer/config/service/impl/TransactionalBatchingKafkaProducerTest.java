@@ -0,0 +1,133 @@
+package com.microservices.demo.kafka.producer.config.service.impl;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.avro.model.SocialEventAvroModel;
+import com.microservices.demo.kafka.producer.config.service.Pair;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.DefaultPartitionRouter;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the batched transactional producer
+ */
+@DisplayName("Transactional Batching Kafka Producer Tests")
+class TransactionalBatchingKafkaProducerTest {
+
+    private static final String TOPIC = "social-events";
+
+    private MockProducer<Long, SocialEventAvroModel> mockProducer;
+    private ProducerFactory<Long, SocialEventAvroModel> factory;
+    private TransactionalBatchingKafkaProducer<Long, SocialEventAvroModel> producer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Serializer<SocialEventAvroModel> valueSerializer = (topic, data) -> new byte[0];
+        mockProducer = new MockProducer<>(true, (topic, data) -> new byte[Long.BYTES], valueSerializer);
+        mockProducer.initTransactions();
+        factory = mock(ProducerFactory.class);
+        when(factory.createProducer()).thenReturn(mockProducer);
+
+        KafkaProducerConfigData configData = new KafkaProducerConfigData();
+        configData.setTransactionMaxRecords(3);
+        configData.setTransactionMaxIntervalMs(60_000L);
+        configData.setBatchSize(16384);
+        configData.setBatchSizeBoostFactor(1);
+        producer = new TransactionalBatchingKafkaProducer<>(factory, configData,
+                new ProducerMetrics(new SimpleMeterRegistry(), mock(TopicPartitionCounts.class), configData),
+                new DefaultPartitionRouter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.close();
+    }
+
+    @Test
+    @DisplayName("Should complete sends only when the transaction commits after max records")
+    void shouldCommitEveryMaxRecords() throws Exception {
+        // Given
+        CompletableFuture<RecordMetadata> first = producer.sendAsync(TOPIC, 1L, event(1));
+        producer.sendAsync(TOPIC, 2L, event(2));
+        assertFalse(first.isDone(), "Records must not be reported before their transaction commits");
+        assertEquals(0, mockProducer.commitCount());
+
+        // When
+        producer.sendAsync(TOPIC, 3L, event(3));
+
+        // Then
+        assertEquals(1, mockProducer.commitCount());
+        assertEquals(3, mockProducer.history().size());
+        assertEquals(TOPIC, first.get(1, TimeUnit.SECONDS).topic());
+        assertTrue(mockProducer.transactionInFlight(), "A new transaction should be open for the next sends");
+    }
+
+    @Test
+    @DisplayName("Should fail every record of an aborted transaction")
+    void shouldFailRecordsOfAbortedTransaction() {
+        // Given
+        CompletableFuture<RecordMetadata> first = producer.sendAsync(TOPIC, 1L, event(1));
+        mockProducer.commitTransactionException = new KafkaException("broker unavailable");
+
+        // When
+        CompletableFuture<List<RecordMetadata>> batch = producer.sendAll(TOPIC,
+                List.of(new Pair<>(2L, event(2)), new Pair<>(3L, event(3))));
+
+        // Then
+        assertEquals(0, mockProducer.commitCount());
+        assertTrue(mockProducer.history().isEmpty(), "Aborted records must not be visible");
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(KafkaException.class, e.getCause());
+        assertTrue(batch.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("Should commit pending records on close and reject later sends without a new producer")
+    void shouldRejectSendsAfterClose() throws Exception {
+        // Given
+        CompletableFuture<RecordMetadata> pending = producer.sendAsync(TOPIC, 1L, event(1));
+
+        // When
+        producer.close();
+        CompletableFuture<RecordMetadata> late = producer.sendAsync(TOPIC, 2L, event(2));
+        CompletableFuture<List<RecordMetadata>> lateBatch = producer.sendAll(TOPIC, List.of(new Pair<>(3L, event(3))));
+
+        // Then
+        assertEquals(TOPIC, pending.get(1, TimeUnit.SECONDS).topic());
+        assertEquals(1, mockProducer.commitCount());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> late.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(lateBatch.isCompletedExceptionally());
+        verify(factory, times(1)).createProducer();
+    }
+
+    private static SocialEventAvroModel event(long id) {
+        return SocialEventAvroModel.newBuilder()
+                .setId(id)
+                .setUserId(id)
+                .setText("text " + id)
+                .setCreatedAt(0L)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.microservices.demo.kafka.producer.metrics;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the partition imbalance gauge of the producer metrics
+ */
+@DisplayName("Producer Metrics Tests")
+class ProducerMetricsTest {
+
+    private static final String TOPIC = "social-events";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TopicPartitionCounts partitionCounts;
+    private ProducerMetrics producerMetrics;
+
+    @BeforeEach
+    void setUp() {
+        KafkaProducerConfigData configData = new KafkaProducerConfigData();
+        configData.setBatchSize(16384);
+        configData.setBatchSizeBoostFactor(1);
+        partitionCounts = mock(TopicPartitionCounts.class);
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(4);
+        producerMetrics = new ProducerMetrics(meterRegistry, partitionCounts, configData);
+    }
+
+    @AfterEach
+    void tearDown() {
+        producerMetrics.close();
+    }
+
+    @Test
+    @DisplayName("Should report the last window's imbalance against the live partition count, however often read")
+    void shouldReportLastWindowRegardlessOfReads() {
+        // Given
+        acknowledge(0, 6);
+        acknowledge(1, 2);
+
+        // When
+        producerMetrics.sampleBalances();
+
+        // Then
+        Gauge imbalance = meterRegistry.get("kafka.producer.partition.imbalance").tag("topic", TOPIC).gauge();
+        assertEquals(3.0, imbalance.value(), 1e-9, "6 of 8 records against a mean of 2 over 4 partitions");
+        assertEquals(3.0, imbalance.value(), 1e-9, "Reading the gauge should not reset the window");
+
+        // When
+        acknowledge(0, 2);
+        acknowledge(1, 2);
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(2);
+        producerMetrics.sampleBalances();
+
+        // Then
+        assertEquals(1.0, imbalance.value(), 1e-9, "Only records since the last sample should count");
+    }
+
+    private void acknowledge(int partition, int records) {
+        for (int i = 0; i < records; i++) {
+            producerMetrics.recordAcknowledged(new RecordMetadata(new TopicPartition(TOPIC, partition), 0, 0,
+                    0L, 8, 64), System.nanoTime());
+        }
+    }
+}
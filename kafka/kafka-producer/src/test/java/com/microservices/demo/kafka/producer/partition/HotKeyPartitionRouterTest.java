@@ -0,0 +1,110 @@
+package com.microservices.demo.kafka.producer.partition;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.metrics.ProducerMetrics;
+import com.microservices.demo.kafka.producer.partition.TopicPartitionCounts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for hot-key detection and salting
+ */
+@DisplayName("Hot Key Partition Router Tests")
+class HotKeyPartitionRouterTest {
+
+    private static final String TOPIC = "social-events";
+    private static final long HOT_KEY = 42L;
+
+    private TopicPartitionCounts partitionCounts;
+    private HotKeyPartitionRouter router;
+
+    @BeforeEach
+    void setUp() {
+        partitionCounts = mock(TopicPartitionCounts.class);
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(6);
+        KafkaProducerConfigData producerConfigData = new KafkaProducerConfigData();
+        producerConfigData.setHotKeyShare(0.05);
+        producerConfigData.setHotKeySaltPartitions(3);
+        producerConfigData.setHotKeyWindowMs(60_000L);
+        producerConfigData.setBatchSize(16384);
+        producerConfigData.setBatchSizeBoostFactor(1);
+        router = new HotKeyPartitionRouter(partitionCounts, producerConfigData,
+                new ProducerMetrics(new SimpleMeterRegistry(), partitionCounts, producerConfigData));
+    }
+
+    @Test
+    @DisplayName("Should spread a hot key over the salt partitions and tag its records")
+    void shouldSaltHotKey() {
+        // Given
+        for (int i = 0; i < 500; i++) {
+            router.route(TOPIC, HOT_KEY, new RecordHeaders());
+        }
+
+        // When
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            Headers headers = new RecordHeaders();
+            Integer partition = router.route(TOPIC, HOT_KEY, headers);
+            assertNotNull(partition, "A hot key must be routed explicitly");
+            assertNotNull(headers.lastHeader(HotKeyPartitionRouter.SALT_HEADER));
+            partitions.add(partition);
+        }
+
+        // Then
+        assertEquals(3, partitions.size(), "Records should use every salt partition");
+        assertTrue(partitions.contains(KeyHashing.defaultPartition(KeyHashing.hash(HOT_KEY), 6)),
+                "Salt 0 should be the key's default partition");
+    }
+
+    @Test
+    @DisplayName("Should salt against the topic's live partition count after it grows")
+    void shouldFollowPartitionExpansion() {
+        // Given
+        for (int i = 0; i < 500; i++) {
+            router.route(TOPIC, HOT_KEY, new RecordHeaders());
+        }
+
+        // When
+        when(partitionCounts.partitionCount(TOPIC)).thenReturn(24);
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            partitions.add(router.route(TOPIC, HOT_KEY, new RecordHeaders()));
+        }
+
+        // Then
+        int defaultPartition = KeyHashing.defaultPartition(KeyHashing.hash(HOT_KEY), 24);
+        assertEquals(Set.of(defaultPartition, (defaultPartition + 1) % 24, (defaultPartition + 2) % 24),
+                partitions);
+    }
+
+    @Test
+    @DisplayName("Should leave cold keys to the default partitioner")
+    void shouldNotRouteColdKeys() {
+        // Given
+        for (int i = 0; i < 500; i++) {
+            router.route(TOPIC, HOT_KEY, new RecordHeaders());
+        }
+        for (long key = 1_000; key < 3_000; key++) {
+            router.route(TOPIC, key, new RecordHeaders());
+        }
+
+        // When
+        Headers headers = new RecordHeaders();
+        Integer partition = router.route(TOPIC, 7L, headers);
+
+        // Then
+        assertNull(partition);
+        assertNull(headers.lastHeader(HotKeyPartitionRouter.SALT_HEADER));
+    }
+}
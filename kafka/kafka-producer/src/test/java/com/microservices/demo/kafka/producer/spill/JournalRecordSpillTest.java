@@ -0,0 +1,79 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for spilling unsent records to the journal
+ */
+@DisplayName("Journal Record Spill Tests")
+class JournalRecordSpillTest {
+
+    private static final String TOPIC = "social-events";
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int MAX_SEGMENTS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should queue spilled records and write them to the journal off the calling thread")
+    void shouldWriteQueuedRecordsToJournal() {
+        // Given
+        JournalRecordSpill spill = new JournalRecordSpill(configData(), producerFactory(), new SimpleMeterRegistry());
+
+        // When
+        boolean kept = spill.spill(new ProducerRecord<>(TOPIC, 3, 1_000L, "key", "value"),
+                new TimeoutException("Delivery timed out"));
+        boolean dropped = spill.spill(new ProducerRecord<>(TOPIC, "key", "value"),
+                new IllegalStateException("Not retriable"));
+        spill.close();
+
+        // Then
+        assertTrue(kept, "Retriable failures should be kept");
+        assertFalse(dropped, "Non-retriable failures should not be spilled");
+        try (SpillJournal journal = new SpillJournal(directory, SEGMENT_BYTES, MAX_SEGMENTS)) {
+            List<SpilledRecord> records = journal.read(10).records();
+            assertEquals(1, records.size());
+            assertEquals(3, records.get(0).partition());
+            assertEquals(1_000L, records.get(0).timestamp());
+            assertEquals("value", new String(records.get(0).value(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private KafkaProducerConfigData configData() {
+        KafkaProducerConfigData configData = new KafkaProducerConfigData();
+        configData.setSpillDirectory(directory.toString());
+        configData.setSpillSegmentBytes(SEGMENT_BYTES);
+        configData.setSpillMaxSegments(MAX_SEGMENTS);
+        configData.setSpillDrainIntervalMs(60_000L);
+        configData.setSpillDrainBatchRecords(100);
+        return configData;
+    }
+
+    private ProducerFactory<?, ?> producerFactory() {
+        ProducerFactory<?, ?> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.getConfigurationProperties()).thenReturn(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092",
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class));
+        return producerFactory;
+    }
+}
@@ -0,0 +1,150 @@
+package com.microservices.demo.kafka.producer.spill;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped spill journal
+ */
+@DisplayName("Spill Journal Tests")
+class SpillJournalTest {
+
+    private static final String TOPIC = "social-events";
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should return records in order across segments and delete drained segments")
+    void shouldReadInOrderAcrossSegments() {
+        // Given
+        try (SpillJournal journal = new SpillJournal(directory, SEGMENT_BYTES, 8)) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(journal.append(record(i)));
+            }
+            assertTrue(journal.getDiskBytes() > SEGMENT_BYTES, "Records should span several segments");
+
+            // When
+            SpillJournal.Batch first = journal.read(60);
+            journal.commit(first);
+            SpillJournal.Batch second = journal.read(60);
+            journal.commit(second);
+
+            // Then
+            assertEquals(60, first.records().size());
+            assertEquals(40, second.records().size());
+            assertEquals("value-0", value(first.records().get(0)));
+            assertEquals("value-60", value(second.records().get(0)));
+            assertEquals("value-99", value(second.records().get(39)));
+            assertEquals(7, first.records().get(0).partition());
+            assertEquals("origin", first.records().get(0).headers()[0].key());
+            assertEquals(0, journal.getPendingRecords());
+            assertEquals(SEGMENT_BYTES, journal.getDiskBytes(), "Only the segment being written should remain");
+        }
+    }
+
+    @Test
+    @DisplayName("Should resume after the last commit when reopened")
+    void shouldRecoverFromCheckpoint() {
+        // Given
+        try (SpillJournal journal = new SpillJournal(directory, SEGMENT_BYTES, 8)) {
+            for (int i = 0; i < 50; i++) {
+                journal.append(record(i));
+            }
+            journal.commit(journal.read(20));
+            journal.read(10); // read but never committed: will be re-published
+        }
+
+        // When
+        try (SpillJournal reopened = new SpillJournal(directory, SEGMENT_BYTES, 8)) {
+            reopened.append(record(50));
+            List<SpilledRecord> records = reopened.read(100).records();
+
+            // Then
+            assertEquals(31, reopened.getPendingRecords());
+            assertEquals(31, records.size());
+            assertEquals("value-20", value(records.get(0)));
+            assertEquals("value-50", value(records.get(30)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse appends once the disk bound is reached")
+    void shouldRefuseWhenFull() {
+        try (SpillJournal journal = new SpillJournal(directory, SEGMENT_BYTES, 2)) {
+            int appended = 0;
+            while (journal.append(record(appended))) {
+                appended++;
+            }
+
+            assertTrue(appended > 0);
+            assertEquals(2L * SEGMENT_BYTES, journal.getDiskBytes());
+            assertEquals(appended, journal.getPendingRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip records whose checksum does not match")
+    void shouldSkipCorruptRecords() throws IOException {
+        // Given
+        try (SpillJournal journal = new SpillJournal(directory, SEGMENT_BYTES, 8)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(record(i));
+            }
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".segment")).findFirst().orElseThrow();
+        }
+        int recordBytes = SpillJournal.RECORD_OVERHEAD_BYTES + payloadBytes(record(0));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Flip a byte inside the payload of the fourth record
+            long offset = SpillJournal.HEADER_BYTES + 3L * recordBytes + SpillJournal.RECORD_OVERHEAD_BYTES + 12;
+            file.seek(offset);
+            int original = file.read();
+            file.seek(offset);
+            file.write(original ^ 0xFF);
+        }
+
+        // When
+        try (SpillJournal reopened = new SpillJournal(directory, SEGMENT_BYTES, 8)) {
+            List<SpilledRecord> records = reopened.read(100).records();
+
+            // Then
+            assertEquals(1, reopened.getCorruptRecords());
+            assertEquals(3, records.size(), "Records before the corrupt one should survive");
+            assertEquals("value-2", value(records.get(2)));
+        }
+    }
+
+    private static SpilledRecord record(int i) {
+        return new SpilledRecord(TOPIC, 7, 1_700_000_000_000L + i,
+                String.format("key-%03d", i).getBytes(StandardCharsets.UTF_8),
+                String.format("value-%d", i).getBytes(StandardCharsets.UTF_8),
+                new Header[]{new RecordHeader("origin", new byte[8])});
+    }
+
+    private static int payloadBytes(SpilledRecord record) {
+        return Long.BYTES + Short.BYTES + TOPIC.length() + Integer.BYTES
+                + Integer.BYTES + record.key().length + Integer.BYTES + record.value().length + Short.BYTES
+                + Short.BYTES + "origin".length() + Integer.BYTES + 8;
+    }
+
+    private static String value(SpilledRecord record) {
+        return new String(record.value(), StandardCharsets.UTF_8);
+    }
+}
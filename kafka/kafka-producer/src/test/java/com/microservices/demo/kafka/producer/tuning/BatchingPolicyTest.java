@@ -0,0 +1,70 @@
+package com.microservices.demo.kafka.producer.tuning;
+
+import com.microservices.demo.config.KafkaProducerConfigData;
+import com.microservices.demo.kafka.producer.tuning.BatchingPolicy.Action;
+import com.microservices.demo.kafka.producer.tuning.BatchingPolicy.Decision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the adaptive linger/batch policy
+ */
+@DisplayName("Batching Policy Tests")
+class BatchingPolicyTest {
+
+    private static final int BATCH_SIZE = 65536;
+
+    private BatchingPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        KafkaProducerConfigData configData = new KafkaProducerConfigData();
+        configData.setAdaptiveMaxAckLatencyMs(200L);
+        configData.setAdaptiveMinLingerMs(0);
+        configData.setAdaptiveMaxLingerMs(50);
+        configData.setAdaptiveMinBatchSize(16384);
+        configData.setAdaptiveMaxBatchSize(1048576);
+        policy = new BatchingPolicy(configData);
+    }
+
+    @Test
+    @DisplayName("Should shorten linger, then shrink batches, while ack p99 is above the SLO")
+    void shouldBackOffAboveSlo() {
+        // When
+        Decision lingerFirst = policy.decide(0.3, 10, 350, 20, BATCH_SIZE);
+        Decision thenBatch = policy.decide(0.3, 0, 350, 0, BATCH_SIZE);
+
+        // Then
+        assertEquals(Action.DECREASE_LINGER, lingerFirst.action());
+        assertEquals(10, lingerFirst.lingerMs());
+        assertEquals(BATCH_SIZE, lingerFirst.batchSize());
+        assertEquals(Action.DECREASE_BATCH, thenBatch.action());
+        assertEquals(BATCH_SIZE / 2, thenBatch.batchSize());
+    }
+
+    @Test
+    @DisplayName("Should spend latency headroom on larger batches or longer linger")
+    void shouldGrowWithHeadroom() {
+        // When
+        Decision fullBatches = policy.decide(0.95, 1, 40, 10, BATCH_SIZE);
+        Decision sparseBatches = policy.decide(0.2, 9, 40, 10, BATCH_SIZE);
+        Decision atMaximum = policy.decide(0.2, 50, 40, 50, BATCH_SIZE);
+
+        // Then
+        assertEquals(Action.INCREASE_BATCH, fullBatches.action());
+        assertEquals(2 * BATCH_SIZE, fullBatches.batchSize());
+        assertEquals(Action.INCREASE_LINGER, sparseBatches.action());
+        assertEquals(20, sparseBatches.lingerMs());
+        assertEquals(Action.HOLD, atMaximum.action());
+    }
+
+    @Test
+    @DisplayName("Should hold near the SLO and without traffic")
+    void shouldHold() {
+        assertEquals(Action.HOLD, policy.decide(0.2, 9, 150, 10, BATCH_SIZE).action());
+        assertEquals(Action.HOLD, policy.decide(Double.NaN, Double.NaN, Double.NaN, 10, BATCH_SIZE).action());
+    }
+}